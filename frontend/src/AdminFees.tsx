@@ -1,14 +1,15 @@
 import { useEffect, useState, useMemo } from 'react'
 import Layout from './components/Layout'
-import { getAllFees, type Fee } from './api'
+import { getAllFees, getFeeSummary, type Fee, type FeeSummary } from './api'
 import { Receipt, CheckCircle2, Clock, Search, Filter, AlertCircle } from 'lucide-react'
 
 export default function AdminFees() {
   const [fees, setFees] = useState<Fee[]>([])
+  const [summary, setSummary] = useState<FeeSummary | null>(null)
   const [loading, setLoading] = useState(true)
   const [error, setError] = useState<string | null>(null)
   const [search, setSearch] = useState('')
-  const [statusFilter, setStatusFilter] = useState<'ALL' | 'PAID' | 'PENDING'>('ALL')
+  const [statusFilter, setStatusFilter] = useState<'ALL' | 'PAID' | 'PENDING' | 'OVERDUE'>('ALL')
 
   useEffect(() => {
     loadFees()
@@ -17,8 +18,9 @@ export default function AdminFees() {
   async function loadFees() {
     setLoading(true)
     try {
-      const data = await getAllFees()
+      const [data, totals] = await Promise.all([getAllFees(), getFeeSummary()])
       setFees(data)
+      setSummary(totals)
     } catch (e) {
       setError((e as Error).message)
     } finally {
@@ -39,12 +41,12 @@ export default function AdminFees() {
     })
   }, [fees, search, statusFilter])
 
-  const stats = useMemo(() => {
-    const total = fees.reduce((acc, f) => acc + f.amount, 0)
-    const collected = fees.filter(f => f.status === 'PAID').reduce((acc, f) => acc + f.amount, 0)
-    const pending = fees.filter(f => f.status === 'PENDING').reduce((acc, f) => acc + f.amount, 0)
-    return { total, collected, pending }
-  }, [fees])
+  // Totals come from the server's ledger balances rather than summing every fee here
+  const stats = {
+    total: summary?.totals.charged ?? 0,
+    collected: summary?.totals.paid ?? 0,
+    pending: summary?.totals.outstanding ?? 0,
+  }
 
   return (
     <Layout title="Fee Management">
@@ -88,6 +90,34 @@ export default function AdminFees() {
           </div>
         </div>
 
+        {/* Outstanding by Department */}
+        {summary && summary.departments.length > 0 && (
+          <div className="bg-white rounded-xl shadow-sm border border-slate-200 overflow-hidden">
+            <table className="w-full text-left border-collapse">
+              <thead>
+                <tr className="bg-slate-50 border-b border-slate-100">
+                  <th className="p-4 font-semibold text-slate-600">Department</th>
+                  <th className="p-4 font-semibold text-slate-600">Charged</th>
+                  <th className="p-4 font-semibold text-slate-600">Collected</th>
+                  <th className="p-4 font-semibold text-slate-600">Adjustments</th>
+                  <th className="p-4 font-semibold text-slate-600">Outstanding</th>
+                </tr>
+              </thead>
+              <tbody className="divide-y divide-slate-100">
+                {summary.departments.map((d) => (
+                  <tr key={d.id ?? d.name} className="hover:bg-slate-50 transition-colors">
+                    <td className="p-4 font-medium text-slate-900">{d.name}</td>
+                    <td className="p-4 text-slate-600">₹{d.charged.toLocaleString()}</td>
+                    <td className="p-4 text-slate-600">₹{d.paid.toLocaleString()}</td>
+                    <td className="p-4 text-slate-600">₹{d.adjusted.toLocaleString()}</td>
+                    <td className="p-4 font-bold text-slate-900">₹{d.outstanding.toLocaleString()}</td>
+                  </tr>
+                ))}
+              </tbody>
+            </table>
+          </div>
+        )}
+
         {/* Filters and Search */}
         <div className="flex flex-col md:flex-row gap-4">
           <div className="relative flex-1">
@@ -109,6 +139,7 @@ export default function AdminFees() {
               <option value="ALL">All Status</option>
               <option value="PAID">Paid</option>
               <option value="PENDING">Pending</option>
+              <option value="OVERDUE">Overdue</option>
             </select>
           </div>
         </div>
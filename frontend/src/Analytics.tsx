@@ -1,10 +1,10 @@
 import { useEffect, useMemo, useState } from 'react'
-import { getStudents, type Student } from './api'
+import { getAnalyticsOverview, type AnalyticsOverview } from './api'
 import Layout from './components/Layout'
 import { BarChart3, Users, Calculator } from 'lucide-react'
 
 function Analytics() {
-  const [students, setStudents] = useState<Student[]>([])
+  const [overview, setOverview] = useState<AnalyticsOverview | null>(null)
   const [loading, setLoading] = useState(false)
   const [error, setError] = useState<string | null>(null)
 
@@ -13,8 +13,8 @@ function Analytics() {
       setLoading(true)
       setError(null)
       try {
-        const data = await getStudents()
-        setStudents(data)
+        const data = await getAnalyticsOverview()
+        setOverview(data)
       } catch (e) {
         setError((e as Error).message)
       } finally {
@@ -24,43 +24,19 @@ function Analytics() {
     load()
   }, [])
 
+  // Aggregates are computed server-side; only the summary rows are transferred
   const deptAvg = useMemo(() => {
-    const groups = new Map<string, number[]>()
-    for (const s of students) {
-      const dept = (s.department || 'Unassigned').trim()
-      if (!groups.has(dept)) groups.set(dept, [])
-      if (s.cgpa != null) groups.get(dept)!.push(s.cgpa)
-    }
-    return Array.from(groups.entries()).map(([dept, vals]) => {
-      const avg = vals.length ? vals.reduce((a, b) => a + b, 0) / vals.length : null
-      return { dept, avg: avg != null ? Number(avg.toFixed(2)) : null, count: vals.length }
-    }).sort((a, b) => a.dept.localeCompare(b.dept))
-  }, [students])
+    return (overview?.departments ?? []).map((d) => ({ dept: d.name, avg: d.mean, count: d.count }))
+  }, [overview])
 
   const dist = useMemo(() => {
-    // Buckets: 0–2, 2–4, 4–6, 6–8, 8–10
-    const buckets = [
-      { label: '0–2', min: 0, max: 2 },
-      { label: '2–4', min: 2, max: 4 },
-      { label: '4–6', min: 4, max: 6 },
-      { label: '6–8', min: 6, max: 8 },
-      { label: '8–10', min: 8, max: 10.01 },
-    ]
-    const counts = buckets.map(() => 0)
-    for (const s of students) {
-      const v = s.cgpa
-      if (v == null) continue
-      const idx = buckets.findIndex((b) => v >= b.min && v < b.max)
-      if (idx !== -1) counts[idx]++
-    }
-    return buckets.map((b, i) => ({ label: b.label, count: counts[i] }))
-  }, [students])
+    const histogram = overview?.cgpa.histogram ?? {}
+    return Object.entries(histogram).map(([label, count]) => ({ label: label.replace('-', '–'), count }))
+  }, [overview])
 
   const overallAvg = useMemo(() => {
-    if (students.length === 0) return 0
-    const total = students.reduce((acc, s) => acc + (s.cgpa || 0), 0)
-    return (total / students.length).toFixed(2)
-  }, [students])
+    return (overview?.cgpa.mean ?? 0).toFixed(2)
+  }, [overview])
 
   return (
     <Layout title="Results Analytics">
@@ -74,7 +50,7 @@ function Analytics() {
               </div>
               <div>
                 <p className="text-sm font-medium text-slate-500">Total Students</p>
-                <h3 className="text-2xl font-bold text-slate-900">{students.length}</h3>
+                <h3 className="text-2xl font-bold text-slate-900">{overview?.students ?? 0}</h3>
               </div>
             </div>
           </div>
@@ -1,5 +1,5 @@
 import { useState, useEffect } from 'react'
-import { getStudents, getAttendanceByDate, saveAttendance as apiSaveAttendance, type Student } from './api'
+import { getStudentPage, getAttendanceByDate, saveAttendance as apiSaveAttendance, type Student } from './api'
 import Layout from './components/Layout'
 import { Calendar, Save, CheckCircle2, XCircle, Clock } from 'lucide-react'
 
@@ -15,6 +15,8 @@ export default function Attendance() {
   const [attendance, setAttendance] = useState<AttendanceRecord>({})
   const [loading, setLoading] = useState(true)
   const [saved, setSaved] = useState(false)
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
+  const [loadingMore, setLoadingMore] = useState(false)
 
   useEffect(() => {
     loadStudents()
@@ -39,8 +41,9 @@ export default function Attendance() {
 
   async function loadStudents() {
     try {
-      const data = await getStudents()
-      setStudents(data)
+      const page = await getStudentPage()
+      setStudents(page.items)
+      setNextCursor(page.nextCursor)
     } catch (e) {
       console.error(e)
     } finally {
@@ -48,6 +51,20 @@ export default function Attendance() {
     }
   }
 
+  async function loadMore() {
+    if (!nextCursor) return
+    setLoadingMore(true)
+    try {
+      const page = await getStudentPage({ cursor: nextCursor })
+      setStudents(prev => [...prev, ...page.items])
+      setNextCursor(page.nextCursor)
+    } catch (e) {
+      console.error(e)
+    } finally {
+      setLoadingMore(false)
+    }
+  }
+
   function handleStatusChange(studentId: number, status: AttendanceStatus) {
     setAttendance(prev => ({
       ...prev,
@@ -224,6 +241,17 @@ export default function Attendance() {
             </table>
           </div>
         </div>
+        {nextCursor && (
+          <div className="text-center">
+            <button
+              onClick={loadMore}
+              disabled={loadingMore}
+              className="px-4 py-2 bg-white dark:bg-slate-800 border border-slate-200 dark:border-slate-700 text-slate-700 dark:text-slate-300 rounded-lg hover:bg-slate-50 dark:hover:bg-slate-700 transition-colors shadow-sm font-medium disabled:opacity-50"
+            >
+              {loadingMore ? 'Loading...' : 'Load more students'}
+            </button>
+          </div>
+        )}
       </div>
     </Layout>
   )
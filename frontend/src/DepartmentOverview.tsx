@@ -1,27 +1,36 @@
-import { useEffect, useMemo, useState } from 'react'
+import { useEffect, useState } from 'react'
 import { useNavigate, useParams } from 'react-router-dom'
-import { getStudents, getSubjectsByDepartment, type Student, type Subject } from './api'
+import { getAnalyticsOverview, getStudentPage, getSubjectsByDepartment, type Student, type Subject } from './api'
 import { Users, BookOpen, ArrowLeft, Calculator } from 'lucide-react'
 import Layout from './components/Layout'
 
 function DepartmentOverview() {
   const { name } = useParams()
   const [students, setStudents] = useState<Student[]>([])
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
+  const [totalStudents, setTotalStudents] = useState<number | null>(null)
+  const [avgCgpa, setAvgCgpa] = useState<number | null>(null)
+  const [loadingMore, setLoadingMore] = useState(false)
   const [subjects, setSubjects] = useState<Subject[]>([])
   const [loading, setLoading] = useState(false)
   const [error, setError] = useState<string | null>(null)
   const navigate = useNavigate()
   const dept = (name || '').trim()
+  const department = dept && dept !== 'All' ? dept : undefined
 
   useEffect(() => {
     async function load() {
       setLoading(true)
       setError(null)
       try {
-        const all = await getStudents()
-        const filtered = dept ? all.filter((s) => (s.department ?? '').trim() === dept) : all
-        setStudents(filtered)
-        if (dept && dept !== 'All') {
+        // Students arrive a page at a time; the totals come from the server-side aggregates
+        const [page, overview] = await Promise.all([getStudentPage({ department }), getAnalyticsOverview()])
+        setStudents(page.items)
+        setNextCursor(page.nextCursor)
+        const stats = department ? overview.departments.find((d) => d.name === department) : overview.cgpa
+        setTotalStudents(department ? null : overview.students)
+        setAvgCgpa(stats?.mean != null ? Number(stats.mean.toFixed(2)) : null)
+        if (department) {
           const subs = await getSubjectsByDepartment(dept)
           setSubjects(subs)
         } else {
@@ -36,12 +45,19 @@ function DepartmentOverview() {
     load()
   }, [dept])
 
-  const avgCgpa = useMemo(() => {
-    const vals = students.map((s) => s.cgpa).filter((v): v is number => v != null)
-    if (vals.length === 0) return null
-    const sum = vals.reduce((a, b) => a + b, 0)
-    return Number((sum / vals.length).toFixed(2))
-  }, [students])
+  async function loadMore() {
+    if (!nextCursor) return
+    setLoadingMore(true)
+    try {
+      const page = await getStudentPage({ department, cursor: nextCursor })
+      setStudents((prev) => [...prev, ...page.items])
+      setNextCursor(page.nextCursor)
+    } catch (e) {
+      setError((e as Error).message)
+    } finally {
+      setLoadingMore(false)
+    }
+  }
 
   return (
     <Layout
@@ -76,7 +92,7 @@ function DepartmentOverview() {
                   </div>
                   <div>
                     <p className="text-sm font-medium text-slate-500">Total Students</p>
-                    <h3 className="text-2xl font-bold text-slate-900">{students.length}</h3>
+                    <h3 className="text-2xl font-bold text-slate-900">{totalStudents ?? `${students.length}${nextCursor ? '+' : ''}`}</h3>
                   </div>
                 </div>
               </div>
@@ -133,6 +149,17 @@ function DepartmentOverview() {
                   </tbody>
                 </table>
               </div>
+              {nextCursor && (
+                <div className="p-4 border-t border-slate-100 text-center">
+                  <button
+                    onClick={loadMore}
+                    disabled={loadingMore}
+                    className="px-4 py-2 bg-white border border-slate-200 text-slate-700 rounded-lg hover:bg-slate-50 transition-colors shadow-sm font-medium disabled:opacity-50"
+                  >
+                    {loadingMore ? 'Loading...' : 'Load more'}
+                  </button>
+                </div>
+              )}
             </div>
 
             {/* Subjects List */}
@@ -1,6 +1,6 @@
 import { useEffect, useState } from 'react'
 import Layout from './components/Layout'
-import { getNotices, getStudentResults, getStudentAttendance, type Notice, type Result, type Attendance } from './api'
+import { getNotices, getStudentResults, getAttendanceSummary, type Notice, type Result } from './api'
 import { Bell, Trophy, CalendarCheck, BookOpen } from 'lucide-react'
 
 export default function StudentDashboard() {
@@ -19,10 +19,10 @@ export default function StudentDashboard() {
           setStudentName(user.name)
 
           if (user.id) {
-            const [noticesData, resultsData, attData] = await Promise.all([
+            const [noticesData, resultsData, attSummary] = await Promise.all([
               getNotices(),
               getStudentResults(user.id),
-              getStudentAttendance(user.id)
+              getAttendanceSummary(user.id)
             ])
             
             setNotices(noticesData)
@@ -33,10 +33,7 @@ export default function StudentDashboard() {
               setCgpa(total / resultsData.length / 10)
             }
             
-            // Calculate Attendance
-            const present = attData.filter(a => a.status === 'present' || a.status === 'late').length
-            const totalAtt = attData.length
-            setAttendancePercent(totalAtt > 0 ? (present / totalAtt) * 100 : 0)
+            setAttendancePercent(attSummary.percentage ?? 0)
           }
         }
       } catch (e) {
@@ -1,5 +1,5 @@
 import { useEffect, useState } from 'react'
-import { getStudentFees, payFee, createPaymentIntent, type Fee } from './api'
+import { getStudentFees, createPaymentIntent, confirmPayment, type Fee } from './api'
 import Layout from './components/Layout'
 import { CreditCard, CheckCircle2, Clock, Receipt, AlertCircle } from 'lucide-react'
 import { loadStripe } from '@stripe/stripe-js'
@@ -42,15 +42,17 @@ function CheckoutForm({ fee, onSuccess, onCancel }: { fee: Fee, onSuccess: () =>
     if (confirmError) {
       setError(confirmError.message || 'Payment failed')
       setProcessing(false)
-    } else if (paymentIntent && paymentIntent.status === 'succeeded') {
-      try {
-        await payFee(fee.id)
-        onSuccess()
-      } catch (e) {
-        setError('Payment succeeded but failed to update record. Please contact support.')
-      } finally {
-        setProcessing(false)
+    } else if (paymentIntent && (paymentIntent.status === 'succeeded' || paymentIntent.status === 'processing')) {
+      // The server checks the intent with Stripe before marking the fee paid; the webhook settles it too
+      if (paymentIntent.status === 'succeeded') {
+        try {
+          await confirmPayment(fee.id)
+        } catch (e) {
+          console.warn('Payment confirmation deferred to the webhook', e)
+        }
       }
+      setProcessing(false)
+      onSuccess()
     } else {
        setError('Unexpected payment status')
        setProcessing(false)
@@ -133,7 +135,7 @@ function StudentFees() {
     setSelectedFee(fee)
     setInitializingPayment(true)
     try {
-      const { clientSecret } = await createPaymentIntent(fee.amount, fee.id)
+      const { clientSecret } = await createPaymentIntent(fee.id)
       setClientSecret(clientSecret)
       setShowPayModal(true)
     } catch (e) {
@@ -147,8 +149,10 @@ function StudentFees() {
     setShowPayModal(false)
     setClientSecret(null)
     setSelectedFee(null)
+    alert('Payment Successful! Your receipt will appear in a few seconds.')
+    // Settlement is asynchronous; refresh once the webhook has had time to land
     loadFees()
-    alert('Payment Successful! Receipt generated.')
+    setTimeout(loadFees, 3000)
   }
 
   return (
@@ -164,7 +168,7 @@ function StudentFees() {
               <div>
                 <p className="text-sm font-medium text-slate-500">Total Due</p>
                 <h3 className="text-2xl font-bold text-slate-900">
-                  ₹{fees.filter(f => f.status === 'PENDING').reduce((acc, f) => acc + f.amount, 0).toLocaleString()}
+                  ₹{fees.filter(f => f.status !== 'PAID').reduce((acc, f) => acc + f.amount, 0).toLocaleString()}
                 </h3>
               </div>
             </div>
@@ -205,7 +209,9 @@ function StudentFees() {
                     </div>
                     <div>
                       <h4 className="font-medium text-slate-900">{fee.description}</h4>
-                      <p className="text-sm text-slate-500">Due: {fee.dueDate || 'N/A'}</p>
+                      <p className={`text-sm ${fee.status === 'OVERDUE' ? 'text-red-600' : 'text-slate-500'}`}>
+                        {fee.status === 'OVERDUE' ? 'Overdue since' : 'Due:'} {fee.dueDate || 'N/A'}
+                      </p>
                       {fee.status === 'PAID' && (
                         <p className="text-xs text-green-600 mt-1">Paid on {fee.paymentDate} • Txn: {fee.transactionId}</p>
                       )}
@@ -214,7 +220,7 @@ function StudentFees() {
                   
                   <div className="text-right">
                     <div className="text-lg font-bold text-slate-900">₹{fee.amount.toLocaleString()}</div>
-                    {fee.status === 'PENDING' ? (
+                    {fee.status !== 'PAID' ? (
                       <button
                         onClick={() => initiatePayment(fee)}
                         disabled={initializingPayment && selectedFee?.id === fee.id}
@@ -1,5 +1,5 @@
 import { useState, useEffect } from 'react'
-import { getStudents, getAttendanceByDate, saveAttendance as apiSaveAttendance, getTeacherById, type Student } from './api'
+import { getStudentPage, getAttendanceByDate, saveAttendance as apiSaveAttendance, getTeacherById, type Student } from './api'
 import Layout from './components/Layout'
 import { Calendar, Save, CheckCircle2, XCircle, Clock, Filter } from 'lucide-react'
 
@@ -15,6 +15,8 @@ export default function TeacherAttendance() {
   const [attendance, setAttendance] = useState<AttendanceRecord>({})
   const [loading, setLoading] = useState(true)
   const [saved, setSaved] = useState(false)
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
+  const [loadingMore, setLoadingMore] = useState(false)
   const [department, setDepartment] = useState('')
 
   useEffect(() => {
@@ -62,8 +64,9 @@ export default function TeacherAttendance() {
 
   async function loadStudents(dept: string) {
     try {
-      const data = await getStudents(dept)
-      setStudents(data)
+      const page = await getStudentPage({ department: dept })
+      setStudents(page.items)
+      setNextCursor(page.nextCursor)
     } catch (e) {
       console.error(e)
     } finally {
@@ -71,6 +74,20 @@ export default function TeacherAttendance() {
     }
   }
 
+  async function loadMore() {
+    if (!nextCursor) return
+    setLoadingMore(true)
+    try {
+      const page = await getStudentPage({ department, cursor: nextCursor })
+      setStudents(prev => [...prev, ...page.items])
+      setNextCursor(page.nextCursor)
+    } catch (e) {
+      console.error(e)
+    } finally {
+      setLoadingMore(false)
+    }
+  }
+
   function handleStatusChange(studentId: number, status: AttendanceStatus) {
     setAttendance(prev => ({
       ...prev,
@@ -260,6 +277,17 @@ export default function TeacherAttendance() {
             </div>
           )}
         </div>
+        {nextCursor && (
+          <div className="text-center">
+            <button
+              onClick={loadMore}
+              disabled={loadingMore}
+              className="px-4 py-2 bg-white dark:bg-slate-800 border border-slate-200 dark:border-slate-700 text-slate-700 dark:text-slate-300 rounded-lg hover:bg-slate-50 dark:hover:bg-slate-700 transition-colors shadow-sm font-medium disabled:opacity-50"
+            >
+              {loadingMore ? 'Loading...' : 'Load more students'}
+            </button>
+          </div>
+        )}
       </div>
     </Layout>
   )
@@ -33,17 +33,70 @@ const headers = {
   'Content-Type': 'application/json',
 }
 
+// Sends the signed-in user's token; an expired or rejected token ends the session
+async function apiFetch(input: string, init: RequestInit = {}): Promise<Response> {
+  const token = JSON.parse(localStorage.getItem('user') || '{}').token as string | undefined
+  const res = await fetch(input, token
+    ? { ...init, headers: { ...(init.headers as Record<string, string>), Authorization: `Bearer ${token}` } }
+    : init)
+  if (res.status === 401 && token) {
+    localStorage.removeItem('isAuthenticated')
+    localStorage.removeItem('user')
+    window.location.assign('/')
+  }
+  return res
+}
+
+// The plain list stops after the server's cap; screens that can grow with the roster use getStudentPage
 export async function getStudents(department?: string): Promise<Student[]> {
   const url = department 
     ? `${API_BASE}/api/students?department=${encodeURIComponent(department)}`
     : `${API_BASE}/api/students`
-  const res = await fetch(url)
+  const res = await apiFetch(url)
+  if (!res.ok) throw new Error('Failed to load students')
+  return res.json()
+}
+
+export type Page<T> = {
+  items: T[]
+  nextCursor: string | null
+  hasMore: boolean
+}
+
+export async function getStudentPage(opts: { department?: string; cursor?: string | null; limit?: number } = {}): Promise<Page<Student>> {
+  const params = new URLSearchParams({ limit: String(opts.limit ?? 100) })
+  if (opts.department) params.set('department', opts.department)
+  if (opts.cursor) params.set('cursor', opts.cursor)
+  const res = await apiFetch(`${API_BASE}/api/students?${params}`)
   if (!res.ok) throw new Error('Failed to load students')
   return res.json()
 }
 
+export type GroupStats = {
+  name: string
+  department?: string
+  subjectId?: number
+  count: number
+  mean: number | null
+  min: number | null
+  max: number | null
+  histogram: Record<string, number>
+}
+
+export type AnalyticsOverview = {
+  students: number
+  cgpa: GroupStats
+  departments: GroupStats[]
+}
+
+export async function getAnalyticsOverview(): Promise<AnalyticsOverview> {
+  const res = await apiFetch(`${API_BASE}/api/analytics`)
+  if (!res.ok) throw new Error('Failed to load analytics')
+  return res.json()
+}
+
 export async function createStudent(body: Omit<Student, 'id'>): Promise<Student> {
-  const res = await fetch(`${API_BASE}/api/students`, {
+  const res = await apiFetch(`${API_BASE}/api/students`, {
     method: 'POST',
     headers,
     body: JSON.stringify(body),
@@ -53,7 +106,7 @@ export async function createStudent(body: Omit<Student, 'id'>): Promise<Student>
 }
 
 export async function updateStudent(id: number, body: Omit<Student, 'id'>): Promise<Student> {
-  const res = await fetch(`${API_BASE}/api/students/${id}`, {
+  const res = await apiFetch(`${API_BASE}/api/students/${id}`, {
     method: 'PUT',
     headers,
     body: JSON.stringify(body),
@@ -63,12 +116,14 @@ export async function updateStudent(id: number, body: Omit<Student, 'id'>): Prom
 }
 
 export async function deleteStudent(id: number): Promise<void> {
-  const res = await fetch(`${API_BASE}/api/students/${id}`, { method: 'DELETE' })
+  const res = await apiFetch(`${API_BASE}/api/students/${id}`, { method: 'DELETE' })
+  // 409: the student has fee records, which are kept
+  if (res.status === 409) throw new Error(await res.text())
   if (!res.ok) throw new Error('Failed to delete student')
 }
 
 export async function updateCgpa(id: number, cgpa: number | null): Promise<Student> {
-  const res = await fetch(`${API_BASE}/api/students/${id}/cgpa`, {
+  const res = await apiFetch(`${API_BASE}/api/students/${id}/cgpa`, {
     method: 'PATCH',
     headers,
     body: JSON.stringify({ cgpa }),
@@ -77,11 +132,25 @@ export async function updateCgpa(id: number, cgpa: number | null): Promise<Stude
   return res.json()
 }
 
-export async function createPaymentIntent(amount: number, feeId: number): Promise<{ clientSecret: string }> {
-  const res = await fetch(`${API_BASE}/api/payment/create-payment-intent`, {
+// Asks the server to verify the payment with Stripe and settle the fee
+export async function confirmPayment(feeId: number): Promise<{ status: string }> {
+  const res = await apiFetch(`${API_BASE}/api/payment/confirm/${feeId}`, {
+    method: 'POST',
+    headers,
+  })
+  if (!res.ok) {
+    const errorData = await res.json().catch(() => ({}))
+    throw new Error(errorData.error || 'Failed to confirm payment')
+  }
+  return res.json()
+}
+
+// The server charges the fee's own amount and reuses the fee's open payment intent
+export async function createPaymentIntent(feeId: number): Promise<{ clientSecret: string }> {
+  const res = await apiFetch(`${API_BASE}/api/payment/create-payment-intent`, {
     method: 'POST',
     headers: { 'Content-Type': 'application/json' },
-    body: JSON.stringify({ amount, feeId }),
+    body: JSON.stringify({ feeId }),
   })
   if (!res.ok) {
     const errorData = await res.json()
@@ -101,7 +170,8 @@ export interface Fee {
   id: number
   amount: number
   description: string
-  status: 'PENDING' | 'PAID'
+  status: 'PENDING' | 'OVERDUE' | 'PAID'
+  term?: string
   dueDate?: string
   paymentDate?: string
   transactionId?: string
@@ -117,34 +187,56 @@ export interface Notice {
 }
 
 export async function getStudentFees(studentId: number): Promise<Fee[]> {
-  const res = await fetch(`${API_BASE}/api/fees/student/${studentId}`)
+  const res = await apiFetch(`${API_BASE}/api/fees/student/${studentId}`)
   if (!res.ok) throw new Error('Failed to load fees')
   return res.json()
 }
 
+export interface FeeBalance {
+  id: number | null
+  name: string
+  charged: number
+  paid: number
+  adjusted: number
+  outstanding: number
+}
+
+export interface FeeSummary {
+  totals: FeeBalance
+  departments: FeeBalance[]
+}
+
+export async function getFeeSummary(): Promise<FeeSummary> {
+  const res = await apiFetch(`${API_BASE}/api/fees/summary`)
+  if (!res.ok) throw new Error('Failed to load fee summary')
+  return res.json()
+}
+
 export async function getAllFees(): Promise<Fee[]> {
-  const res = await fetch(`${API_BASE}/api/fees`)
+  const res = await apiFetch(`${API_BASE}/api/fees`)
   if (!res.ok) throw new Error('Failed to load all fees')
   return res.json()
 }
 
-export async function payFee(feeId: number): Promise<Fee> {
-  const res = await fetch(`${API_BASE}/api/fees/pay/${feeId}`, {
+// Records a payment taken outside Stripe; admin only, with the receipt or bank reference
+export async function payFee(feeId: number, reference: string): Promise<Fee> {
+  const res = await apiFetch(`${API_BASE}/api/fees/pay/${feeId}`, {
     method: 'POST',
     headers,
+    body: JSON.stringify({ reference }),
   })
   if (!res.ok) throw new Error('Payment failed')
   return res.json()
 }
 
 export async function getStudentResults(studentId: number): Promise<Result[]> {
-  const res = await fetch(`${API_BASE}/api/results/student/${studentId}`)
+  const res = await apiFetch(`${API_BASE}/api/results/student/${studentId}`)
   if (!res.ok) throw new Error('Failed to load results')
   return res.json()
 }
 
 export async function saveResult(studentId: number, subjectId: number, marks: number): Promise<Result> {
-  const res = await fetch(`${API_BASE}/api/results`, {
+  const res = await apiFetch(`${API_BASE}/api/results`, {
     method: 'POST',
     headers: { 'Content-Type': 'application/json' },
     body: JSON.stringify({ studentId, subjectId, marks })
@@ -154,19 +246,19 @@ export async function saveResult(studentId: number, subjectId: number, marks: nu
 }
 
 export async function getDepartmentResults(departmentName: string): Promise<Result[]> {
-  const res = await fetch(`${API_BASE}/api/results/department/${encodeURIComponent(departmentName)}`)
+  const res = await apiFetch(`${API_BASE}/api/results/department/${encodeURIComponent(departmentName)}`)
   if (!res.ok) throw new Error('Failed to load department results')
   return res.json()
 }
 
 export async function getNotices(): Promise<Notice[]> {
-  const res = await fetch(`${API_BASE}/api/notices`)
+  const res = await apiFetch(`${API_BASE}/api/notices`)
   if (!res.ok) throw new Error('Failed to load notices')
   return res.json()
 }
 
 export async function createNotice(notice: Omit<Notice, 'id' | 'date'>): Promise<Notice> {
-  const res = await fetch(`${API_BASE}/api/notices`, {
+  const res = await apiFetch(`${API_BASE}/api/notices`, {
     method: 'POST',
     headers,
     body: JSON.stringify(notice),
@@ -176,31 +268,31 @@ export async function createNotice(notice: Omit<Notice, 'id' | 'date'>): Promise
 }
 
 export async function deleteNotice(id: number): Promise<void> {
-  const res = await fetch(`${API_BASE}/api/notices/${id}`, { method: 'DELETE' })
+  const res = await apiFetch(`${API_BASE}/api/notices/${id}`, { method: 'DELETE' })
   if (!res.ok) throw new Error('Failed to delete notice')
 }
 
 export async function getDepartments(): Promise<Department[]> {
-  const res = await fetch(`${API_BASE}/api/departments`)
+  const res = await apiFetch(`${API_BASE}/api/departments`)
   if (!res.ok) throw new Error('Failed to load departments')
   return res.json()
 }
 
 export async function getStudentById(id: number): Promise<Student> {
-  const res = await fetch(`${API_BASE}/api/students/${id}`)
+  const res = await apiFetch(`${API_BASE}/api/students/${id}`)
   if (res.status === 404) throw new Error('Student not found')
   if (!res.ok) throw new Error('Failed to load student')
   return res.json()
 }
 
 export async function getSubjectsByDepartment(department: string): Promise<Subject[]> {
-  const res = await fetch(`${API_BASE}/api/subjects?department=${encodeURIComponent(department)}`)
+  const res = await apiFetch(`${API_BASE}/api/subjects?department=${encodeURIComponent(department)}`)
   if (!res.ok) throw new Error('Failed to load subjects')
   return res.json()
 }
 
 export async function createSubject(name: string, department: string): Promise<Subject> {
-  const res = await fetch(`${API_BASE}/api/subjects`, {
+  const res = await apiFetch(`${API_BASE}/api/subjects`, {
     method: 'POST',
     headers,
     body: JSON.stringify({ name, department }),
@@ -210,24 +302,24 @@ export async function createSubject(name: string, department: string): Promise<S
 }
 
 export async function deleteSubject(id: number): Promise<void> {
-  const res = await fetch(`${API_BASE}/api/subjects/${id}`, { method: 'DELETE' })
+  const res = await apiFetch(`${API_BASE}/api/subjects/${id}`, { method: 'DELETE' })
   if (!res.ok) throw new Error('Failed to delete subject')
 }
 
 export async function getTeachers(): Promise<Teacher[]> {
-  const res = await fetch(`${API_BASE}/api/teachers`)
+  const res = await apiFetch(`${API_BASE}/api/teachers`)
   if (!res.ok) throw new Error('Failed to load teachers')
   return res.json()
 }
 
 export async function getTeacherById(id: number): Promise<Teacher> {
-  const res = await fetch(`${API_BASE}/api/teachers/${id}`)
+  const res = await apiFetch(`${API_BASE}/api/teachers/${id}`)
   if (!res.ok) throw new Error('Failed to load teacher')
   return res.json()
 }
 
 export async function createTeacher(body: Omit<Teacher, 'id'>): Promise<Teacher> {
-  const res = await fetch(`${API_BASE}/api/teachers`, {
+  const res = await apiFetch(`${API_BASE}/api/teachers`, {
     method: 'POST',
     headers,
     body: JSON.stringify(body),
@@ -237,7 +329,7 @@ export async function createTeacher(body: Omit<Teacher, 'id'>): Promise<Teacher>
 }
 
 export async function updateTeacher(id: number, body: Omit<Teacher, 'id'>): Promise<Teacher> {
-  const res = await fetch(`${API_BASE}/api/teachers/${id}`, {
+  const res = await apiFetch(`${API_BASE}/api/teachers/${id}`, {
     method: 'PUT',
     headers,
     body: JSON.stringify(body),
@@ -247,12 +339,12 @@ export async function updateTeacher(id: number, body: Omit<Teacher, 'id'>): Prom
 }
 
 export async function deleteTeacher(id: number): Promise<void> {
-  const res = await fetch(`${API_BASE}/api/teachers/${id}`, { method: 'DELETE' })
+  const res = await apiFetch(`${API_BASE}/api/teachers/${id}`, { method: 'DELETE' })
   if (!res.ok) throw new Error('Failed to delete teacher')
 }
 
-export async function login(email: string, password: string): Promise<{ id: number; name: string; role: string }> {
-  const res = await fetch(`${API_BASE}/api/auth/login`, {
+export async function login(email: string, password: string): Promise<{ id: number; name: string; role: string; token: string; expiresAt: string }> {
+  const res = await apiFetch(`${API_BASE}/api/auth/login`, {
     method: 'POST',
     headers,
     body: JSON.stringify({ email, password }),
@@ -270,13 +362,13 @@ export type Attendance = {
 }
 
 export async function getAttendanceByDate(date: string): Promise<Attendance[]> {
-  const res = await fetch(`${API_BASE}/api/attendance?date=${date}`)
+  const res = await apiFetch(`${API_BASE}/api/attendance?date=${date}`)
   if (!res.ok) throw new Error('Failed to load attendance')
   return res.json()
 }
 
 export async function saveAttendance(date: string, attendance: Record<number, string>): Promise<void> {
-  const res = await fetch(`${API_BASE}/api/attendance?date=${date}`, {
+  const res = await apiFetch(`${API_BASE}/api/attendance?date=${date}`, {
     method: 'POST',
     headers,
     body: JSON.stringify(attendance),
@@ -285,7 +377,27 @@ export async function saveAttendance(date: string, attendance: Record<number, st
 }
 
 export async function getStudentAttendance(studentId: number): Promise<Attendance[]> {
-  const res = await fetch(`${API_BASE}/api/attendance/student/${studentId}`)
+  const res = await apiFetch(`${API_BASE}/api/attendance/student/${studentId}`)
   if (!res.ok) throw new Error('Failed to load student attendance')
   return res.json()
 }
+
+export type AttendanceSummary = {
+  studentId: number
+  from: string
+  to: string
+  present: number
+  absent: number
+  late: number
+  total: number
+  percentage: number | null
+}
+
+export async function getAttendanceSummary(studentId: number, from?: string, to?: string): Promise<AttendanceSummary> {
+  const params = new URLSearchParams()
+  if (from) params.set('from', from)
+  if (to) params.set('to', to)
+  const res = await apiFetch(`${API_BASE}/api/attendance/summary/student/${studentId}?${params.toString()}`)
+  if (!res.ok) throw new Error('Failed to load attendance summary')
+  return res.json()
+}
@@ -0,0 +1,46 @@
+#!/usr/bin/env sh
+# Compares the main (MVC/JPA) application with the reactive read service on the same GET routes.
+# Needs wrk (https://github.com/wg/wrk) and both services running against the same database:
+#   MVC_URL=http://localhost:8081 REACTIVE_URL=http://localhost:8082 DEPARTMENT=CSE STUDENT_ID=1 ./compare.sh
+# For each route and connection count it prints requests/s, p50/p99 latency, errors, and each
+# server's thread count afterwards (from /proc, when the services run on this machine).
+set -eu
+
+MVC_URL=${MVC_URL:-http://localhost:8081}
+REACTIVE_URL=${REACTIVE_URL:-http://localhost:8082}
+DEPARTMENT=${DEPARTMENT:-CSE}
+STUDENT_ID=${STUDENT_ID:-1}
+DURATION=${DURATION:-30s}
+THREADS=${THREADS:-8}
+CONNECTIONS=${CONNECTIONS:-"100 1000 10000"}
+
+ROUTES="/api/notices /api/departments /api/subjects /api/students/$STUDENT_ID /api/results/department/$DEPARTMENT"
+
+threads_of() {
+  pid=$(lsof -t -i "tcp:$1" -s tcp:LISTEN 2>/dev/null | head -n 1 || true)
+  if [ -n "$pid" ] && [ -r "/proc/$pid/status" ]; then
+    awk '/^Threads:/ {print $2}' "/proc/$pid/status"
+  else
+    echo "?"
+  fi
+}
+
+run() {
+  # $1 label, $2 base url, $3 route, $4 connections
+  out=$(wrk -t "$THREADS" -c "$4" -d "$DURATION" --latency --timeout 10s "$2$3" 2>&1)
+  rps=$(echo "$out" | awk '/Requests\/sec/ {print $2}')
+  p50=$(echo "$out" | awk '$1 == "50%" {print $2}')
+  p99=$(echo "$out" | awk '$1 == "99%" {print $2}')
+  errors=$(echo "$out" | awk '/Socket errors|Non-2xx/ {printf "%s ", $0}')
+  port=$(echo "$2" | sed -E 's#.*:([0-9]+).*#\1#')
+  printf '%-9s %-40s %6s %10s %9s %9s %8s  %s\n' "$1" "$3" "$4" "${rps:-0}" "${p50:--}" "${p99:--}" \
+    "$(threads_of "$port")" "${errors:-}"
+}
+
+printf '%-9s %-40s %6s %10s %9s %9s %8s  %s\n' server route conns req/s p50 p99 threads errors
+for conns in $CONNECTIONS; do
+  for route in $ROUTES; do
+    run mvc "$MVC_URL" "$route" "$conns"
+    run reactive "$REACTIVE_URL" "$route" "$conns"
+  done
+done
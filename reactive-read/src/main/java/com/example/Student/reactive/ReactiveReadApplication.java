@@ -0,0 +1,18 @@
+package com.example.Student.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Read-only WebFlux service for the busiest GET routes. It runs beside the main application on
+ * its own port and reads the same tables over R2DBC. A proxy sends those GETs here and everything
+ * else to the main application.
+ */
+@SpringBootApplication
+@EnableScheduling
+public class ReactiveReadApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveReadApplication.class, args);
+    }
+}
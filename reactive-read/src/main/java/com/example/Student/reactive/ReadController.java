@@ -0,0 +1,56 @@
+package com.example.Student.reactive;
+
+import com.example.Student.reactive.dto.DepartmentView;
+import com.example.Student.reactive.dto.NoticeView;
+import com.example.Student.reactive.dto.ResultView;
+import com.example.Student.reactive.dto.StudentView;
+import com.example.Student.reactive.dto.SubjectView;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// The same paths and JSON as the main application's GET routes; lists also stream as application/x-ndjson
+@RestController
+@RequestMapping("/api")
+public class ReadController {
+    private final ReadRepository repository;
+
+    public ReadController(ReadRepository repository) {
+        this.repository = repository;
+    }
+
+    @GetMapping("/notices")
+    public Flux<NoticeView> notices() {
+        return repository.notices();
+    }
+
+    @GetMapping("/departments")
+    public Flux<DepartmentView> departments() {
+        return repository.departments();
+    }
+
+    @GetMapping("/subjects")
+    public Flux<SubjectView> subjects(@RequestParam(required = false) String department) {
+        if (department == null || department.isBlank() || department.equalsIgnoreCase("All")) {
+            return repository.subjects(null);
+        }
+        return repository.subjects(department);
+    }
+
+    @GetMapping("/students/{id}")
+    public Mono<ResponseEntity<StudentView>> student(@PathVariable Integer id) {
+        return repository.student(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/results/department/{departmentName}")
+    public Flux<ResultView> departmentResults(@PathVariable String departmentName) {
+        return repository.departmentResults(departmentName);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.Student.reactive;
+
+import com.example.Student.reactive.dto.DepartmentView;
+import com.example.Student.reactive.dto.NoticeView;
+import com.example.Student.reactive.dto.ResultView;
+import com.example.Student.reactive.dto.StudentView;
+import com.example.Student.reactive.dto.SubjectView;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Queries against the tables the main application's JPA entities define. Rows are emitted as the
+ * driver decodes them, so a slow client holds back the query instead of a buffered list. Each query
+ * runs on the client {@link ReplicaRouting} picks for the request.
+ */
+@Repository
+public class ReadRepository {
+    private static final String STUDENT_COLUMNS =
+            "s.id AS s_id, s.name AS s_name, s.email AS s_email, s.cgpa AS s_cgpa, sd.name AS s_department";
+
+    private final ReplicaRouting routing;
+
+    public ReadRepository(ReplicaRouting routing) {
+        this.routing = routing;
+    }
+
+    public Flux<NoticeView> notices() {
+        return Flux.deferContextual(context -> routing.client(context)
+                .sql("SELECT id, title, content, date, priority FROM notices ORDER BY date DESC")
+                .map(row -> new NoticeView(row.get("id", Integer.class), row.get("title", String.class),
+                        row.get("content", String.class), row.get("date", LocalDate.class),
+                        row.get("priority", String.class)))
+                .all());
+    }
+
+    public Flux<DepartmentView> departments() {
+        return Flux.deferContextual(context -> routing.client(context)
+                .sql("SELECT id, name FROM departments ORDER BY id")
+                .map(row -> new DepartmentView(row.get("id", Integer.class), row.get("name", String.class)))
+                .all());
+    }
+
+    // department == null lists every subject
+    public Flux<SubjectView> subjects(String department) {
+        String sql = "SELECT sub.id AS sub_id, sub.name AS sub_name, d.name AS sub_department FROM subjects sub " +
+                "LEFT JOIN departments d ON d.id = sub.department_id";
+        return Flux.deferContextual(context -> {
+            DatabaseClient db = routing.client(context);
+            DatabaseClient.GenericExecuteSpec spec = department == null
+                    ? db.sql(sql + " ORDER BY sub.id")
+                    : db.sql(sql + " WHERE d.name = :department ORDER BY sub.id").bind("department", department);
+            return spec.map(ReadRepository::subject).all();
+        });
+    }
+
+    public Mono<StudentView> student(Integer id) {
+        return Mono.deferContextual(context -> routing.client(context)
+                .sql("SELECT " + STUDENT_COLUMNS + " FROM students s " +
+                        "LEFT JOIN departments sd ON sd.id = s.department_id WHERE s.id = :id")
+                .bind("id", id)
+                .map(ReadRepository::student)
+                .one());
+    }
+
+    public Flux<ResultView> departmentResults(String department) {
+        return Flux.deferContextual(context -> routing.client(context)
+                .sql("SELECT r.id AS r_id, r.marks AS r_marks, " + STUDENT_COLUMNS + ", " +
+                        "sub.id AS sub_id, sub.name AS sub_name, d.name AS sub_department FROM results r " +
+                        "JOIN subjects sub ON sub.id = r.subject_id JOIN departments d ON d.id = sub.department_id " +
+                        "JOIN students s ON s.id = r.student_id LEFT JOIN departments sd ON sd.id = s.department_id " +
+                        "WHERE d.name = :department ORDER BY r.id")
+                .bind("department", department)
+                .map(row -> new ResultView(row.get("r_id", Integer.class), student(row), subject(row),
+                        row.get("r_marks", Double.class)))
+                .all());
+    }
+
+    private static StudentView student(Readable row) {
+        return new StudentView(row.get("s_id", Integer.class), row.get("s_name", String.class),
+                row.get("s_email", String.class), row.get("s_cgpa", Double.class),
+                row.get("s_department", String.class));
+    }
+
+    private static SubjectView subject(Readable row) {
+        return new SubjectView(row.get("sub_id", Integer.class), row.get("sub_name", String.class),
+                row.get("sub_department", String.class));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.Student.reactive;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpCookie;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Picks the replica or the primary for each query by the main application's rules. The replica is
+ * used only while its last measured lag plus the time since it was measured is within
+ * {@code replica.max-lag-seconds}. A client whose replica-primary-until cookie is in force (the main
+ * application sets it when one of the client's writes commits) reads from the primary.
+ */
+@Component
+public class ReplicaRouting implements WebFilter {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouting.class);
+    // Same cookie the main application writes
+    static final String STICKY_COOKIE = "replica-primary-until";
+    private static final String FORCE_PRIMARY = ReplicaRouting.class.getName() + ".forcePrimary";
+
+    private final DatabaseClient primary;
+    private final DatabaseClient replica;
+    private final long maxLagSeconds;
+    private final long stickySeconds;
+    private volatile Long lastLagSeconds;
+    private volatile long lastCheckedNanos;
+
+    public ReplicaRouting(DatabaseClient primary,
+                          @Value("${REPLICA_MYSQLHOST:}") String replicaHost,
+                          @Value("${REPLICA_MYSQLPORT:${MYSQLPORT:3306}}") String replicaPort,
+                          @Value("${REPLICA_MYSQLDATABASE:${MYSQLDATABASE:studentdb}}") String replicaDatabase,
+                          @Value("${REPLICA_MYSQLUSER:${MYSQLUSER:${DB_USERNAME:root}}}") String replicaUsername,
+                          @Value("${REPLICA_MYSQLPASSWORD:${MYSQLPASSWORD:${DB_PASSWORD:root1234}}}") String replicaPassword,
+                          @Value("${spring.r2dbc.pool.max-size:20}") int poolSize,
+                          @Value("${replica.max-lag-seconds:5}") long maxLagSeconds,
+                          @Value("${replica.sticky-seconds:10}") long stickySeconds) {
+        this.primary = primary;
+        this.replica = replicaHost.isBlank() ? null : DatabaseClient.create(ConnectionFactories.get(
+                ConnectionFactoryOptions.parse("r2dbc:pool:mysql://" + replicaHost + ":" + replicaPort + "/"
+                                + replicaDatabase + "?sslMode=PREFERRED&serverZoneId=UTC&maxSize=" + poolSize)
+                        .mutate()
+                        .option(ConnectionFactoryOptions.USER, replicaUsername)
+                        .option(ConnectionFactoryOptions.PASSWORD, replicaPassword)
+                        .build()));
+        this.maxLagSeconds = maxLagSeconds;
+        this.stickySeconds = stickySeconds;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpCookie cookie = exchange.getRequest().getCookies().getFirst(STICKY_COOKIE);
+        boolean sticky = cookie != null && isSticky(cookie.getValue());
+        return chain.filter(exchange).contextWrite(context -> context.put(FORCE_PRIMARY, sticky));
+    }
+
+    public DatabaseClient client(ContextView context) {
+        return replica != null && isFresh() && !context.getOrDefault(FORCE_PRIMARY, false) ? replica : primary;
+    }
+
+    // Values further out than the sticky window are ignored
+    private boolean isSticky(String cookieValue) {
+        try {
+            long until = Long.parseLong(cookieValue);
+            long now = System.currentTimeMillis();
+            return until > now && until <= now + stickySeconds * 1000;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private boolean isFresh() {
+        Long lag = lastLagSeconds;
+        if (lag == null) {
+            return false;
+        }
+        long sinceCheckMs = (System.nanoTime() - lastCheckedNanos) / 1_000_000;
+        return lag * 1000 + sinceCheckMs <= maxLagSeconds * 1000;
+    }
+
+    /**
+     * An empty replica status means the instance is standalone, which counts as no lag; a null lag
+     * means replication is stopped, which makes the replica unusable. Runs on the scheduler thread,
+     * so waiting for the answer never blocks the event loop.
+     */
+    @Scheduled(fixedDelayString = "${replica.lag-check-ms:2000}")
+    public void checkLag() {
+        if (replica == null) {
+            return;
+        }
+        Long lag;
+        try {
+            lag = replica.sql("SHOW REPLICA STATUS")
+                    .map(row -> Optional.ofNullable(row.get("Seconds_Behind_Source", Long.class)))
+                    .first()
+                    .defaultIfEmpty(Optional.of(0L))
+                    .block(Duration.ofSeconds(5))
+                    .orElse(null);
+        } catch (RuntimeException ex) {
+            lag = null;
+            if (lastLagSeconds != null) {
+                log.warn("Replica lag check failed; reads go to the primary until it recovers", ex);
+            }
+        }
+        lastLagSeconds = lag;
+        lastCheckedNanos = System.nanoTime();
+    }
+}
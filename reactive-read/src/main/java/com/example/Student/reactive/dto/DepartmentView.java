@@ -0,0 +1,5 @@
+package com.example.Student.reactive.dto;
+
+// Same JSON as the main application's Department entity
+public record DepartmentView(Integer id, String name) {
+}
@@ -0,0 +1,7 @@
+package com.example.Student.reactive.dto;
+
+import java.time.LocalDate;
+
+// Same JSON as the main application's Notice entity
+public record NoticeView(Integer id, String title, String content, LocalDate date, String priority) {
+}
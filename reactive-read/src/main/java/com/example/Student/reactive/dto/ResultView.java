@@ -0,0 +1,5 @@
+package com.example.Student.reactive.dto;
+
+// Same JSON as the main application's Result entity, with the student and subject nested
+public record ResultView(Integer id, StudentView student, SubjectView subject, Double marks) {
+}
@@ -0,0 +1,5 @@
+package com.example.Student.reactive.dto;
+
+// Same JSON as the main application's Student entity; the password hash is never selected
+public record StudentView(Integer id, String name, String email, Double cgpa, String department) {
+}
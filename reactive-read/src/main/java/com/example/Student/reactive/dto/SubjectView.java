@@ -0,0 +1,5 @@
+package com.example.Student.reactive.dto;
+
+// Same JSON as the main application's Subject entity: the department by name
+public record SubjectView(Integer id, String name, String department) {
+}
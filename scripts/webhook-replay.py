@@ -0,0 +1,106 @@
+#!/usr/bin/env python3
+"""Replays signed Stripe webhook events against POST /api/payment/webhook.
+
+Events are signed the way Stripe signs them (Stripe-Signature: t=<ts>,v1=<hmac-sha256>), using the
+same secret the server has in STRIPE_WEBHOOK_SECRET. Either replay recorded events from a JSONL file
+(one event per line) or generate payment_intent.succeeded events for a range of fee ids.
+
+  # settle fees 1..200 (amounts in rupees), each event delivered twice
+  STRIPE_WEBHOOK_SECRET=whsec_test python3 scripts/webhook-replay.py --fees 1-200 --amount 5000 --duplicates 1
+
+  # replay captured events as fast as 16 workers can send them
+  python3 scripts/webhook-replay.py --file events.jsonl --concurrency 16 --secret whsec_test
+"""
+import argparse
+import hashlib
+import hmac
+import json
+import os
+import sys
+import time
+import urllib.error
+import urllib.request
+import uuid
+from concurrent.futures import ThreadPoolExecutor
+from collections import Counter
+
+
+def sign(secret, payload, timestamp):
+    mac = hmac.new(secret.encode(), f"{timestamp}.{payload}".encode(), hashlib.sha256).hexdigest()
+    return f"t={timestamp},v1={mac}"
+
+
+def succeeded_event(fee_id, amount_minor, currency):
+    intent = "pi_replay_" + uuid.uuid4().hex[:16]
+    return {
+        "id": "evt_replay_" + uuid.uuid4().hex,
+        "object": "event",
+        "type": "payment_intent.succeeded",
+        "created": int(time.time()),
+        "data": {"object": {
+            "id": intent,
+            "object": "payment_intent",
+            "amount": amount_minor,
+            "amount_received": amount_minor,
+            "currency": currency,
+            "status": "succeeded",
+            "metadata": {"feeId": str(fee_id)},
+        }},
+    }
+
+
+def fee_range(spec):
+    start, _, end = spec.partition("-")
+    return range(int(start), int(end or start) + 1)
+
+
+def post(url, secret, payload):
+    request = urllib.request.Request(url, data=payload.encode(), method="POST", headers={
+        "Content-Type": "application/json",
+        "Stripe-Signature": sign(secret, payload, int(time.time())),
+    })
+    try:
+        with urllib.request.urlopen(request, timeout=10) as response:
+            return response.status
+    except urllib.error.HTTPError as ex:
+        return ex.code
+    except OSError:
+        return "error"
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("--url", default="http://localhost:8081/api/payment/webhook")
+    parser.add_argument("--secret", default=os.environ.get("STRIPE_WEBHOOK_SECRET"))
+    source = parser.add_mutually_exclusive_group(required=True)
+    source.add_argument("--file", help="JSONL file of events to replay")
+    source.add_argument("--fees", help="fee id or range, e.g. 1-500")
+    parser.add_argument("--amount", type=float, default=1000, help="fee amount in major units for --fees")
+    parser.add_argument("--currency", default="inr")
+    parser.add_argument("--duplicates", type=int, default=0, help="extra deliveries of every event")
+    parser.add_argument("--concurrency", type=int, default=8)
+    args = parser.parse_args()
+    if not args.secret:
+        parser.error("--secret or STRIPE_WEBHOOK_SECRET is required")
+
+    if args.file:
+        with open(args.file) as f:
+            payloads = [line.strip() for line in f if line.strip()]
+    else:
+        amount_minor = round(args.amount * 100)
+        payloads = [json.dumps(succeeded_event(fee, amount_minor, args.currency)) for fee in fee_range(args.fees)]
+    payloads = [p for p in payloads for _ in range(args.duplicates + 1)]
+
+    started = time.monotonic()
+    with ThreadPoolExecutor(max_workers=args.concurrency) as pool:
+        statuses = Counter(pool.map(lambda p: post(args.url, args.secret, p), payloads))
+    elapsed = time.monotonic() - started
+
+    print(f"sent {len(payloads)} events in {elapsed:.2f}s ({len(payloads) / elapsed:.0f}/s)")
+    for status, count in sorted(statuses.items(), key=str):
+        print(f"  {status}: {count}")
+    return 0 if set(statuses) == {200} else 1
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,34 @@
+package com.example.Student.config;
+
+import com.example.Student.service.AnalyticsService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Each cache is backed by a size-bounded Caffeine map, since some keys (the subject stats'
+    // department) come from requests.
+    @Bean
+    public CacheManager cacheManager(@Value("${analytics.cache.max-entries:256}") long maxEntries) {
+        ConcurrentMapCacheManager manager = new ConcurrentMapCacheManager() {
+            @Override
+            protected Cache createConcurrentMapCache(String name) {
+                return new ConcurrentMapCache(name, Caffeine.newBuilder().maximumSize(maxEntries).build().asMap(),
+                        isAllowNullValues());
+            }
+        };
+        manager.setCacheNames(List.of(AnalyticsService.CACHE));
+        return manager;
+    }
+}
@@ -1,31 +1,103 @@
 package com.example.Student.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * One Hikari pool per {@link Workload}, plus a matching replica pool for each when REPLICA_MYSQLHOST
+ * is set, all behind a single routing DataSource; see WorkloadRouting and ReplicaRouting.
+ */
 @Configuration
 public class DataSourceConfig {
+    private static final String URL_OPTIONS =
+            "?sslMode=PREFERRED&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true";
+
     @Bean
     public DataSource dataSource(
             @Value("${MYSQLHOST:localhost}") String host,
             @Value("${MYSQLPORT:3306}") String port,
             @Value("${MYSQLDATABASE:studentdb}") String database,
             @Value("${MYSQLUSER:${DB_USERNAME:root}}") String username,
-            @Value("${MYSQLPASSWORD:${DB_PASSWORD:root1234}}") String password
+            @Value("${MYSQLPASSWORD:${DB_PASSWORD:root1234}}") String password,
+            @Value("${REPLICA_MYSQLHOST:}") String replicaHost,
+            @Value("${REPLICA_MYSQLPORT:${MYSQLPORT:3306}}") String replicaPort,
+            @Value("${REPLICA_MYSQLDATABASE:${MYSQLDATABASE:studentdb}}") String replicaDatabase,
+            @Value("${REPLICA_MYSQLUSER:${MYSQLUSER:${DB_USERNAME:root}}}") String replicaUsername,
+            @Value("${REPLICA_MYSQLPASSWORD:${MYSQLPASSWORD:${DB_PASSWORD:root1234}}}") String replicaPassword,
+            Environment env,
+            ReplicaRouting replicaRouting,
+            WorkloadRouting workloadRouting
     ) {
-        String url = String.format(
-                "jdbc:mysql://%s:%s/%s?sslMode=PREFERRED&allowPublicKeyRetrieval=true&serverTimezone=UTC",
-                host, port, database
-        );
-        return DataSourceBuilder.create()
-                .driverClassName("com.mysql.cj.jdbc.Driver")
-                .url(url)
-                .username(username)
-                .password(password)
-                .build();
+        boolean hasReplica = !replicaHost.isBlank();
+        Map<Object, Object> pools = new HashMap<>();
+        for (Workload workload : Workload.values()) {
+            String key = workload.key();
+            pools.put(key, build(key, workload, env, host, port, database, username, password, workloadRouting));
+            if (hasReplica) {
+                pools.put(key + "-replica", build(key + "-replica", workload, env, replicaHost, replicaPort,
+                        replicaDatabase, replicaUsername, replicaPassword, workloadRouting));
+            }
+        }
+        if (hasReplica) {
+            // Lag checks are cheap and must not queue behind interactive traffic
+            replicaRouting.attachReplica((DataSource) pools.get(Workload.BACKGROUND.key() + "-replica"));
+        }
+        return new LazyConnectionDataSourceProxy(
+                new PoolRoutingDataSource(pools, hasReplica, replicaRouting, workloadRouting));
+    }
+
+    // Infrastructure role, so Boot's default auto-proxy creator applies it without AspectJ on the classpath
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static DefaultPointcutAdvisor workloadPoolAdvisor() {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(WorkloadPool.class, true))
+                .union(new AnnotationMatchingPointcut(null, WorkloadPool.class, true));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new WorkloadPoolInterceptor());
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    private static HikariDataSource build(String name, Workload workload, Environment env, String host, String port,
+                                          String database, String username, String password,
+                                          WorkloadRouting workloadRouting) {
+        String prefix = "datasource.pools." + workload.key() + ".";
+        int size = env.getProperty(prefix + "size", Integer.class, workload.defaultSize());
+        long acquireTimeoutMs = env.getProperty(prefix + "acquire-timeout-ms", Long.class,
+                workload.defaultAcquireTimeoutMs());
+        long statementTimeoutMs = env.getProperty(prefix + "statement-timeout-ms", Long.class,
+                workload.defaultStatementTimeoutMs());
+
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        pool.setJdbcUrl(String.format("jdbc:mysql://%s:%s/%s" + URL_OPTIONS, host, port, database));
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setMaximumPoolSize(size);
+        // Only interactive connections are kept warm; the others are opened on demand
+        pool.setMinimumIdle(workload == Workload.INTERACTIVE ? size : 0);
+        pool.setConnectionTimeout(acquireTimeoutMs);
+        if (statementTimeoutMs > 0) {
+            // max_execution_time bounds SELECTs; writes are bounded by how long they may wait on row locks
+            long lockWaitSeconds = Math.max(1, statementTimeoutMs / 1000);
+            pool.setConnectionInitSql("SET SESSION max_execution_time = " + statementTimeoutMs
+                    + ", innodb_lock_wait_timeout = " + lockWaitSeconds);
+        }
+        workloadRouting.register(name, pool);
+        return pool;
     }
 }
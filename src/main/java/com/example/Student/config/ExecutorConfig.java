@@ -0,0 +1,51 @@
+package com.example.Student.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ExecutorConfig {
+
+    // BCrypt is pure CPU, so one thread per core; when the queue is full the submitting thread
+    // hashes too, which throttles the reader instead of buffering the whole upload
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService passwordHashingExecutor() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(cores, cores, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cores * 64),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    // The ExecutorService above stops Boot from creating its own applicationTaskExecutor, which would leave
+    // async MVC work (streamed exports) on an unbounded thread-per-task executor. Exports beyond the
+    // threads and queue are refused with 503 instead. VirtualThreadConfig supplies its own when enabled.
+    @Bean(name = "applicationTaskExecutor")
+    @ConditionalOnProperty(name = "threads.virtual.enabled", havingValue = "false", matchIfMissing = true)
+    public AsyncTaskExecutor applicationTaskExecutor(@Value("${async.executor.threads:4}") int threads,
+                                                     @Value("${async.executor.queue:8}") int queue) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("async-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queue);
+        executor.setDaemon(true);
+        executor.initialize();
+        return executor;
+    }
+}
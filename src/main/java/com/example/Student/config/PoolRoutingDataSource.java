@@ -0,0 +1,50 @@
+package com.example.Student.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+
+/**
+ * Picks the pool for the current workload, on the replica when ReplicaRouting allows it. Must sit
+ * behind a LazyConnectionDataSourceProxy, so the key is chosen once the transaction's read-only flag
+ * is known. Replica pools are keyed "{@code <workload>-replica}".
+ */
+public class PoolRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReplicaRouting replicaRouting;
+    private final WorkloadRouting workloadRouting;
+    private final boolean hasReplica;
+
+    public PoolRoutingDataSource(Map<Object, Object> pools, boolean hasReplica,
+                                 ReplicaRouting replicaRouting, WorkloadRouting workloadRouting) {
+        this.replicaRouting = replicaRouting;
+        this.workloadRouting = workloadRouting;
+        this.hasReplica = hasReplica;
+        setTargetDataSources(pools);
+        setDefaultTargetDataSource(pools.get(Workload.INTERACTIVE.key()));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = WorkloadRouting.current().key();
+        return hasReplica && replicaRouting.useReplica() ? key + "-replica" : key;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        DataSource target = determineTargetDataSource();
+        try {
+            return target.getConnection();
+        } catch (SQLTransientConnectionException ex) {
+            // Hikari's "connection is not available" after the pool's acquisition timeout
+            workloadRouting.recordAcquireTimeout(key.toString());
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.Student.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.Cookie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides, per statement, whether the connection comes from the replica. Read-only transactions and
+ * GET requests to {@link ReplicaReads} handlers go to the replica; anything inside a read-write
+ * transaction goes to the primary. The replica is skipped entirely while its lag may exceed
+ * {@code datasource.replica.max-lag-seconds}: the last measured lag plus the time since it was
+ * measured, so a lag check that stops running makes the replica unusable rather than trusted. A
+ * client reads from the primary for {@code datasource.replica.sticky-seconds} after one of its
+ * transactions commits a write, so it always reads its own writes. That is recorded when the
+ * transaction commits, both on this node and in a cookie the client sends to every node.
+ */
+@Component
+public class ReplicaRouting {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouting.class);
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<Boolean> PREFER_REPLICA = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<String> SESSION = new ThreadLocal<>();
+    // Epoch millis until which the client reads from the primary
+    static final String STICKY_COOKIE = "replica-primary-until";
+
+    private final long maxLagSeconds;
+    private final long stickySeconds;
+    private final Cache<String, Boolean> recentWriters;
+    private volatile JdbcTemplate replica;
+    // Stays false until the first lag check succeeds
+    private volatile boolean replicaUsable;
+    private volatile Long lastLagSeconds;
+    private volatile long lastCheckedNanos;
+
+    public ReplicaRouting(@Value("${datasource.replica.max-lag-seconds:5}") long maxLagSeconds,
+                          @Value("${datasource.replica.sticky-seconds:10}") long stickySeconds) {
+        this.maxLagSeconds = maxLagSeconds;
+        this.stickySeconds = stickySeconds;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(stickySeconds))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    void attachReplica(DataSource dataSource) {
+        this.replica = new JdbcTemplate(dataSource);
+        checkLag();
+    }
+
+    public boolean useReplica() {
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        if (inTransaction && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            stickAfterCommit();
+            return false;
+        }
+        if (!isFresh() || FORCE_PRIMARY.get()) {
+            return false;
+        }
+        return inTransaction || PREFER_REPLICA.get();
+    }
+
+    // Request-scoped hints, set by ReplicaRoutingInterceptor and cleared when the request completes
+    void beginRequest(String session, boolean replicaReads, boolean stickyCookie) {
+        SESSION.set(session);
+        FORCE_PRIMARY.set(stickyCookie || (session != null && recentWriters.getIfPresent(session) != null));
+        PREFER_REPLICA.set(replicaReads);
+    }
+
+    void endRequest() {
+        SESSION.remove();
+        FORCE_PRIMARY.remove();
+        PREFER_REPLICA.remove();
+    }
+
+    void recordWrite(String session) {
+        if (session != null) {
+            recentWriters.put(session, Boolean.TRUE);
+        }
+    }
+
+    // Whether a sticky cookie value is still in force; values further out than the sticky window are ignored
+    boolean isSticky(String cookieValue) {
+        try {
+            long until = Long.parseLong(cookieValue);
+            long now = System.currentTimeMillis();
+            return until > now && until <= now + stickySeconds * 1000;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    // The last measured lag plus the time since it was measured bounds how far behind the replica can be
+    private boolean isFresh() {
+        Long lag = lastLagSeconds;
+        if (!replicaUsable || lag == null) {
+            return false;
+        }
+        long sinceCheckMs = (System.nanoTime() - lastCheckedNanos) / 1_000_000;
+        return lag * 1000 + sinceCheckMs <= maxLagSeconds * 1000;
+    }
+
+    // Registered once per read-write transaction that runs on a request thread
+    private void stickAfterCommit() {
+        String session = SESSION.get();
+        if (session == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.getSynchronizations().stream().anyMatch(StickAfterCommit.class::isInstance)) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new StickAfterCommit(session));
+    }
+
+    private final class StickAfterCommit implements TransactionSynchronization {
+        private final String session;
+
+        StickAfterCommit(String session) {
+            this.session = session;
+        }
+
+        @Override
+        public void afterCommit() {
+            recordWrite(session);
+            FORCE_PRIMARY.set(true);
+            // Written while the handler is still running, before the response is committed
+            if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                    && attributes.getResponse() != null && !attributes.getResponse().isCommitted()) {
+                Cookie cookie = new Cookie(STICKY_COOKIE,
+                        Long.toString(System.currentTimeMillis() + stickySeconds * 1000));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge((int) stickySeconds);
+                attributes.getResponse().addCookie(cookie);
+            }
+        }
+    }
+
+    /**
+     * An empty replica status means the instance is standalone (e.g. a local stand-in), which counts as
+     * no lag; a null lag means replication is stopped, which makes the replica unusable.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-ms:2000}")
+    public void checkLag() {
+        JdbcTemplate jdbc = replica;
+        if (jdbc == null) {
+            return;
+        }
+        boolean usable;
+        Long lag;
+        try {
+            List<Long> lags = jdbc.query("SHOW REPLICA STATUS", (rs, i) -> {
+                long seconds = rs.getLong("Seconds_Behind_Source");
+                return rs.wasNull() ? null : seconds;
+            });
+            lag = lags.isEmpty() ? Long.valueOf(0) : lags.get(0);
+            usable = lag != null && lag <= maxLagSeconds;
+        } catch (RuntimeException ex) {
+            lag = null;
+            usable = false;
+            if (replicaUsable) {
+                log.warn("Replica lag check failed; reads go to the primary until it recovers", ex);
+            }
+        }
+        if (usable != replicaUsable) {
+            log.info("Replica {} (lag {} s, tolerance {} s)", usable ? "in use" : "bypassed", lag, maxLagSeconds);
+        }
+        lastLagSeconds = lag;
+        lastCheckedNanos = System.nanoTime();
+        replicaUsable = usable;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("configured", replica != null);
+        stats.put("usable", isFresh());
+        stats.put("lagSeconds", lastLagSeconds);
+        stats.put("lastCheckedMsAgo", replica == null ? null : (System.nanoTime() - lastCheckedNanos) / 1_000_000);
+        stats.put("maxLagSeconds", maxLagSeconds);
+        stats.put("stickySessions", recentWriters.estimatedSize());
+        return stats;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.Student.config;
+
+import com.example.Student.dto.TokenClaims;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+// Marks each request's routing hints, including the sticky cookie, and remembers which sessions wrote, for read-your-writes
+@Component
+public class ReplicaRoutingInterceptor implements AsyncHandlerInterceptor {
+    private final ReplicaRouting routing;
+
+    public ReplicaRoutingInterceptor(ReplicaRouting routing) {
+        this.routing = routing;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        boolean replicaReads = "GET".equals(request.getMethod())
+                && handler instanceof HandlerMethod method
+                && (method.hasMethodAnnotation(ReplicaReads.class)
+                    || method.getBeanType().isAnnotationPresent(ReplicaReads.class));
+        routing.beginRequest(session(request), replicaReads, stickyCookie(request));
+        return true;
+    }
+
+    // Transactional writes are recorded as they commit; this also covers writes made without one
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method) && response.getStatus() < 400) {
+            routing.recordWrite(session(request));
+        }
+        routing.endRequest();
+    }
+
+    // The request continues on another thread; the async dispatch runs preHandle again there
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        routing.endRequest();
+    }
+
+    // Set on a response after the client's write committed, on whichever node handled it
+    private boolean stickyCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (ReplicaRouting.STICKY_COOKIE.equals(cookie.getName()) && routing.isSticky(cookie.getValue())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // The signed-in user, or the client address for anonymous calls
+    private static String session(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof TokenClaims claims) {
+            return claims.getRole() + ":" + claims.getUserId();
+        }
+        return request.getRemoteAddr();
+    }
+}
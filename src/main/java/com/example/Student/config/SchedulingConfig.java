@@ -0,0 +1,10 @@
+package com.example.Student.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Runs @Scheduled jobs such as the nightly analytics snapshot
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
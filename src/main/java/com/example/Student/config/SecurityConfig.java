@@ -1,13 +1,21 @@
 package com.example.Student.config;
 
+import com.example.Student.dto.CursorPage;
+import com.example.Student.service.TokenService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -19,11 +27,33 @@ import java.util.List;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, TokenService tokenService) throws Exception {
         http
             .csrf(AbstractHttpConfigurer::disable)
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilterBefore(new TokenAuthenticationFilter(tokenService), UsernamePasswordAuthenticationFilter.class)
+            .exceptionHandling(errors -> errors.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
             .authorizeHttpRequests(auth -> auth
+                // The original request was already authorized; async (streamed exports) and error dispatches carry no token
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                // Signing in, and Stripe's webhook, which is authenticated by its signature instead
+                .requestMatchers(HttpMethod.POST, "/api/auth/login", "/api/payment/webhook").permitAll()
+                // Operational endpoints and bulk data exports need an ADMIN token
+                .requestMatchers("/api/admin/**", "/api/export/**").hasRole("ADMIN")
+                // Marking a fee paid outside Stripe bypasses the webhook and intent checks
+                .requestMatchers(HttpMethod.POST, "/api/fees/pay/*").hasRole("ADMIN")
+                // Operations that move money or rewrite derived data in bulk are ADMIN only too
+                .requestMatchers("/api/fees/summary/rebuild", "/api/fees/student/*/adjustments").hasRole("ADMIN")
+                .requestMatchers("/api/fees/schedule", "/api/fees/overdue").hasRole("ADMIN")
+                .requestMatchers("/api/attendance/summary/rebuild").hasRole("ADMIN")
+                .requestMatchers("/api/attendance/archive").hasRole("ADMIN")
+                .requestMatchers("/api/students/cgpa/recompute").hasRole("ADMIN")
+                // Any other change needs a signed-in user; reads stay open
+                .requestMatchers(HttpMethod.POST, "/api/**").authenticated()
+                .requestMatchers(HttpMethod.PUT, "/api/**").authenticated()
+                .requestMatchers(HttpMethod.PATCH, "/api/**").authenticated()
+                .requestMatchers(HttpMethod.DELETE, "/api/**").authenticated()
                 .anyRequest().permitAll()
             );
         return http.build();
@@ -40,6 +70,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(List.of("http://localhost:5173"));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of(CursorPage.NEXT_CURSOR_HEADER));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,54 @@
+package com.example.Student.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Opt-in ({@code threads.virtual.enabled=true}, Java 21+): Tomcat handles each request on its own
+ * virtual thread, and async MVC work (streamed exports) runs on virtual threads too, so requests
+ * blocked on Stripe, BCrypt or long reports no longer hold a fixed platform-thread pool. Database
+ * concurrency stays bounded by the per-workload connection pools, not by the thread count.
+ * The image and build still target Java 17, so virtual threads are reached reflectively.
+ */
+@Configuration
+@ConditionalOnProperty(name = "threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler() {
+        ExecutorService executor = newVirtualThreadExecutor("tomcat-");
+        return handler -> handler.setExecutor(executor);
+    }
+
+    // Picked up by Spring MVC by name for StreamingResponseBody and other async handlers
+    @Bean(name = "applicationTaskExecutor")
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadExecutor("async-"));
+    }
+
+    static ExecutorService newVirtualThreadExecutor(String prefix) {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("threads.virtual.enabled needs Java 21 or later; running on "
+                    + Runtime.version());
+        }
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) perTask.invoke(null, factory);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Could not create virtual threads", ex);
+        }
+    }
+}
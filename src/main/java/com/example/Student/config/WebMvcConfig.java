@@ -0,0 +1,19 @@
+package com.example.Student.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+    private final ReplicaRoutingInterceptor replicaRoutingInterceptor;
+
+    public WebMvcConfig(ReplicaRoutingInterceptor replicaRoutingInterceptor) {
+        this.replicaRoutingInterceptor = replicaRoutingInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(replicaRoutingInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.Student.config;
+
+/**
+ * The connection pools work is split across, so a slow report or batch job can exhaust only its own
+ * pool. Each pool's size, connection acquisition timeout and statement timeout can be overridden with
+ * {@code datasource.pools.<name>.size}, {@code .acquire-timeout-ms} and {@code .statement-timeout-ms}.
+ */
+public enum Workload {
+    // Request/response traffic: logins, attendance posts, lookups. Fails fast rather than queueing.
+    INTERACTIVE(15, 2_000, 10_000),
+    // Exports and wide reads; statements may run as long as an export is allowed to
+    REPORTING(4, 30_000, 1_800_000),
+    // Scheduled and startup jobs: rebuilds, archiving, snapshots, write-behind flushes
+    BACKGROUND(2, 60_000, 0);
+
+    private final int defaultSize;
+    private final long defaultAcquireTimeoutMs;
+    private final long defaultStatementTimeoutMs;
+
+    Workload(int defaultSize, long defaultAcquireTimeoutMs, long defaultStatementTimeoutMs) {
+        this.defaultSize = defaultSize;
+        this.defaultAcquireTimeoutMs = defaultAcquireTimeoutMs;
+        this.defaultStatementTimeoutMs = defaultStatementTimeoutMs;
+    }
+
+    public String key() {
+        return name().toLowerCase();
+    }
+
+    int defaultSize() {
+        return defaultSize;
+    }
+
+    long defaultAcquireTimeoutMs() {
+        return defaultAcquireTimeoutMs;
+    }
+
+    // 0 means no limit
+    long defaultStatementTimeoutMs() {
+        return defaultStatementTimeoutMs;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.Student.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Runs the annotated bean's methods (or one method) on the given workload's pool; unannotated work is INTERACTIVE
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WorkloadPool {
+    Workload value();
+}
@@ -0,0 +1,32 @@
+package com.example.Student.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+
+// Applies @WorkloadPool; ordered ahead of the transaction interceptor so the pool is chosen before a connection is
+class WorkloadPoolInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Class<?> targetClass = invocation.getThis() != null
+                ? AopUtils.getTargetClass(invocation.getThis()) : invocation.getMethod().getDeclaringClass();
+        Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass);
+        WorkloadPool pool = AnnotatedElementUtils.findMergedAnnotation(method, WorkloadPool.class);
+        if (pool == null) {
+            pool = AnnotatedElementUtils.findMergedAnnotation(targetClass, WorkloadPool.class);
+        }
+        if (pool == null) {
+            return invocation.proceed();
+        }
+        Workload previous = WorkloadRouting.enter(pool.value());
+        try {
+            return invocation.proceed();
+        } finally {
+            WorkloadRouting.exit(previous);
+        }
+    }
+}
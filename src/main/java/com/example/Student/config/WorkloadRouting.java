@@ -0,0 +1,91 @@
+package com.example.Student.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Tracks which {@link Workload} the current thread is working for, and reports how saturated each
+ * pool is. The workload is set by {@link WorkloadPool} or {@link #run}, and defaults to INTERACTIVE.
+ */
+@Component
+public class WorkloadRouting {
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, HikariDataSource> pools = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> acquireTimeouts = new ConcurrentHashMap<>();
+
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload != null ? workload : Workload.INTERACTIVE;
+    }
+
+    // For work that is not reached through a Spring proxy, e.g. executor threads calling this::method
+    public static void run(Workload workload, Runnable task) {
+        Workload previous = enter(workload);
+        try {
+            task.run();
+        } finally {
+            exit(previous);
+        }
+    }
+
+    public static <T> T call(Workload workload, Supplier<T> task) {
+        Workload previous = enter(workload);
+        try {
+            return task.get();
+        } finally {
+            exit(previous);
+        }
+    }
+
+    static Workload enter(Workload workload) {
+        Workload previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    static void exit(Workload previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    void register(String name, HikariDataSource pool) {
+        pools.put(name, pool);
+    }
+
+    void recordAcquireTimeout(String name) {
+        acquireTimeouts.computeIfAbsent(name, n -> new LongAdder()).increment();
+    }
+
+    // Per pool: in-use, idle and maximum connections, threads waiting for one, and acquisition timeouts so far
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        pools.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+            HikariDataSource pool = entry.getValue();
+            HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+            Map<String, Object> poolStats = new LinkedHashMap<>();
+            poolStats.put("max", pool.getMaximumPoolSize());
+            if (bean != null) {
+                poolStats.put("active", bean.getActiveConnections());
+                poolStats.put("idle", bean.getIdleConnections());
+                poolStats.put("waiting", bean.getThreadsAwaitingConnection());
+                poolStats.put("utilization", (double) bean.getActiveConnections() / pool.getMaximumPoolSize());
+            }
+            LongAdder timeouts = acquireTimeouts.get(entry.getKey());
+            poolStats.put("acquireTimeouts", timeouts == null ? 0 : timeouts.sum());
+            poolStats.put("acquireTimeoutMs", pool.getConnectionTimeout());
+            stats.put(entry.getKey(), poolStats);
+        });
+        return stats;
+    }
+}
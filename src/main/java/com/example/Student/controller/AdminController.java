@@ -0,0 +1,105 @@
+package com.example.Student.controller;
+
+import com.example.Student.config.ReplicaRouting;
+import com.example.Student.config.VirtualThreadMonitor;
+import com.example.Student.config.WorkloadRouting;
+import com.example.Student.service.FeePaymentIntents;
+import com.example.Student.service.PaymentEventConsumer;
+import com.example.Student.service.PaymentService;
+import com.example.Student.service.ReferenceDataCache;
+import com.example.Student.service.SnapshotService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Operational views for administrators
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+    private final ReferenceDataCache referenceDataCache;
+    private final SnapshotService snapshotService;
+    private final ReplicaRouting replicaRouting;
+    private final WorkloadRouting workloadRouting;
+    private final VirtualThreadMonitor virtualThreadMonitor;
+    private final PaymentService paymentService;
+    private final FeePaymentIntents feePaymentIntents;
+    private final PaymentEventConsumer paymentEventConsumer;
+
+    public AdminController(ReferenceDataCache referenceDataCache, SnapshotService snapshotService,
+                           ReplicaRouting replicaRouting, WorkloadRouting workloadRouting,
+                           VirtualThreadMonitor virtualThreadMonitor, PaymentService paymentService,
+                           FeePaymentIntents feePaymentIntents, PaymentEventConsumer paymentEventConsumer) {
+        this.referenceDataCache = referenceDataCache;
+        this.snapshotService = snapshotService;
+        this.replicaRouting = replicaRouting;
+        this.workloadRouting = workloadRouting;
+        this.virtualThreadMonitor = virtualThreadMonitor;
+        this.paymentService = paymentService;
+        this.feePaymentIntents = feePaymentIntents;
+        this.paymentEventConsumer = paymentEventConsumer;
+    }
+
+    @GetMapping("/caches")
+    public Map<String, Map<String, Object>> caches() {
+        return referenceDataCache.stats();
+    }
+
+    @GetMapping("/pools")
+    public Map<String, Object> pools() {
+        return workloadRouting.stats();
+    }
+
+    @GetMapping("/threads")
+    public Map<String, Object> threads() {
+        return virtualThreadMonitor.stats();
+    }
+
+    @GetMapping("/payments")
+    public Map<String, Object> payments() {
+        Map<String, Object> stats = new LinkedHashMap<>(paymentService.stats());
+        stats.put("feeIntents", feePaymentIntents.stats());
+        stats.put("webhookEvents", paymentEventConsumer.stats());
+        return stats;
+    }
+
+    @GetMapping("/replica")
+    public Map<String, Object> replica() {
+        return replicaRouting.stats();
+    }
+
+    @GetMapping("/snapshots")
+    public List<Map<String, Object>> snapshots() {
+        return snapshotService.list();
+    }
+
+    // Runs a snapshot now; full=true rewrites every table instead of appending past the watermarks
+    @PostMapping("/snapshots")
+    public List<Map<String, Object>> takeSnapshot(@RequestParam(defaultValue = "false") boolean full) {
+        return snapshotService.snapshot(full);
+    }
+
+    @GetMapping("/snapshots/{name}")
+    public ResponseEntity<Resource> downloadSnapshot(@PathVariable String name) {
+        Path file = snapshotService.resolve(name);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "\"")
+                .contentType(MediaType.parseMediaType("application/vnd.apache.arrow.file"))
+                .body(new FileSystemResource(file));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.Student.controller;
+
+import com.example.Student.dto.AnalyticsOverview;
+import com.example.Student.dto.GroupStats;
+import com.example.Student.service.AnalyticsService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+    private final AnalyticsService service;
+
+    public AnalyticsController(AnalyticsService service) {
+        this.service = service;
+    }
+
+    @GetMapping
+    public AnalyticsOverview overview() {
+        return service.getOverview();
+    }
+
+    @GetMapping("/departments")
+    public List<GroupStats> departmentCgpa() {
+        return service.getDepartmentCgpaStats();
+    }
+
+    @GetMapping("/departments/results")
+    public List<GroupStats> departmentResults() {
+        return service.getDepartmentResultStats();
+    }
+
+    @GetMapping("/subjects")
+    public List<GroupStats> subjectResults(@RequestParam(required = false) String department) {
+        if (department == null || department.isBlank() || department.equalsIgnoreCase("All")) {
+            return service.getSubjectResultStats(null);
+        }
+        return service.getSubjectResultStats(department);
+    }
+}
@@ -1,72 +1,159 @@
 package com.example.Student.controller;
 
+import com.example.Student.dto.AttendanceDayCount;
+import com.example.Student.dto.AttendanceSummary;
 import com.example.Student.model.Attendance;
-import com.example.Student.model.Student;
-import com.example.Student.repository.AttendanceRepository;
 import com.example.Student.repository.StudentRepository;
+import com.example.Student.model.Department;
+import com.example.Student.repository.AttendanceColdStore;
+import com.example.Student.service.AttendanceArchiver;
+import com.example.Student.service.AttendanceBitmapIndex;
+import com.example.Student.service.AttendanceRollups;
+import com.example.Student.service.AttendanceService;
+import com.example.Student.service.AttendanceWriteBehind;
+import com.example.Student.service.ReferenceDataCache;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/attendance")
 public class AttendanceController {
 
-    private final AttendanceRepository attendanceRepository;
+    private final AttendanceService attendanceService;
+    private final AttendanceBitmapIndex bitmapIndex;
     private final StudentRepository studentRepository;
+    private final AttendanceRollups rollups;
+    private final ReferenceDataCache referenceData;
+    private final AttendanceWriteBehind writeBehind;
+    private final AttendanceArchiver archiver;
+    private final AttendanceColdStore coldStore;
 
-    public AttendanceController(AttendanceRepository attendanceRepository, StudentRepository studentRepository) {
-        this.attendanceRepository = attendanceRepository;
+    public AttendanceController(AttendanceService attendanceService, AttendanceBitmapIndex bitmapIndex,
+                                StudentRepository studentRepository, AttendanceRollups rollups,
+                                ReferenceDataCache referenceData, AttendanceWriteBehind writeBehind,
+                                AttendanceArchiver archiver, AttendanceColdStore coldStore) {
+        this.attendanceService = attendanceService;
+        this.bitmapIndex = bitmapIndex;
         this.studentRepository = studentRepository;
+        this.rollups = rollups;
+        this.referenceData = referenceData;
+        this.writeBehind = writeBehind;
+        this.archiver = archiver;
+        this.coldStore = coldStore;
     }
 
     // Get attendance for a specific date (for Admin view)
     @GetMapping
     public List<Attendance> getAttendanceByDate(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        return attendanceRepository.findByDate(date);
+        return writeBehind.overlayDate(date, attendanceService.getAttendanceByDate(date));
     }
 
-    // Save attendance for a date
+    // Save attendance for a date; the body maps student id to status. In write-behind mode the
+    // submission is acknowledged once it is in the local log and written on the next flush.
     @PostMapping
     public ResponseEntity<?> saveAttendance(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestBody Map<Integer, String> attendanceMap) {
-        
-        // Fetch existing records for this date to update them, or create new ones
-        List<Attendance> existingRecords = attendanceRepository.findByDate(date);
-        Map<Integer, Attendance> existingMap = existingRecords.stream()
-                .collect(Collectors.toMap(a -> a.getStudent().getId(), a -> a));
-
-        List<Attendance> toSave = new ArrayList<>();
-
-        attendanceMap.forEach((studentId, status) -> {
-            Attendance record = existingMap.get(studentId);
-            if (record == null) {
-                // Create new
-                studentRepository.findById(studentId).ifPresent(student -> {
-                    Attendance newRecord = new Attendance(student, date, status);
-                    toSave.add(newRecord);
-                });
-            } else {
-                // Update existing
-                record.setStatus(status);
-                toSave.add(record);
+        try {
+            if (writeBehind.isEnabled()) {
+                return ResponseEntity.accepted().body(writeBehind.submit(date, attendanceMap));
             }
-        });
-
-        attendanceRepository.saveAll(toSave);
-        return ResponseEntity.ok().build();
+            return ResponseEntity.ok(attendanceService.saveAttendance(date, attendanceMap));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
     }
 
     // Get attendance for a specific student (for Student view)
     @GetMapping("/student/{studentId}")
     public List<Attendance> getStudentAttendance(@PathVariable Integer studentId) {
-        return attendanceRepository.findByStudent_Id(studentId);
+        return writeBehind.overlayStudent(studentId, attendanceService.getStudentAttendance(studentId));
+    }
+
+    // Attendance percentage for one student over a range, from the bitmap index
+    @GetMapping("/index/student/{studentId}")
+    public AttendanceSummary getIndexedSummary(
+            @PathVariable Integer studentId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return bitmapIndex.studentSummary(studentId, from, to);
+    }
+
+    // Students of a department attending less than threshold percent of recorded days in the range
+    @GetMapping("/index/defaulters")
+    public List<AttendanceSummary> getDefaulters(
+            @RequestParam String department,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "75") double threshold) {
+        return bitmapIndex.below(studentRepository.findIdsByDepartmentName(department), from, to, threshold);
+    }
+
+    @GetMapping("/index/absent")
+    public List<Integer> getAbsentOnAll(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) List<LocalDate> dates) {
+        return bitmapIndex.absentOnAll(dates);
+    }
+
+    // Moves closed terms beyond the ones kept hot into the cold tier
+    @PostMapping("/archive")
+    public List<Map<String, Object>> archiveClosedTerms() {
+        return archiver.archiveClosedTerms();
+    }
+
+    @GetMapping("/archive/stats")
+    public Map<String, Object> getArchiveStats() {
+        return coldStore.stats();
+    }
+
+    @GetMapping("/write-behind/stats")
+    public Map<String, Object> getWriteBehindStats() {
+        return writeBehind.stats();
+    }
+
+    @GetMapping("/index/stats")
+    public Map<String, Object> getIndexStats() {
+        return bitmapIndex.stats();
+    }
+
+    // Counts for one student over a range; defaults to everything up to today
+    @GetMapping("/summary/student/{studentId}")
+    public ResponseEntity<?> getStudentSummary(
+            @PathVariable Integer studentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.of(1970, 1, 1);
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().body("'from' must not be after 'to'");
+        }
+        return ResponseEntity.ok(rollups.studentSummary(studentId, start, end));
+    }
+
+    // Per-day counts for a department, e.g. for a heatmap
+    @GetMapping("/summary/department")
+    public ResponseEntity<?> getDepartmentDays(
+            @RequestParam String department,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().body("'from' must not be after 'to'");
+        }
+        List<AttendanceDayCount> days = referenceData.findDepartment(department)
+                .map(Department::getId)
+                .map(id -> rollups.departmentDays(id, from, to))
+                .orElse(List.of());
+        return ResponseEntity.ok(days);
+    }
+
+    @PostMapping("/summary/rebuild")
+    public ResponseEntity<Void> rebuildSummaries() {
+        rollups.rebuild();
+        return ResponseEntity.noContent().build();
     }
 }
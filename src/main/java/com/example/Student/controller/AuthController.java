@@ -2,16 +2,15 @@ package com.example.Student.controller;
 
 import com.example.Student.dto.LoginRequest;
 import com.example.Student.dto.LoginResponse;
-import com.example.Student.model.Student;
-import com.example.Student.model.Teacher;
-import com.example.Student.repository.StudentRepository;
-import com.example.Student.repository.TeacherRepository;
+import com.example.Student.repository.CredentialRepository;
+import com.example.Student.repository.CredentialRepository.Credential;
+import com.example.Student.service.TokenService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Optional;
+import java.time.Instant;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -19,51 +18,43 @@ import java.util.Optional;
 public class AuthController {
 
     @Autowired
-    private StudentRepository studentRepository;
+    private CredentialRepository credentialRepository;
 
     @Autowired
-    private TeacherRepository teacherRepository;
+    private PasswordEncoder passwordEncoder;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private TokenService tokenService;
 
+    // BCrypt runs here once per session; later requests present the returned token instead
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
         // Hardcoded Admin Check
         if ("Admin".equals(request.getEmail()) && "admin1234".equals(request.getPassword())) {
-            return ResponseEntity.ok(new LoginResponse(0, "Admin", "ADMIN"));
+            return ResponseEntity.ok(issue(0, "Admin", "ADMIN"));
+        }
+        if (request.getEmail() == null || request.getPassword() == null) {
+            return ResponseEntity.status(401).body("Invalid credentials");
         }
 
-        // Student Check
-        Optional<Student> studentOpt = studentRepository.findByEmail(request.getEmail());
-        if (studentOpt.isPresent()) {
-            Student student = studentOpt.get();
-            String dbPass = student.getPassword();
+        // Student and teacher accounts in one lookup, students first
+        for (Credential credential : credentialRepository.findByEmail(request.getEmail())) {
+            String dbPass = credential.getPassword();
             // Check for plain text (migration) OR hashed password
             if (dbPass != null && (dbPass.equals(request.getPassword()) || passwordEncoder.matches(request.getPassword(), dbPass))) {
                 // Ideally, if it was plain text, we should hash and save it now.
                 if (dbPass.equals(request.getPassword())) {
-                     student.setPassword(passwordEncoder.encode(request.getPassword()));
-                     studentRepository.save(student);
-                }
-                return ResponseEntity.ok(new LoginResponse(student.getId(), student.getName(), "STUDENT"));
-            }
-        }
-
-        // Teacher Check
-        Optional<Teacher> teacherOpt = teacherRepository.findByEmail(request.getEmail());
-        if (teacherOpt.isPresent()) {
-            Teacher teacher = teacherOpt.get();
-            String dbPass = teacher.getPassword();
-            if (dbPass != null && (dbPass.equals(request.getPassword()) || passwordEncoder.matches(request.getPassword(), dbPass))) {
-                 if (dbPass.equals(request.getPassword())) {
-                     teacher.setPassword(passwordEncoder.encode(request.getPassword()));
-                     teacherRepository.save(teacher);
+                    credentialRepository.updatePassword(credential, passwordEncoder.encode(request.getPassword()));
                 }
-                return ResponseEntity.ok(new LoginResponse(teacher.getId(), teacher.getName(), "TEACHER"));
+                return ResponseEntity.ok(issue(credential.getId(), credential.getName(), credential.getRole()));
             }
         }
 
         return ResponseEntity.status(401).body("Invalid credentials");
     }
+
+    private LoginResponse issue(Integer id, String name, String role) {
+        Instant expiresAt = tokenService.nextExpiry();
+        return new LoginResponse(id, name, role, tokenService.issue(id, role, expiresAt), expiresAt);
+    }
 }
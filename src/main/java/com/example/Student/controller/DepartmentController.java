@@ -1,7 +1,7 @@
 package com.example.Student.controller;
 
 import com.example.Student.model.Department;
-import com.example.Student.repository.DepartmentRepository;
+import com.example.Student.service.DepartmentService;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -11,14 +11,14 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/departments")
 public class DepartmentController {
-    private final DepartmentRepository repo;
+    private final DepartmentService service;
 
-    public DepartmentController(DepartmentRepository repo) {
-        this.repo = repo;
+    public DepartmentController(DepartmentService service) {
+        this.service = service;
     }
 
     @GetMapping
     public List<Department> list() {
-        return repo.findAll();
+        return service.listAll();
     }
 }
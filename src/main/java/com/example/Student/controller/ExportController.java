@@ -0,0 +1,99 @@
+package com.example.Student.controller;
+
+import com.example.Student.service.ExportService;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+// Downloads written row by row from a streaming cursor; ?format=csv|ndjson, ?gzip=true for a .gz file
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        void writeTo(OutputStream out, ExportService.Format format) throws IOException;
+    }
+
+    @GetMapping("/fees")
+    public ResponseEntity<StreamingResponseBody> exportFees(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) String status) {
+        return stream("fees", format, gzip, (out, f) -> exportService.exportFees(out, f, status));
+    }
+
+    @GetMapping("/results")
+    public ResponseEntity<StreamingResponseBody> exportResults(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) String department) {
+        return stream("results", format, gzip, (out, f) -> exportService.exportResults(out, f, department));
+    }
+
+    @GetMapping("/attendance")
+    public ResponseEntity<StreamingResponseBody> exportAttendance(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return stream("attendance", format, gzip, (out, f) -> exportService.exportAttendance(out, f, from, to));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, String format, boolean gzip, Export export) {
+        ExportService.Format f;
+        if ("csv".equalsIgnoreCase(format)) {
+            f = ExportService.Format.CSV;
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            f = ExportService.Format.NDJSON;
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        String filename = name + (f == ExportService.Format.CSV ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        MediaType type = gzip ? MediaType.parseMediaType("application/gzip")
+                : f == ExportService.Format.CSV ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream zipped = new GZIPOutputStream(out, 1 << 16);
+                export.writeTo(zipped, f);
+                zipped.finish();
+            } else {
+                export.writeTo(out, f);
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(type)
+                .body(body);
+    }
+
+    // Every async thread and queue slot is taken by other exports
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Map<String, String>> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(Map.of("error", "Too many exports in progress; please try again shortly"));
+    }
+}
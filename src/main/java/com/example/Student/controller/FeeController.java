@@ -1,19 +1,34 @@
 package com.example.Student.controller;
 
+import com.example.Student.dto.FeeAdjustmentRequest;
+import com.example.Student.dto.FeeBalanceView;
+import com.example.Student.dto.FeePaymentRequest;
+import com.example.Student.dto.FeeScheduleRequest;
+import com.example.Student.dto.FeeStatement;
+import com.example.Student.dto.FeeSummary;
+import com.example.Student.exception.ResourceNotFoundException;
 import com.example.Student.model.Fee;
+import com.example.Student.service.FeeLedger;
+import com.example.Student.service.FeeScheduler;
 import com.example.Student.service.FeeService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/fees")
 public class FeeController {
     private final FeeService feeService;
+    private final FeeScheduler feeScheduler;
+    private final FeeLedger feeLedger;
 
-    public FeeController(FeeService feeService) {
+    public FeeController(FeeService feeService, FeeScheduler feeScheduler, FeeLedger feeLedger) {
         this.feeService = feeService;
+        this.feeScheduler = feeScheduler;
+        this.feeLedger = feeLedger;
     }
 
     @GetMapping
@@ -26,13 +41,76 @@ public class FeeController {
         return feeService.getFeesByStudent(studentId);
     }
 
+    // Manual payment taken outside Stripe; ADMIN only, and the receipt reference is required
     @PostMapping("/pay/{feeId}")
-    public ResponseEntity<Fee> payFee(@PathVariable Integer feeId) {
+    public ResponseEntity<?> payFee(@PathVariable Integer feeId, @RequestBody FeePaymentRequest request) {
+        String reference = request.getReference() == null ? "" : request.getReference().trim();
+        if (reference.isEmpty() || reference.length() > FeeService.MAX_REFERENCE_LENGTH) {
+            return ResponseEntity.badRequest().body("A payment reference of at most " +
+                    FeeService.MAX_REFERENCE_LENGTH + " characters is required");
+        }
+        try {
+            return ResponseEntity.ok(feeService.payFee(feeId, reference));
+        } catch (ResourceNotFoundException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+        }
+    }
+
+    // Charges a term fee to a department (departmentId) or every student; re-running only adds missing fees
+    @PostMapping("/schedule")
+    public ResponseEntity<?> generateSchedule(@RequestBody FeeScheduleRequest request) {
+        try {
+            return ResponseEntity.ok(feeScheduler.generate(request));
+        } catch (IllegalArgumentException | ResourceNotFoundException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    // Runs the nightly overdue transition now
+    @PostMapping("/overdue")
+    public Map<String, Object> markOverdue() {
+        return Map.of("markedOverdue", feeScheduler.markOverdue());
+    }
+
+    // College totals and per-department balances, answered from the materialized balances
+    @GetMapping("/summary")
+    public FeeSummary getSummary() {
+        return feeLedger.summary();
+    }
+
+    @GetMapping("/summary/departments/{departmentId}/students")
+    public List<FeeBalanceView> getTopOutstanding(@PathVariable Integer departmentId,
+                                                  @RequestParam(defaultValue = "50") int limit) {
+        return feeLedger.topOutstanding(departmentId, Math.max(1, Math.min(limit, 500)));
+    }
+
+    @GetMapping("/summary/student/{studentId}")
+    public ResponseEntity<FeeStatement> getStatement(@PathVariable Integer studentId) {
+        try {
+            return ResponseEntity.ok(feeLedger.statement(studentId));
+        } catch (ResourceNotFoundException ex) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Recomputes the balances from the ledger
+    @PostMapping("/summary/rebuild")
+    public FeeSummary rebuildSummary() {
+        feeLedger.rebuildBalances();
+        return feeLedger.summary();
+    }
+
+    @PostMapping("/student/{studentId}/adjustments")
+    public ResponseEntity<?> adjust(@PathVariable Integer studentId, @RequestBody FeeAdjustmentRequest request) {
+        if (request.getAmount() == null || request.getAmount() == 0 || request.getReason() == null || request.getReason().isBlank()) {
+            return ResponseEntity.badRequest().body("A non-zero amount and a reason are required");
+        }
         try {
-            Fee paidFee = feeService.payFee(feeId);
-            return ResponseEntity.ok(paidFee);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().build();
+            return ResponseEntity.ok(feeLedger.adjust(studentId, Math.round(request.getAmount() * 100), request.getReason().trim()));
+        } catch (ResourceNotFoundException ex) {
+            return ResponseEntity.notFound().build();
         }
     }
 }
@@ -1,5 +1,6 @@
 package com.example.Student.controller;
 
+import com.example.Student.config.ReplicaReads;
 import com.example.Student.model.Notice;
 import com.example.Student.repository.NoticeRepository;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +10,7 @@ import java.time.LocalDate;
 import java.util.List;
 
 @RestController
+@ReplicaReads
 @RequestMapping("/api/notices")
 public class NoticeController {
     private final NoticeRepository noticeRepository;
@@ -1,37 +1,123 @@
 package com.example.Student.controller;
 
+import com.example.Student.exception.PaymentUnavailableException;
+import com.example.Student.exception.ResourceNotFoundException;
+import com.example.Student.model.Fee;
+import com.example.Student.service.FeePaymentIntents;
+import com.example.Student.service.FeeService;
+import com.example.Student.service.PaymentEventInbox;
 import com.example.Student.service.PaymentService;
 import com.stripe.exception.StripeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/payment")
 @CrossOrigin(origins = "http://localhost:5173")
 public class PaymentController {
+    private static final Logger log = LoggerFactory.getLogger(PaymentController.class);
 
     @Autowired
-    private PaymentService paymentService;
+    private FeePaymentIntents feePaymentIntents;
 
+    @Autowired
+    private PaymentEventInbox paymentEventInbox;
+
+    @Autowired
+    private FeeService feeService;
+
+    // The amount comes from the fee, not the request; repeated calls for a fee reuse its open intent.
+    // Runs asynchronously: the request thread is released while Stripe is called on the payment bulkhead.
     @PostMapping("/create-payment-intent")
-    public ResponseEntity<Map<String, String>> createPaymentIntent(@RequestBody Map<String, Object> request) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> createPaymentIntent(@RequestBody Map<String, Object> request) {
+        Integer feeId;
+        try {
+            feeId = Integer.valueOf(request.get("feeId").toString());
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", "A numeric feeId is required")));
+        }
+
+        CompletableFuture<String> clientSecret;
         try {
-            Double amount = Double.parseDouble(request.get("amount").toString());
-            String currency = "inr"; 
+            clientSecret = feePaymentIntents.clientSecretFor(feeId);
+        } catch (RuntimeException e) {
+            clientSecret = CompletableFuture.failedFuture(e);
+        }
+        return clientSecret
+                .thenApply(secret -> ResponseEntity.ok(Map.of("clientSecret", secret)))
+                .exceptionally(this::failure);
+    }
 
-            String clientSecret = paymentService.createPaymentIntent(amount, currency);
+    // Called by the browser once Stripe confirms; the server re-reads the intent from Stripe before settling.
+    // Settles fees even where the webhook is not configured; with it, whichever arrives first wins.
+    @PostMapping("/confirm/{feeId}")
+    public CompletableFuture<ResponseEntity<Map<String, String>>> confirm(@PathVariable Integer feeId) {
+        CompletableFuture<Fee> settled;
+        try {
+            Fee fee = feeService.getFee(feeId);
+            settled = "PAID".equals(fee.getStatus())
+                    ? CompletableFuture.completedFuture(fee)
+                    : feePaymentIntents.recordedIntent(feeId).thenApply(intent -> feeService.settleFromIntent(feeId, intent));
+        } catch (RuntimeException e) {
+            settled = CompletableFuture.failedFuture(e);
+        }
+        return settled
+                .thenApply(fee -> ResponseEntity.ok(Map.of("status", fee.getStatus())))
+                .exceptionally(this::failure);
+    }
 
-            Map<String, String> response = new HashMap<>();
-            response.put("clientSecret", clientSecret);
-            return ResponseEntity.ok(response);
-        } catch (StripeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        } catch (Exception e) {
-             e.printStackTrace();
-             return ResponseEntity.internalServerError().body(Map.of("error", "An error occurred: " + e.getMessage()));
+    // Stripe webhook: verified and stored in one insert, then acknowledged; fees are settled by PaymentEventConsumer
+    @PostMapping("/webhook")
+    public ResponseEntity<?> webhook(@RequestBody String payload,
+                                     @RequestHeader(value = "Stripe-Signature", required = false) String signature) {
+        if (!paymentEventInbox.isConfigured()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Webhook secret is not configured");
+        }
+        try {
+            paymentEventInbox.receive(payload, signature);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    private ResponseEntity<Map<String, String>> failure(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof PaymentUnavailableException unavailable) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(unavailable.getRetryAfterSeconds()))
+                    .body(Map.of("error", unavailable.getMessage()));
+        }
+        if (cause instanceof ResourceNotFoundException) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", cause.getMessage()));
+        }
+        if (cause instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().body(Map.of("error", cause.getMessage()));
+        }
+        if (cause instanceof IllegalStateException) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", cause.getMessage()));
+        }
+        if (cause instanceof TimeoutException) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                    .body(Map.of("error", "Payment provider did not respond in time; please try again"));
+        }
+        if (PaymentService.isProviderFailure(cause)) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                    .body(Map.of("error", "Payment provider error; please try again"));
+        }
+        if (cause instanceof StripeException) {
+            return ResponseEntity.badRequest().body(Map.of("error", cause.getMessage()));
         }
+        log.error("Could not create payment intent", cause);
+        return ResponseEntity.internalServerError().body(Map.of("error", "An error occurred: " + cause.getMessage()));
     }
 }
@@ -1,65 +1,72 @@
 package com.example.Student.controller;
 
+import com.example.Student.config.ReplicaReads;
+import com.example.Student.dto.MarksSheetDTO;
+import com.example.Student.dto.MarksSheetReport;
 import com.example.Student.dto.ResultDTO;
+import com.example.Student.dto.ResultStatsView;
+import com.example.Student.exception.ResourceNotFoundException;
 import com.example.Student.model.Result;
-import com.example.Student.model.Student;
-import com.example.Student.model.Subject;
-import com.example.Student.repository.ResultRepository;
-import com.example.Student.repository.StudentRepository;
-import com.example.Student.repository.SubjectRepository;
+import com.example.Student.service.ResultService;
+import com.example.Student.service.ResultStatisticsStore;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @RestController
+@ReplicaReads
 @RequestMapping("/api/results")
 public class ResultController {
 
-    private final ResultRepository resultRepository;
-    private final StudentRepository studentRepository;
-    private final SubjectRepository subjectRepository;
+    private final ResultService resultService;
+    private final ResultStatisticsStore statisticsStore;
 
-    public ResultController(ResultRepository resultRepository, StudentRepository studentRepository, SubjectRepository subjectRepository) {
-        this.resultRepository = resultRepository;
-        this.studentRepository = studentRepository;
-        this.subjectRepository = subjectRepository;
+    public ResultController(ResultService resultService, ResultStatisticsStore statisticsStore) {
+        this.resultService = resultService;
+        this.statisticsStore = statisticsStore;
     }
 
     @GetMapping("/student/{studentId}")
     public List<Result> getStudentResults(@PathVariable Integer studentId) {
-        return resultRepository.findByStudent_Id(studentId);
+        return resultService.getStudentResults(studentId);
     }
 
     @GetMapping("/department/{departmentName}")
     public List<Result> getDepartmentResults(@PathVariable String departmentName) {
-        return resultRepository.findBySubject_Department_Name(departmentName);
+        return resultService.getDepartmentResults(departmentName);
     }
 
-    @PostMapping
-    public ResponseEntity<?> saveResult(@Valid @RequestBody ResultDTO dto) {
-        Optional<Student> studentOpt = studentRepository.findById(dto.getStudentId());
-        Optional<Subject> subjectOpt = subjectRepository.findById(dto.getSubjectId());
-
-        if (studentOpt.isEmpty() || subjectOpt.isEmpty()) {
-            return ResponseEntity.badRequest().body("Invalid Student or Subject ID");
-        }
+    // Served from memory; see ResultStatisticsStore
+    @GetMapping("/stats")
+    public Map<String, List<ResultStatsView>> getStats(@RequestParam(required = false) String department) {
+        String dept = department == null || department.isBlank() || department.equalsIgnoreCase("All") ? null : department;
+        return Map.of(
+                "subjects", statisticsStore.subjectStats(dept),
+                "departments", statisticsStore.departmentStats());
+    }
 
-        Student student = studentOpt.get();
-        Subject subject = subjectOpt.get();
+    @GetMapping("/stats/reconcile")
+    public Map<String, Object> reconcileStats() {
+        List<String> mismatches = statisticsStore.reconcile();
+        return Map.of("consistent", mismatches.isEmpty(), "mismatches", mismatches);
+    }
 
-        Optional<Result> existing = resultRepository.findByStudent_IdAndSubject_Id(student.getId(), subject.getId());
-        Result result;
-        if (existing.isPresent()) {
-            result = existing.get();
-            result.setMarks(dto.getMarks());
-        } else {
-            result = new Result(student, subject, dto.getMarks());
+    @PostMapping
+    public ResponseEntity<?> saveResult(@Valid @RequestBody ResultDTO dto) {
+        try {
+            return ResponseEntity.ok(resultService.saveResult(dto));
+        } catch (ResourceNotFoundException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
         }
+    }
 
-        resultRepository.save(result);
-        return ResponseEntity.ok(result);
+    // Whole marks sheet in one request; atomic sheets with any invalid row are rejected with 400
+    @PostMapping("/batch")
+    public ResponseEntity<MarksSheetReport> saveMarksSheet(@RequestBody MarksSheetDTO sheet) {
+        MarksSheetReport report = resultService.saveMarksSheet(sheet);
+        return report.isCommitted() ? ResponseEntity.ok(report) : ResponseEntity.badRequest().body(report);
     }
 }
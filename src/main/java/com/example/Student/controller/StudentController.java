@@ -1,33 +1,49 @@
 package com.example.Student.controller;
 
+import com.example.Student.config.ReplicaReads;
+import com.example.Student.dto.CgpaRecomputeReport;
+import com.example.Student.dto.CursorPage;
+import com.example.Student.dto.ImportReport;
 import com.example.Student.dto.StudentDTO;
 import com.example.Student.model.Department;
 import com.example.Student.model.Student;
+import com.example.Student.service.CgpaService;
 import com.example.Student.service.DepartmentService;
+import com.example.Student.service.StudentImportService;
 import com.example.Student.service.StudentService;
 
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.util.List;
 import java.util.Map;
 
 import jakarta.validation.Valid;
 
 @RestController
+@ReplicaReads
 @RequestMapping("/api/students")
 public class StudentController {
 
     private final StudentService service;
     private final DepartmentService departmentService;
     private final PasswordEncoder passwordEncoder;
+    private final CgpaService cgpaService;
+    private final StudentImportService importService;
 
-    public StudentController(StudentService service, DepartmentService departmentService, PasswordEncoder passwordEncoder) {
+    public StudentController(StudentService service, DepartmentService departmentService,
+                             PasswordEncoder passwordEncoder, CgpaService cgpaService,
+                             StudentImportService importService) {
         this.service = service;
         this.departmentService = departmentService;
         this.passwordEncoder = passwordEncoder;
+        this.cgpaService = cgpaService;
+        this.importService = importService;
     }
 
     @PostMapping
@@ -47,12 +63,35 @@ public class StudentController {
         return ResponseEntity.created(URI.create("/api/students/" + created.getId())).body(created);
     }
 
+    // Without paging parameters this keeps returning a plain array, capped at UNPAGED_LIMIT rows in
+    // id order with X-Next-Cursor set when more remain; department filters both forms. Any of
+    // cursor, limit, sort or the CGPA/name filters switches to pages of {items, nextCursor, hasMore}.
     @GetMapping
-    public List<Student> getAllStudents(@RequestParam(required = false) String department) {
-        if (department != null && !department.isBlank()) {
-            return service.getStudentsByDepartment(department);
+    public ResponseEntity<?> getAllStudents(@RequestParam(required = false) String department,
+                                            @RequestParam(required = false) Double minCgpa,
+                                            @RequestParam(required = false) Double maxCgpa,
+                                            @RequestParam(required = false) String namePrefix,
+                                            @RequestParam(required = false) String sort,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer limit) {
+        boolean paged = cursor != null || limit != null || sort != null
+                || minCgpa != null || maxCgpa != null || namePrefix != null;
+        if (!paged) {
+            CursorPage<Student> first = service.findStudents(department, null, null, null, "id", null,
+                    CursorPage.UNPAGED_LIMIT);
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+            if (first.isHasMore()) {
+                ok.header(CursorPage.NEXT_CURSOR_HEADER, first.getNextCursor());
+            }
+            return ok.body(first.getItems());
+        }
+        try {
+            CursorPage<Student> page = service.findStudents(department, minCgpa, maxCgpa, namePrefix,
+                    sort, cursor, CursorPage.clampLimit(limit));
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
         }
-        return service.getAllStudents();
     }
 
     @GetMapping("/{id}")
@@ -83,9 +122,13 @@ public class StudentController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteStudent(@PathVariable Integer id) {
-        service.deleteStudent(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<?> deleteStudent(@PathVariable Integer id) {
+        try {
+            service.deleteStudent(id);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+        }
     }
 
     @PatchMapping("/{id}/cgpa")
@@ -98,4 +141,26 @@ public class StudentController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    // Re-derives every student's CGPA from their results, e.g. at the end of term
+    @PostMapping("/cgpa/recompute")
+    public ResponseEntity<CgpaRecomputeReport> recomputeCgpa() {
+        return ResponseEntity.ok(cgpaService.recomputeAll());
+    }
+
+    // Bulk onboarding: text/csv with a header row (name,email,department,password,cgpa) or application/x-ndjson
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportReport> importStudents(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                       InputStream body) throws IOException {
+        StudentImportService.Format format = contentType.startsWith("text/csv")
+                ? StudentImportService.Format.CSV
+                : StudentImportService.Format.NDJSON;
+        try {
+            return ResponseEntity.ok(importService.importStudents(body, format));
+        } catch (IllegalArgumentException ex) {
+            ImportReport report = new ImportReport();
+            report.reject(1, null, ex.getMessage());
+            return ResponseEntity.badRequest().body(report);
+        }
+    }
 }
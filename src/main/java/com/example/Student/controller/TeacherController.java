@@ -1,5 +1,6 @@
 package com.example.Student.controller;
 
+import com.example.Student.dto.CursorPage;
 import com.example.Student.dto.TeacherDTO;
 import com.example.Student.model.Department;
 import com.example.Student.model.Teacher;
@@ -11,7 +12,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
-import java.util.List;
 
 import jakarta.validation.Valid;
 
@@ -49,9 +49,29 @@ public class TeacherController {
         return ResponseEntity.created(URI.create("/api/teachers/" + created.getId())).body(created);
     }
 
+    // Capped plain array unless a paging parameter or name filter is given, see StudentController#getAllStudents
     @GetMapping
-    public List<Teacher> getAllTeachers() {
-        return service.getAllTeachers();
+    public ResponseEntity<?> getAllTeachers(@RequestParam(required = false) String department,
+                                            @RequestParam(required = false) String namePrefix,
+                                            @RequestParam(required = false) String sort,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer limit) {
+        boolean paged = cursor != null || limit != null || sort != null || namePrefix != null;
+        if (!paged) {
+            CursorPage<Teacher> first = service.findTeachers(department, null, "id", null, CursorPage.UNPAGED_LIMIT);
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+            if (first.isHasMore()) {
+                ok.header(CursorPage.NEXT_CURSOR_HEADER, first.getNextCursor());
+            }
+            return ok.body(first.getItems());
+        }
+        try {
+            CursorPage<Teacher> page = service.findTeachers(department, namePrefix, sort, cursor,
+                    CursorPage.clampLimit(limit));
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,19 @@
+package com.example.Student.dto;
+
+import java.util.List;
+
+public class AnalyticsOverview {
+    private final long students;
+    private final GroupStats cgpa;
+    private final List<GroupStats> departments;
+
+    public AnalyticsOverview(long students, GroupStats cgpa, List<GroupStats> departments) {
+        this.students = students;
+        this.cgpa = cgpa;
+        this.departments = departments;
+    }
+
+    public long getStudents() { return students; }
+    public GroupStats getCgpa() { return cgpa; }
+    public List<GroupStats> getDepartments() { return departments; }
+}
@@ -0,0 +1,29 @@
+package com.example.Student.dto;
+
+import java.time.LocalDate;
+
+public class AttendanceDayCount {
+    private final LocalDate date;
+    private final long present;
+    private final long absent;
+    private final long late;
+
+    public AttendanceDayCount(LocalDate date, long present, long absent, long late) {
+        this.date = date;
+        this.present = present;
+        this.absent = absent;
+        this.late = late;
+    }
+
+    public LocalDate getDate() { return date; }
+    public long getPresent() { return present; }
+    public long getAbsent() { return absent; }
+    public long getLate() { return late; }
+    public long getTotal() { return present + absent + late; }
+
+    // Late counts as attended
+    public Double getPercentage() {
+        long total = getTotal();
+        return total == 0 ? null : Math.round((present + late) * 10000.0 / total) / 100.0;
+    }
+}
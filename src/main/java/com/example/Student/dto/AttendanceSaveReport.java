@@ -0,0 +1,42 @@
+package com.example.Student.dto;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class AttendanceSaveReport {
+    // QUEUED: accepted by the write-behind log, written on the next flush
+    public enum Outcome { INSERTED, UPDATED, UNCHANGED, QUEUED, UNKNOWN_STUDENT, INVALID_STATUS }
+
+    private final LocalDate date;
+    private final Map<Integer, Outcome> outcomes = new LinkedHashMap<>();
+
+    public AttendanceSaveReport(LocalDate date) {
+        this.date = date;
+    }
+
+    public void record(Integer studentId, Outcome outcome) {
+        outcomes.put(studentId, outcome);
+    }
+
+    public LocalDate getDate() { return date; }
+    public Map<Integer, Outcome> getOutcomes() { return outcomes; }
+
+    public long getWritten() {
+        return outcomes.values().stream()
+                .filter(o -> o == Outcome.INSERTED || o == Outcome.UPDATED)
+                .count();
+    }
+
+    public long getQueued() {
+        return outcomes.values().stream()
+                .filter(o -> o == Outcome.QUEUED)
+                .count();
+    }
+
+    public long getRejected() {
+        return outcomes.values().stream()
+                .filter(o -> o == Outcome.UNKNOWN_STUDENT || o == Outcome.INVALID_STATUS)
+                .count();
+    }
+}
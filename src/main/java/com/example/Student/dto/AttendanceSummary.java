@@ -0,0 +1,35 @@
+package com.example.Student.dto;
+
+import java.time.LocalDate;
+
+public class AttendanceSummary {
+    private final Integer studentId;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final long present;
+    private final long absent;
+    private final long late;
+
+    public AttendanceSummary(Integer studentId, LocalDate from, LocalDate to, long present, long absent, long late) {
+        this.studentId = studentId;
+        this.from = from;
+        this.to = to;
+        this.present = present;
+        this.absent = absent;
+        this.late = late;
+    }
+
+    public Integer getStudentId() { return studentId; }
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    public long getPresent() { return present; }
+    public long getAbsent() { return absent; }
+    public long getLate() { return late; }
+    public long getTotal() { return present + absent + late; }
+
+    // Late counts as attended
+    public Double getPercentage() {
+        long total = getTotal();
+        return total == 0 ? null : Math.round((present + late) * 10000.0 / total) / 100.0;
+    }
+}
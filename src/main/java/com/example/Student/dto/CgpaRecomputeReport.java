@@ -0,0 +1,20 @@
+package com.example.Student.dto;
+
+public class CgpaRecomputeReport {
+    private final int students;
+    private final long results;
+    private final int updated;
+    private final long elapsedMillis;
+
+    public CgpaRecomputeReport(int students, long results, int updated, long elapsedMillis) {
+        this.students = students;
+        this.results = results;
+        this.updated = updated;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getStudents() { return students; }
+    public long getResults() { return results; }
+    public int getUpdated() { return updated; }
+    public long getElapsedMillis() { return elapsedMillis; }
+}
@@ -0,0 +1,11 @@
+package com.example.Student.dto;
+
+public class FeeAdjustmentRequest {
+    private Double amount; // positive adds to what the student owes (e.g. a late fine), negative waives
+    private String reason;
+
+    public Double getAmount() { return amount; }
+    public void setAmount(Double amount) { this.amount = amount; }
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
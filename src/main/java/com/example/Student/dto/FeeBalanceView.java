@@ -0,0 +1,33 @@
+package com.example.Student.dto;
+
+// Fee balance of one student or department; stored in minor units, shown in rupees like Fee.amount
+public class FeeBalanceView {
+    private final Integer id;
+    private final String name;
+    private final long chargedMinor;
+    private final long paidMinor;
+    private final long adjustedMinor;
+    private final long outstandingMinor;
+
+    public FeeBalanceView(Integer id, String name, long chargedMinor, long paidMinor, long adjustedMinor,
+                          long outstandingMinor) {
+        this.id = id;
+        this.name = name;
+        this.chargedMinor = chargedMinor;
+        this.paidMinor = paidMinor;
+        this.adjustedMinor = adjustedMinor;
+        this.outstandingMinor = outstandingMinor;
+    }
+
+    public Integer getId() { return id; }
+    public String getName() { return name; }
+    public double getCharged() { return chargedMinor / 100.0; }
+    public double getPaid() { return paidMinor / 100.0; }
+    public double getAdjusted() { return adjustedMinor / 100.0; }
+    public double getOutstanding() { return outstandingMinor / 100.0; }
+
+    long chargedMinor() { return chargedMinor; }
+    long paidMinor() { return paidMinor; }
+    long adjustedMinor() { return adjustedMinor; }
+    long outstandingMinor() { return outstandingMinor; }
+}
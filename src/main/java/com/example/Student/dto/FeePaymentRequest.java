@@ -0,0 +1,8 @@
+package com.example.Student.dto;
+
+public class FeePaymentRequest {
+    private String reference; // receipt or bank reference of a payment taken outside Stripe
+
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
+}
@@ -0,0 +1,20 @@
+package com.example.Student.dto;
+
+public class FeeScheduleReport {
+    private final int students;
+    private final int created;
+    private final int alreadyCharged;
+    private final long elapsedMillis;
+
+    public FeeScheduleReport(int students, int created, long elapsedMillis) {
+        this.students = students;
+        this.created = created;
+        this.alreadyCharged = students - created;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getStudents() { return students; }
+    public int getCreated() { return created; }
+    public int getAlreadyCharged() { return alreadyCharged; }
+    public long getElapsedMillis() { return elapsedMillis; }
+}
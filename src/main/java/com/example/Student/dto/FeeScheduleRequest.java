@@ -0,0 +1,22 @@
+package com.example.Student.dto;
+
+import java.time.LocalDate;
+
+public class FeeScheduleRequest {
+    private String term;
+    private String description;
+    private Double amount;
+    private LocalDate dueDate;
+    private Integer departmentId; // null charges every student
+
+    public String getTerm() { return term; }
+    public void setTerm(String term) { this.term = term; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public Double getAmount() { return amount; }
+    public void setAmount(Double amount) { this.amount = amount; }
+    public LocalDate getDueDate() { return dueDate; }
+    public void setDueDate(LocalDate dueDate) { this.dueDate = dueDate; }
+    public Integer getDepartmentId() { return departmentId; }
+    public void setDepartmentId(Integer departmentId) { this.departmentId = departmentId; }
+}
@@ -0,0 +1,18 @@
+package com.example.Student.dto;
+
+import com.example.Student.model.FeeLedgerEntry;
+
+import java.util.List;
+
+public class FeeStatement {
+    private final FeeBalanceView balance;
+    private final List<FeeLedgerEntry> entries;
+
+    public FeeStatement(FeeBalanceView balance, List<FeeLedgerEntry> entries) {
+        this.balance = balance;
+        this.entries = entries;
+    }
+
+    public FeeBalanceView getBalance() { return balance; }
+    public List<FeeLedgerEntry> getEntries() { return entries; }
+}
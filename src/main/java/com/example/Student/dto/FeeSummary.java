@@ -0,0 +1,24 @@
+package com.example.Student.dto;
+
+import java.util.List;
+
+public class FeeSummary {
+    private final FeeBalanceView totals;
+    private final List<FeeBalanceView> departments;
+
+    // College totals are the sum of the department rows
+    public FeeSummary(List<FeeBalanceView> departments) {
+        long charged = 0, paid = 0, adjusted = 0, outstanding = 0;
+        for (FeeBalanceView department : departments) {
+            charged += department.chargedMinor();
+            paid += department.paidMinor();
+            adjusted += department.adjustedMinor();
+            outstanding += department.outstandingMinor();
+        }
+        this.totals = new FeeBalanceView(null, "All departments", charged, paid, adjusted, outstanding);
+        this.departments = departments;
+    }
+
+    public FeeBalanceView getTotals() { return totals; }
+    public List<FeeBalanceView> getDepartments() { return departments; }
+}
@@ -0,0 +1,32 @@
+package com.example.Student.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class GroupStats {
+    private String name;
+    private String department;
+    private Integer subjectId;
+    private long count;
+    private Double mean;
+    private Double min;
+    private Double max;
+    private Map<String, Long> histogram = new LinkedHashMap<>();
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+    public Integer getSubjectId() { return subjectId; }
+    public void setSubjectId(Integer subjectId) { this.subjectId = subjectId; }
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+    public Double getMean() { return mean; }
+    public void setMean(Double mean) { this.mean = mean; }
+    public Double getMin() { return min; }
+    public void setMin(Double min) { this.min = min; }
+    public Double getMax() { return max; }
+    public void setMax(Double max) { this.max = max; }
+    public Map<String, Long> getHistogram() { return histogram; }
+    public void setHistogram(Map<String, Long> histogram) { this.histogram = histogram; }
+}
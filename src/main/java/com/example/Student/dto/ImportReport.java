@@ -0,0 +1,41 @@
+package com.example.Student.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReport {
+    private int total;
+    private int imported;
+    private final List<RowError> errors = new ArrayList<>();
+    private long elapsedMillis;
+
+    public void rowRead() { total++; }
+    public void rowsImported(int count) { imported += count; }
+
+    public void reject(long line, String key, String message) {
+        errors.add(new RowError(line, key, message));
+    }
+
+    public int getTotal() { return total; }
+    public int getImported() { return imported; }
+    public int getFailed() { return errors.size(); }
+    public List<RowError> getErrors() { return errors; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public static class RowError {
+        private final long line;
+        private final String key;
+        private final String message;
+
+        public RowError(long line, String key, String message) {
+            this.line = line;
+            this.key = key;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public String getKey() { return key; }
+        public String getMessage() { return message; }
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.Student.dto;
 
+import java.time.Instant;
+
 public class LoginResponse {
     private Integer id;
     private String name;
     private String role; // "ADMIN" or "STUDENT"
-    private String token; // For future use
+    private String token; // Signed access token, sent back as "Authorization: Bearer <token>"
+    private Instant expiresAt;
 
     public LoginResponse(Integer id, String name, String role) {
         this.id = id;
@@ -12,7 +15,15 @@ public class LoginResponse {
         this.role = role;
     }
 
+    public LoginResponse(Integer id, String name, String role, String token, Instant expiresAt) {
+        this(id, name, role);
+        this.token = token;
+        this.expiresAt = expiresAt;
+    }
+
     public Integer getId() { return id; }
     public String getName() { return name; }
     public String getRole() { return role; }
+    public String getToken() { return token; }
+    public Instant getExpiresAt() { return expiresAt; }
 }
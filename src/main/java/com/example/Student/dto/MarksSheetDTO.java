@@ -0,0 +1,19 @@
+package com.example.Student.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MarksSheetDTO {
+    // Applies to entries that do not name their own subject
+    private Integer subjectId;
+    // When true (the default) any invalid row rejects the whole sheet
+    private boolean atomic = true;
+    private List<ResultDTO> entries = new ArrayList<>();
+
+    public Integer getSubjectId() { return subjectId; }
+    public void setSubjectId(Integer subjectId) { this.subjectId = subjectId; }
+    public boolean isAtomic() { return atomic; }
+    public void setAtomic(boolean atomic) { this.atomic = atomic; }
+    public List<ResultDTO> getEntries() { return entries; }
+    public void setEntries(List<ResultDTO> entries) { this.entries = entries; }
+}
@@ -0,0 +1,47 @@
+package com.example.Student.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MarksSheetReport {
+    public enum Outcome { SAVED, NOT_SAVED, INVALID_MARKS, UNKNOWN_STUDENT, UNKNOWN_SUBJECT, DUPLICATE }
+
+    private boolean committed;
+    private final List<Row> rows = new ArrayList<>();
+
+    public void add(int index, Integer studentId, Integer subjectId, Outcome outcome) {
+        rows.add(new Row(index, studentId, subjectId, outcome));
+    }
+
+    public boolean isCommitted() { return committed; }
+    public void setCommitted(boolean committed) { this.committed = committed; }
+    public List<Row> getRows() { return rows; }
+
+    public long getSaved() {
+        return rows.stream().filter(r -> r.outcome == Outcome.SAVED).count();
+    }
+
+    public long getRejected() {
+        return rows.stream().filter(r -> r.outcome != Outcome.SAVED && r.outcome != Outcome.NOT_SAVED).count();
+    }
+
+    public static class Row {
+        private final int index;
+        private final Integer studentId;
+        private final Integer subjectId;
+        private Outcome outcome;
+
+        Row(int index, Integer studentId, Integer subjectId, Outcome outcome) {
+            this.index = index;
+            this.studentId = studentId;
+            this.subjectId = subjectId;
+            this.outcome = outcome;
+        }
+
+        public int getIndex() { return index; }
+        public Integer getStudentId() { return studentId; }
+        public Integer getSubjectId() { return subjectId; }
+        public Outcome getOutcome() { return outcome; }
+        public void setOutcome(Outcome outcome) { this.outcome = outcome; }
+    }
+}
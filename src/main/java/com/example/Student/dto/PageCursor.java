@@ -0,0 +1,50 @@
+package com.example.Student.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position: the sort key of the last row returned plus its id as tie-breaker.
+ * Encoded as base64url so clients treat it as a token rather than something to build by hand.
+ */
+public class PageCursor {
+    private final String sort;
+    private final String key;
+    private final Integer id;
+
+    public PageCursor(String sort, String key, Integer id) {
+        this.sort = sort;
+        this.key = key;
+        this.id = id;
+    }
+
+    public String getSort() { return sort; }
+    public String getKey() { return key; }
+    public Integer getId() { return id; }
+
+    public String encode() {
+        String raw = sort + "|" + id + "|" + (key != null ? key : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new PageCursor(parts[0], parts[2].isEmpty() ? null : parts[2], Integer.valueOf(parts[1]));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+
+    // Escapes LIKE wildcards so a name prefix only ever matches literally
+    public static String likePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.Student.dto;
+
+public class ResultStatsView {
+    private final String name;
+    private final String department;
+    private final Integer subjectId;
+    private final long count;
+    private final Double mean;
+    private final Double stdDev;
+    private final Double min;
+    private final Double max;
+    private final Double median;
+    private final Double p90;
+
+    public ResultStatsView(String name, String department, Integer subjectId, long count, Double mean, Double stdDev,
+                           Double min, Double max, Double median, Double p90) {
+        this.name = name;
+        this.department = department;
+        this.subjectId = subjectId;
+        this.count = count;
+        this.mean = mean;
+        this.stdDev = stdDev;
+        this.min = min;
+        this.max = max;
+        this.median = median;
+        this.p90 = p90;
+    }
+
+    public String getName() { return name; }
+    public String getDepartment() { return department; }
+    public Integer getSubjectId() { return subjectId; }
+    public long getCount() { return count; }
+    public Double getMean() { return mean; }
+    public Double getStdDev() { return stdDev; }
+    public Double getMin() { return min; }
+    public Double getMax() { return max; }
+    public Double getMedian() { return median; }
+    public Double getP90() { return p90; }
+}
@@ -0,0 +1,19 @@
+package com.example.Student.dto;
+
+import java.time.Instant;
+
+public class TokenClaims {
+    private final Integer userId;
+    private final String role;
+    private final Instant expiresAt;
+
+    public TokenClaims(Integer userId, String role, Instant expiresAt) {
+        this.userId = userId;
+        this.role = role;
+        this.expiresAt = expiresAt;
+    }
+
+    public Integer getUserId() { return userId; }
+    public String getRole() { return role; }
+    public Instant getExpiresAt() { return expiresAt; }
+}
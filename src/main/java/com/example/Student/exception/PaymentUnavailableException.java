@@ -0,0 +1,15 @@
+package com.example.Student.exception;
+
+// The payment provider is not being called right now (circuit open or bulkhead full); safe to retry later
+public class PaymentUnavailableException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PaymentUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -9,8 +9,14 @@ import java.time.LocalDate;
 @Entity
 @Table(name = "attendance", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"student_id", "date"})
+}, indexes = {
+    @Index(name = "idx_attendance_date", columnList = "date")
 })
 public class Attendance {
+    public static final String PRESENT = "present";
+    public static final String ABSENT = "absent";
+    public static final String LATE = "late";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -57,4 +63,13 @@ public class Attendance {
     public String getStudentName() {
         return student != null ? student.getName() : null;
     }
+
+    // Returns the canonical lower-case status, or null if it is not one of present/absent/late
+    public static String normalizeStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        String s = status.trim().toLowerCase();
+        return PRESENT.equals(s) || ABSENT.equals(s) || LATE.equals(s) ? s : null;
+    }
 }
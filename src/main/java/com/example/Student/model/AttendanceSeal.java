@@ -0,0 +1,22 @@
+package com.example.Student.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// Single row (id 1): attendance dated before sealed_before is being or has been archived and accepts no writes
+@Entity
+@Table(name = "attendance_seal")
+public class AttendanceSeal {
+    public static final int ROW_ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "sealed_before", nullable = false)
+    private LocalDate sealedBefore;
+
+    public AttendanceSeal() {}
+
+    public Integer getId() { return id; }
+    public LocalDate getSealedBefore() { return sealedBefore; }
+}
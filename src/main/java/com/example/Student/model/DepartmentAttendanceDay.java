@@ -0,0 +1,39 @@
+package com.example.Student.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// Present/absent/late counts for one department on one day, maintained by attendance saves
+@Entity
+@Table(name = "attendance_department_day", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_department_day", columnNames = {"department_id", "date"})
+})
+public class DepartmentAttendanceDay {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "department_id", nullable = false)
+    private Integer departmentId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private long present;
+
+    @Column(nullable = false)
+    private long absent;
+
+    @Column(nullable = false)
+    private long late;
+
+    public DepartmentAttendanceDay() {}
+
+    public Integer getId() { return id; }
+    public Integer getDepartmentId() { return departmentId; }
+    public LocalDate getDate() { return date; }
+    public long getPresent() { return present; }
+    public long getAbsent() { return absent; }
+    public long getLate() { return late; }
+}
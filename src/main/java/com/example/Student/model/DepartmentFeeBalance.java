@@ -0,0 +1,34 @@
+package com.example.Student.model;
+
+import jakarta.persistence.*;
+
+// Running totals of the fee ledger per department, attributed to the department at posting time
+@Entity
+@Table(name = "fee_balance_department")
+public class DepartmentFeeBalance {
+    // 0 collects students without a department
+    @Id
+    @Column(name = "department_id")
+    private Integer departmentId;
+
+    // All amounts in minor units
+    @Column(name = "charged_minor", nullable = false)
+    private long chargedMinor;
+
+    @Column(name = "paid_minor", nullable = false)
+    private long paidMinor;
+
+    @Column(name = "adjusted_minor", nullable = false)
+    private long adjustedMinor;
+
+    @Column(name = "outstanding_minor", nullable = false)
+    private long outstandingMinor;
+
+    public DepartmentFeeBalance() {}
+
+    public Integer getDepartmentId() { return departmentId; }
+    public long getChargedMinor() { return chargedMinor; }
+    public long getPaidMinor() { return paidMinor; }
+    public long getAdjustedMinor() { return adjustedMinor; }
+    public long getOutstandingMinor() { return outstandingMinor; }
+}
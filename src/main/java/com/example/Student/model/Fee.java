@@ -7,7 +7,12 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "fees")
+@Table(name = "fees", indexes = {
+        @Index(name = "idx_fee_status_due", columnList = "status, due_date")
+}, uniqueConstraints = {
+        // A scheduled term charge is created at most once per student, however often the schedule runs
+        @UniqueConstraint(name = "uk_fee_student_term_item", columnNames = {"student_id", "term", "description"})
+})
 public class Fee {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,7 +30,10 @@ public class Fee {
     private String description; // e.g., "Semester 1 Fee", "Lab Fee"
 
     @NotNull
-    private String status; // "PENDING", "PAID"
+    private String status; // "PENDING", "OVERDUE", "PAID"
+
+    @Column(length = 32)
+    private String term; // e.g. "2025-ODD"; null for one-off fees
 
     private LocalDate dueDate;
     
@@ -59,6 +67,9 @@ public class Fee {
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     
+    public String getTerm() { return term; }
+    public void setTerm(String term) { this.term = term; }
+
     public LocalDate getDueDate() { return dueDate; }
     public void setDueDate(LocalDate dueDate) { this.dueDate = dueDate; }
     
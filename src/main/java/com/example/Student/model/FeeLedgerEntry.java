@@ -0,0 +1,65 @@
+package com.example.Student.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.*;
+import java.time.Instant;
+
+// One append-only movement on a student's fee account; rows are never updated or deleted
+@Entity
+@Table(name = "fee_ledger", indexes = {
+        @Index(name = "idx_fee_ledger_student", columnList = "student_id, id"),
+        @Index(name = "idx_fee_ledger_fee", columnList = "fee_id, kind")
+})
+public class FeeLedgerEntry {
+    public static final String CHARGE = "CHARGE";
+    public static final String PAYMENT = "PAYMENT";
+    public static final String ADJUSTMENT = "ADJUSTMENT";
+    // Moves a student's outstanding balance between departments; posted in pairs that sum to zero
+    public static final String TRANSFER = "TRANSFER";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Null for adjustments, which apply to the student's account rather than one fee
+    @Column(name = "fee_id")
+    private Integer feeId;
+
+    @Column(name = "student_id", nullable = false)
+    private Integer studentId;
+
+    // The student's department when the entry was posted
+    @Column(name = "department_id")
+    private Integer departmentId;
+
+    @Column(nullable = false, length = 16)
+    private String kind;
+
+    // Effect on the amount owed, in minor units: charges are positive, payments negative
+    @Column(name = "amount_minor", nullable = false)
+    private long amountMinor;
+
+    // Transaction id for payments, reason for adjustments
+    private String reference;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public FeeLedgerEntry() {}
+
+    public Long getId() { return id; }
+    public Integer getFeeId() { return feeId; }
+    public Integer getStudentId() { return studentId; }
+    public Integer getDepartmentId() { return departmentId; }
+    public String getKind() { return kind; }
+    @JsonIgnore
+    public long getAmountMinor() { return amountMinor; }
+    public String getReference() { return reference; }
+    public Instant getCreatedAt() { return createdAt; }
+
+    @JsonProperty("amount")
+    public double getAmount() {
+        return amountMinor / 100.0;
+    }
+}
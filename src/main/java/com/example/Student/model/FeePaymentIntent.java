@@ -0,0 +1,61 @@
+package com.example.Student.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+// The open Stripe PaymentIntent for one fee, so repeated pay clicks reuse it instead of creating another
+@Entity
+@Table(name = "fee_payment_intents")
+public class FeePaymentIntent {
+    @Id
+    @Column(name = "fee_id")
+    private Integer feeId;
+
+    @Column(name = "intent_id", nullable = false, length = 64)
+    private String intentId;
+
+    @Column(name = "client_secret", nullable = false, length = 128)
+    private String clientSecret;
+
+    // In the currency's minor unit, as sent to Stripe
+    @Column(name = "amount_minor", nullable = false)
+    private long amountMinor;
+
+    @Column(nullable = false, length = 8)
+    private String currency;
+
+    // Bumped for each new intent on this fee; part of the idempotency key
+    @Column(nullable = false)
+    private int generation;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Last time Stripe confirmed the intent could still be paid
+    @Column(name = "checked_at", nullable = false)
+    private Instant checkedAt;
+
+    public FeePaymentIntent() {}
+
+    public FeePaymentIntent(Integer feeId, String intentId, String clientSecret, long amountMinor, String currency,
+                            int generation) {
+        this.feeId = feeId;
+        this.intentId = intentId;
+        this.clientSecret = clientSecret;
+        this.amountMinor = amountMinor;
+        this.currency = currency;
+        this.generation = generation;
+        this.createdAt = Instant.now();
+        this.checkedAt = this.createdAt;
+    }
+
+    public Integer getFeeId() { return feeId; }
+    public String getIntentId() { return intentId; }
+    public String getClientSecret() { return clientSecret; }
+    public long getAmountMinor() { return amountMinor; }
+    public String getCurrency() { return currency; }
+    public int getGeneration() { return generation; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getCheckedAt() { return checkedAt; }
+    public void setCheckedAt(Instant checkedAt) { this.checkedAt = checkedAt; }
+}
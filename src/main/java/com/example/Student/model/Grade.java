@@ -0,0 +1,32 @@
+package com.example.Student.model;
+
+// Letter grades as shown on the student results page, with their grade points on the 10-point scale
+public enum Grade {
+    O(90, 10),
+    E(80, 9),
+    A(70, 8),
+    B(60, 7),
+    C(50, 6),
+    D(40, 5),
+    F(0, 0);
+
+    private final int minMarks;
+    private final int points;
+
+    Grade(int minMarks, int points) {
+        this.minMarks = minMarks;
+        this.points = points;
+    }
+
+    public int getMinMarks() { return minMarks; }
+    public int getPoints() { return points; }
+
+    public static Grade fromMarks(double marks) {
+        for (Grade grade : values()) {
+            if (marks >= grade.minMarks) {
+                return grade;
+            }
+        }
+        return F;
+    }
+}
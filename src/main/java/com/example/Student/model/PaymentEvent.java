@@ -0,0 +1,73 @@
+package com.example.Student.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+// A payment provider webhook event as received; written once by the webhook, settled later in batches
+@Entity
+@Table(name = "payment_event_inbox", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payment_event_id", columnNames = {"event_id"})
+}, indexes = {
+        @Index(name = "idx_payment_event_pending", columnList = "processed_at, id")
+})
+public class PaymentEvent {
+    public static final String SETTLED = "SETTLED";
+    public static final String IGNORED = "IGNORED";
+    public static final String UNKNOWN_FEE = "UNKNOWN_FEE";
+    public static final String MISMATCH = "MISMATCH";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false, length = 255)
+    private String eventId;
+
+    @Column(nullable = false, length = 64)
+    private String type;
+
+    @Column(name = "intent_id", length = 64)
+    private String intentId;
+
+    @Column(name = "fee_id")
+    private Integer feeId;
+
+    @Column(name = "amount_minor")
+    private Long amountMinor;
+
+    @Column(length = 8)
+    private String currency;
+
+    // When the provider created the event
+    @Column(name = "event_created_at", nullable = false)
+    private Instant eventCreatedAt;
+
+    @Column(name = "received_at", nullable = false)
+    private Instant receivedAt;
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+
+    // SETTLED, IGNORED, UNKNOWN_FEE or MISMATCH once processed
+    @Column(length = 16)
+    private String outcome;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String payload;
+
+    public PaymentEvent() {}
+
+    public Long getId() { return id; }
+    public String getEventId() { return eventId; }
+    public String getType() { return type; }
+    public String getIntentId() { return intentId; }
+    public Integer getFeeId() { return feeId; }
+    public Long getAmountMinor() { return amountMinor; }
+    public String getCurrency() { return currency; }
+    public Instant getEventCreatedAt() { return eventCreatedAt; }
+    public Instant getReceivedAt() { return receivedAt; }
+    public Instant getProcessedAt() { return processedAt; }
+    public String getOutcome() { return outcome; }
+    public String getPayload() { return payload; }
+}
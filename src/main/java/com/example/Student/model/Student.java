@@ -7,7 +7,11 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
 @Entity
-@Table(name = "students")
+@Table(name = "students", indexes = {
+        @Index(name = "idx_student_email", columnList = "email"),
+        @Index(name = "idx_student_name", columnList = "name, id"),
+        @Index(name = "idx_student_cgpa", columnList = "cgpa, id")
+})
 public class Student {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,40 @@
+package com.example.Student.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// Present/absent/late counts for one student over one calendar month, maintained by attendance saves
+@Entity
+@Table(name = "attendance_student_month", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_student_month", columnNames = {"student_id", "month"})
+})
+public class StudentAttendanceMonth {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "student_id", nullable = false)
+    private Integer studentId;
+
+    // First day of the month
+    @Column(nullable = false)
+    private LocalDate month;
+
+    @Column(nullable = false)
+    private long present;
+
+    @Column(nullable = false)
+    private long absent;
+
+    @Column(nullable = false)
+    private long late;
+
+    public StudentAttendanceMonth() {}
+
+    public Integer getId() { return id; }
+    public Integer getStudentId() { return studentId; }
+    public LocalDate getMonth() { return month; }
+    public long getPresent() { return present; }
+    public long getAbsent() { return absent; }
+    public long getLate() { return late; }
+}
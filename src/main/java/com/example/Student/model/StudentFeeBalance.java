@@ -0,0 +1,41 @@
+package com.example.Student.model;
+
+import jakarta.persistence.*;
+
+// Running totals of one student's fee ledger, maintained in the same transaction as each entry
+@Entity
+@Table(name = "fee_balance_student", indexes = {
+        @Index(name = "idx_fee_balance_student_outstanding", columnList = "department_id, outstanding_minor")
+})
+public class StudentFeeBalance {
+    @Id
+    @Column(name = "student_id")
+    private Integer studentId;
+
+    // 0 when the student has no department
+    @Column(name = "department_id", nullable = false)
+    private int departmentId;
+
+    // All amounts in minor units
+    @Column(name = "charged_minor", nullable = false)
+    private long chargedMinor;
+
+    @Column(name = "paid_minor", nullable = false)
+    private long paidMinor;
+
+    @Column(name = "adjusted_minor", nullable = false)
+    private long adjustedMinor;
+
+    // charged - paid + adjusted
+    @Column(name = "outstanding_minor", nullable = false)
+    private long outstandingMinor;
+
+    public StudentFeeBalance() {}
+
+    public Integer getStudentId() { return studentId; }
+    public int getDepartmentId() { return departmentId; }
+    public long getChargedMinor() { return chargedMinor; }
+    public long getPaidMinor() { return paidMinor; }
+    public long getAdjustedMinor() { return adjustedMinor; }
+    public long getOutstandingMinor() { return outstandingMinor; }
+}
@@ -7,7 +7,10 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
 @Entity
-@Table(name = "teachers")
+@Table(name = "teachers", indexes = {
+        @Index(name = "idx_teacher_email", columnList = "email"),
+        @Index(name = "idx_teacher_name", columnList = "name, id")
+})
 public class Teacher {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,412 @@
+package com.example.Student.repository;
+
+import com.example.Student.model.Attendance;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold tier for attendance: one immutable columnar file per archived term, with rows sorted by
+ * (student, date). Rows are stored in blocks of {@link #BLOCK_ROWS}, each gzip-compressed on its own
+ * as three columns: student id deltas, day offsets from the term start and status codes. The file
+ * starts with an index of every block's first student and position, so a student's rows are read
+ * by decompressing only the one or two blocks that hold them. Decoded blocks are cached, weighed by
+ * rows. Files are only ever added, never rewritten.
+ * Statuses are stored normalized; a NULL or unrecognised status gets its own code and reads back as null.
+ * Every date before {@link #horizon()} is served from here rather than the attendance table.
+ */
+@Component
+public class AttendanceColdStore {
+    private static final Logger log = LoggerFactory.getLogger(AttendanceColdStore.class);
+    private static final int MAGIC = 0x41545432; // "ATT2": block index, then gzip blocks
+    private static final int BLOCK_ROWS = 4096;
+    private static final String PREFIX = "attendance-";
+    private static final String SUFFIX = ".col.gz";
+    // Indexed by status code; rows whose status was not one of the three are kept and read back as null
+    private static final String[] STATUSES = {Attendance.PRESENT, Attendance.ABSENT, Attendance.LATE, null};
+    private static final byte UNKNOWN = 3;
+
+    // Stands for "nothing archived": no attendance predates it
+    public static final LocalDate NOTHING_ARCHIVED = LocalDate.of(1970, 1, 1);
+
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(int studentId, LocalDate date, String status);
+    }
+
+    private final Path directory;
+    private final NavigableMap<LocalDate, TermFile> terms = new ConcurrentSkipListMap<>();
+    // Keyed by term start (epoch day) in the high half and block number in the low half
+    private final Cache<Long, Block> decoded;
+    private volatile LocalDate horizon = NOTHING_ARCHIVED;
+    private volatile LocalDate sealedBefore = NOTHING_ARCHIVED;
+
+    public AttendanceColdStore(@Value("${attendance.archive.dir:data/attendance-archive}") String directory,
+                               @Value("${attendance.archive.cache-rows:5000000}") long cacheRows) {
+        this.directory = Path.of(directory);
+        this.decoded = Caffeine.newBuilder()
+                .maximumWeight(cacheRows)
+                .weigher((Long key, Block block) -> block.size())
+                .build();
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).toList()) {
+                register(readHeader(file));
+            }
+        }
+        if (!terms.isEmpty()) {
+            log.info("Attendance cold tier: {} archived terms, horizon {}", terms.size(), horizon);
+        }
+    }
+
+    // Dates before the horizon are read from archived files
+    public LocalDate horizon() {
+        return horizon;
+    }
+
+    public boolean covers(LocalDate date) {
+        return date.isBefore(horizon);
+    }
+
+    // Dates before the seal accept no more writes; the seal runs ahead of the horizon while a term is archived
+    public boolean isSealed(LocalDate date) {
+        return date.isBefore(sealedBefore);
+    }
+
+    public synchronized void seal(LocalDate before) {
+        if (before.isAfter(sealedBefore)) {
+            sealedBefore = before;
+        }
+    }
+
+    public boolean contains(LocalDate termStart) {
+        return terms.containsKey(termStart);
+    }
+
+    /**
+     * Writes one term's rows, which must be sorted by (student, date), and makes them readable.
+     * {@code days} are epoch days and {@code statuses} codes from {@link #statusCode}. The file is
+     * written beside its final name and moved into place, so a crash never leaves a partial term behind.
+     */
+    public void write(LocalDate start, LocalDate end, int[] students, int[] days, byte[] statuses, int count)
+            throws IOException {
+        Path target = directory.resolve(PREFIX + start + SUFFIX);
+        Path temp = directory.resolve(PREFIX + start + SUFFIX + ".tmp");
+        int startDay = (int) start.toEpochDay();
+        int blocks = (count + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        TermFile term = new TermFile(target, start, end, count, blocks);
+        // The index goes first but is only known once every block is compressed, so blocks are written after room for it
+        int headerBytes = 4 + 8 + 8 + 4 + 4 + blocks * (4 + 4 + 8 + 4);
+        long position = headerBytes;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 16);
+            for (int block = 0; block < blocks; block++) {
+                int from = block * BLOCK_ROWS;
+                int to = Math.min(count, from + BLOCK_ROWS);
+                buffer.reset();
+                try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(buffer, 1 << 12))) {
+                    int previous = students[from];
+                    for (int i = from; i < to; i++) {
+                        out.writeInt(students[i] - previous);
+                        previous = students[i];
+                    }
+                    for (int i = from; i < to; i++) {
+                        out.writeShort(days[i] - startDay);
+                    }
+                    out.write(statuses, from, to - from);
+                }
+                term.firstStudents[block] = students[from];
+                term.blockRows[block] = to - from;
+                term.offsets[block] = position;
+                term.lengths[block] = buffer.size();
+                position += writeFully(channel, ByteBuffer.wrap(buffer.toByteArray()), position);
+            }
+            ByteBuffer header = ByteBuffer.allocate(headerBytes);
+            header.putInt(MAGIC).putLong(start.toEpochDay()).putLong(end.toEpochDay()).putInt(count).putInt(blocks);
+            for (int block = 0; block < blocks; block++) {
+                header.putInt(term.firstStudents[block]).putInt(term.blockRows[block])
+                        .putLong(term.offsets[block]).putInt(term.lengths[block]);
+            }
+            header.flip();
+            writeFully(channel, header, 0);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        register(term);
+    }
+
+    public void forDate(LocalDate date, RowConsumer consumer) {
+        Map.Entry<LocalDate, TermFile> entry = terms.floorEntry(date);
+        if (entry == null || !date.isBefore(entry.getValue().end)) {
+            return;
+        }
+        TermFile file = entry.getValue();
+        int offset = (int) (date.toEpochDay() - file.start.toEpochDay());
+        for (int b = 0; b < file.blocks(); b++) {
+            Block block = block(file, b);
+            for (int i = 0; i < block.size(); i++) {
+                if (block.days[i] == offset) {
+                    consumer.accept(block.students[i], date, STATUSES[block.statuses[i]]);
+                }
+            }
+        }
+    }
+
+    // Rows for one student with from <= date <= to, oldest first; only the blocks holding the student are read
+    public void forStudent(int studentId, LocalDate from, LocalDate to, RowConsumer consumer) {
+        for (TermFile file : terms.values()) {
+            if (!file.end.isAfter(from) || file.start.isAfter(to)) {
+                continue;
+            }
+            long start = file.start.toEpochDay();
+            for (int b = file.firstBlockOf(studentId); b < file.blocks() && file.firstStudents[b] <= studentId; b++) {
+                Block block = block(file, b);
+                for (int i = block.firstRowOf(studentId); i < block.size() && block.students[i] == studentId; i++) {
+                    LocalDate date = LocalDate.ofEpochDay(start + block.days[i]);
+                    if (!date.isBefore(from) && !date.isAfter(to)) {
+                        consumer.accept(studentId, date, STATUSES[block.statuses[i]]);
+                    }
+                }
+            }
+        }
+    }
+
+    // Whether the archive holds exactly this row
+    public boolean holds(int studentId, LocalDate date, String status) {
+        boolean[] found = {false};
+        forStudent(studentId, date, date, (id, d, archived) -> found[0] |= Objects.equals(archived, Attendance.normalizeStatus(status)));
+        return found[0];
+    }
+
+    // Streams every archived row without caching the decoded blocks
+    public void forEach(RowConsumer consumer) {
+        for (TermFile file : terms.values()) {
+            long start = file.start.toEpochDay();
+            for (int b = 0; b < file.blocks(); b++) {
+                Block block = decoded.getIfPresent(key(file, b));
+                if (block == null) {
+                    block = decode(file, b);
+                }
+                for (int i = 0; i < block.size(); i++) {
+                    consumer.accept(block.students[i], LocalDate.ofEpochDay(start + block.days[i]),
+                            STATUSES[block.statuses[i]]);
+                }
+            }
+        }
+    }
+
+    // Takes any status as stored; anything other than the three known ones is kept as UNKNOWN
+    public static byte statusCode(String status) {
+        String normalized = Attendance.normalizeStatus(status);
+        if (normalized == null) {
+            return UNKNOWN;
+        }
+        return switch (normalized) {
+            case Attendance.PRESENT -> 0;
+            case Attendance.ABSENT -> 1;
+            default -> 2;
+        };
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("terms", terms.size());
+        stats.put("horizon", horizon);
+        stats.put("rows", terms.values().stream().mapToLong(t -> t.rows).sum());
+        long bytes = 0;
+        for (TermFile term : terms.values()) {
+            try {
+                bytes += Files.size(term.path);
+            } catch (IOException ignored) {
+                // a missing file shows up as a read failure instead
+            }
+        }
+        stats.put("bytes", bytes);
+        stats.put("cachedBlocks", decoded.estimatedSize());
+        return stats;
+    }
+
+    private synchronized void register(TermFile term) {
+        terms.put(term.start, term);
+        if (term.end.isAfter(horizon)) {
+            horizon = term.end;
+        }
+        seal(term.end);
+    }
+
+    private Block block(TermFile file, int block) {
+        return decoded.get(key(file, block), key -> decode(file, block));
+    }
+
+    private static long key(TermFile file, int block) {
+        return (file.start.toEpochDay() << 32) | block;
+    }
+
+    private static Block decode(TermFile file, int b) {
+        try {
+            byte[] compressed = new byte[file.lengths[b]];
+            try (FileChannel channel = FileChannel.open(file.path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.wrap(compressed);
+                long position = file.offsets[b];
+                while (buffer.hasRemaining()) {
+                    int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new EOFException("Truncated archive " + file.path);
+                    }
+                    position += read;
+                }
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new GZIPInputStream(new ByteArrayInputStream(compressed))))) {
+                return readBlock(in, file.firstStudents[b], file.blockRows[b]);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read archived attendance " + file.path, ex);
+        }
+    }
+
+    private static Block readBlock(DataInputStream in, int firstStudent, int rows) throws IOException {
+        Block block = new Block(rows);
+        int previous = firstStudent;
+        for (int i = 0; i < rows; i++) {
+            previous += in.readInt();
+            block.students[i] = previous;
+        }
+        for (int i = 0; i < rows; i++) {
+            block.days[i] = in.readShort();
+        }
+        in.readFully(block.statuses);
+        return block;
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private static TermFile readHeader(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an attendance archive: " + file);
+            }
+            LocalDate start = LocalDate.ofEpochDay(in.readLong());
+            LocalDate end = LocalDate.ofEpochDay(in.readLong());
+            int rows = in.readInt();
+            TermFile term = new TermFile(file, start, end, rows, in.readInt());
+            for (int b = 0; b < term.blocks(); b++) {
+                term.firstStudents[b] = in.readInt();
+                term.blockRows[b] = in.readInt();
+                term.offsets[b] = in.readLong();
+                term.lengths[b] = in.readInt();
+            }
+            return term;
+        }
+    }
+
+    // A term's location and block index
+    private static final class TermFile {
+        final Path path;
+        final LocalDate start;
+        final LocalDate end;
+        final int rows;
+        final int[] firstStudents;
+        final int[] blockRows;
+        final long[] offsets;
+        final int[] lengths;
+
+        TermFile(Path path, LocalDate start, LocalDate end, int rows, int blocks) {
+            this.path = path;
+            this.start = start;
+            this.end = end;
+            this.rows = rows;
+            this.firstStudents = new int[blocks];
+            this.blockRows = new int[blocks];
+            this.offsets = new long[blocks];
+            this.lengths = new int[blocks];
+        }
+
+        int blocks() {
+            return firstStudents.length;
+        }
+
+        // The last block starting before the student, since the student's rows may begin at its end
+        int firstBlockOf(int studentId) {
+            int lo = 0, hi = firstStudents.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (firstStudents[mid] < studentId) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return Math.max(0, lo - 1);
+        }
+    }
+
+    // One decoded block; columns are parallel arrays sorted by (student, day)
+    private static final class Block {
+        final int[] students;
+        final short[] days;
+        final byte[] statuses;
+
+        Block(int rows) {
+            this.students = new int[rows];
+            this.days = new short[rows];
+            this.statuses = new byte[rows];
+        }
+
+        int size() {
+            return students.length;
+        }
+
+        int firstRowOf(int studentId) {
+            int lo = 0, hi = students.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (students[mid] < studentId) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.Student.repository;
+
+import com.example.Student.model.Attendance;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Reads that span the attendance table and the archived cold tier
+public interface AttendanceRepositoryCustom {
+    List<Attendance> findByDate(LocalDate date);
+
+    List<Attendance> findByStudent_Id(Integer studentId);
+
+    List<Attendance> findByStudent_IdAndDateBetween(Integer studentId, LocalDate startDate, LocalDate endDate);
+}
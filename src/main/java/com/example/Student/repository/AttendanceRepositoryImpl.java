@@ -0,0 +1,95 @@
+package com.example.Student.repository;
+
+import com.example.Student.model.Attendance;
+import com.example.Student.model.Student;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Routes attendance reads by date: anything before the cold store's horizon comes from archived
+ * files, the rest from the attendance table. Archived rows come back as detached entities with
+ * their student attached, like table rows, and rows of deleted students are dropped.
+ */
+public class AttendanceRepositoryImpl implements AttendanceRepositoryCustom {
+    private static final int STUDENT_CHUNK = 1000;
+    // Latest date MySQL's DATE type holds
+    private static final LocalDate END_OF_TIME = LocalDate.of(9999, 12, 31);
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final AttendanceColdStore coldStore;
+
+    public AttendanceRepositoryImpl(AttendanceColdStore coldStore) {
+        this.coldStore = coldStore;
+    }
+
+    @Override
+    public List<Attendance> findByDate(LocalDate date) {
+        if (!coldStore.covers(date)) {
+            return em.createQuery("select a from Attendance a join fetch a.student where a.date = :date",
+                            Attendance.class)
+                    .setParameter("date", date)
+                    .getResultList();
+        }
+        Map<Integer, String> statuses = new LinkedHashMap<>();
+        coldStore.forDate(date, (studentId, d, status) -> statuses.put(studentId, status));
+        Map<Integer, Student> students = loadStudents(statuses.keySet());
+        List<Attendance> result = new ArrayList<>(statuses.size());
+        statuses.forEach((studentId, status) -> {
+            Student student = students.get(studentId);
+            if (student != null) {
+                result.add(new Attendance(student, date, status));
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public List<Attendance> findByStudent_Id(Integer studentId) {
+        return findByStudent_IdAndDateBetween(studentId, AttendanceColdStore.NOTHING_ARCHIVED, END_OF_TIME);
+    }
+
+    @Override
+    public List<Attendance> findByStudent_IdAndDateBetween(Integer studentId, LocalDate startDate, LocalDate endDate) {
+        List<Attendance> result = new ArrayList<>();
+        if (coldStore.covers(startDate)) {
+            Student student = em.find(Student.class, studentId);
+            if (student != null) {
+                coldStore.forStudent(studentId, startDate, endDate,
+                        (id, date, status) -> result.add(new Attendance(student, date, status)));
+            }
+        }
+        if (!coldStore.covers(endDate)) {
+            LocalDate from = coldStore.covers(startDate) ? coldStore.horizon() : startDate;
+            result.addAll(em.createQuery("select a from Attendance a join fetch a.student " +
+                            "where a.student.id = :studentId and a.date between :from and :to", Attendance.class)
+                    .setParameter("studentId", studentId)
+                    .setParameter("from", from)
+                    .setParameter("to", endDate)
+                    .getResultList());
+        }
+        return result;
+    }
+
+    private Map<Integer, Student> loadStudents(Set<Integer> ids) {
+        Map<Integer, Student> students = new HashMap<>();
+        List<Integer> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += STUDENT_CHUNK) {
+            List<Integer> chunk = all.subList(from, Math.min(from + STUDENT_CHUNK, all.size()));
+            em.createQuery("select s from Student s where s.id in :ids", Student.class)
+                    .setParameter("ids", chunk)
+                    .getResultList()
+                    .forEach(s -> students.put(s.getId(), s));
+        }
+        return students;
+    }
+}
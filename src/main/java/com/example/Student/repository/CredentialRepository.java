@@ -0,0 +1,53 @@
+package com.example.Student.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Resolves a login email against both students and teachers in one round trip. Students come
+ * first, matching the order the login endpoint has always checked them in.
+ */
+@Repository
+public class CredentialRepository {
+    private final JdbcTemplate jdbc;
+
+    public CredentialRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public List<Credential> findByEmail(String email) {
+        return jdbc.query(
+                "SELECT 'STUDENT' AS role, id, name, password FROM students WHERE email = ?" +
+                        " UNION ALL" +
+                        " SELECT 'TEACHER' AS role, id, name, password FROM teachers WHERE email = ?" +
+                        " ORDER BY role",
+                (rs, i) -> new Credential(rs.getString(1), rs.getInt(2), rs.getString(3), rs.getString(4)),
+                email, email);
+    }
+
+    public void updatePassword(Credential credential, String encodedPassword) {
+        String table = "TEACHER".equals(credential.getRole()) ? "teachers" : "students";
+        jdbc.update("UPDATE " + table + " SET password = ? WHERE id = ?", encodedPassword, credential.getId());
+    }
+
+    public static class Credential {
+        private final String role;
+        private final Integer id;
+        private final String name;
+        private final String password;
+
+        public Credential(String role, Integer id, String name, String password) {
+            this.role = role;
+            this.id = id;
+            this.name = name;
+            this.password = password;
+        }
+
+        public String getRole() { return role; }
+        public Integer getId() { return id; }
+        public String getName() { return name; }
+        public String getPassword() { return password; }
+    }
+}
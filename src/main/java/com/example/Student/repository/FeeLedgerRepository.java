@@ -0,0 +1,12 @@
+package com.example.Student.repository;
+
+import com.example.Student.model.FeeLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+
+public interface FeeLedgerRepository extends JpaRepository<FeeLedgerEntry, Long> {
+    // Newest first, via idx_fee_ledger_student
+    List<FeeLedgerEntry> findTop500ByStudentIdOrderByIdDesc(Integer studentId);
+
+    boolean existsByStudentId(Integer studentId);
+}
@@ -0,0 +1,7 @@
+package com.example.Student.repository;
+
+import com.example.Student.model.FeePaymentIntent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface FeePaymentIntentRepository extends JpaRepository<FeePaymentIntent, Integer> {
+}
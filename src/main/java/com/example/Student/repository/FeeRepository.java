@@ -1,9 +1,31 @@
 package com.example.Student.repository;
 
 import com.example.Student.model.Fee;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
+import java.util.Optional;
 
 public interface FeeRepository extends JpaRepository<Fee, Integer> {
+    @EntityGraph(attributePaths = "student")
     List<Fee> findByStudent_Id(Integer studentId);
+
+    boolean existsByStudent_Id(Integer studentId);
+
+    @Override
+    @EntityGraph(attributePaths = "student")
+    List<Fee> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "student")
+    Optional<Fee> findById(Integer id);
+
+    // Row-locked read, so a manual payment and a webhook settlement cannot both post the same fee
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM Fee f JOIN FETCH f.student WHERE f.id = :id")
+    Optional<Fee> findByIdForUpdate(@Param("id") Integer id);
 }
@@ -1,13 +1,20 @@
 package com.example.Student.repository;
 
 import com.example.Student.model.Result;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
 import java.util.Optional;
 
 public interface ResultRepository extends JpaRepository<Result, Integer> {
+    // Results serialize their student and subject, each with a department name; one join covers all four
+    @EntityGraph(attributePaths = {"student", "student.department", "subject", "subject.department"})
     List<Result> findByStudent_Id(Integer studentId);
+
+    @EntityGraph(attributePaths = {"student", "student.department", "subject", "subject.department"})
     List<Result> findBySubject_Department_Name(String departmentName);
+
+    @EntityGraph(attributePaths = {"student", "student.department", "subject", "subject.department"})
     Optional<Result> findByStudent_IdAndSubject_Id(Integer studentId, Integer subjectId);
     void deleteByStudent_Id(Integer studentId);
     void deleteBySubject_Id(Integer subjectId);
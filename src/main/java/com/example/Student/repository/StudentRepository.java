@@ -1,11 +1,92 @@
 package com.example.Student.repository;
 
 import com.example.Student.model.Student;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Integer> {
     java.util.Optional<Student> findByEmail(String email);
+
+    @EntityGraph(attributePaths = "department")
     java.util.List<Student> findByDepartment_Name(String departmentName);
+
+    // Student JSON includes the department name, so reads that end up serialized fetch it up front
+    @Override
+    @EntityGraph(attributePaths = "department")
+    List<Student> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "department")
+    Optional<Student> findById(Integer id);
+
+    @Query("select s.id from Student s where s.id in :ids")
+    Set<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    @Query("select s.id from Student s where s.department.name = :department")
+    List<Integer> findIdsByDepartmentName(@Param("department") String department);
+
+    @Query("select s.email from Student s where s.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Keyset pages: every query seeks past the last (key, id) seen and is limited through
+    // a first-page Pageable, so no OFFSET is ever generated.
+
+    @Query("select s from Student s left join fetch s.department d " +
+            "where (:department is null or d.name = :department) " +
+            "and (:minCgpa is null or s.cgpa >= :minCgpa) " +
+            "and (:maxCgpa is null or s.cgpa <= :maxCgpa) " +
+            "and (:namePattern is null or s.name like :namePattern) " +
+            "and (:afterId is null or s.id > :afterId) " +
+            "order by s.id asc")
+    List<Student> findPageById(@Param("department") String department,
+                               @Param("minCgpa") Double minCgpa,
+                               @Param("maxCgpa") Double maxCgpa,
+                               @Param("namePattern") String namePattern,
+                               @Param("afterId") Integer afterId,
+                               Pageable limit);
+
+    @Query("select s from Student s left join fetch s.department d " +
+            "where (:department is null or d.name = :department) " +
+            "and (:minCgpa is null or s.cgpa >= :minCgpa) " +
+            "and (:maxCgpa is null or s.cgpa <= :maxCgpa) " +
+            "and (:namePattern is null or s.name like :namePattern) " +
+            "and (:afterName is null or s.name > :afterName or (s.name = :afterName and s.id > :afterId)) " +
+            "order by s.name asc, s.id asc")
+    List<Student> findPageByName(@Param("department") String department,
+                                 @Param("minCgpa") Double minCgpa,
+                                 @Param("maxCgpa") Double maxCgpa,
+                                 @Param("namePattern") String namePattern,
+                                 @Param("afterName") String afterName,
+                                 @Param("afterId") Integer afterId,
+                                 Pageable limit);
+
+    // Highest CGPA first and students without a CGPA last, which is where MySQL sorts NULLs descending,
+    // so idx_student_cgpa still serves the order. A cursor with a null CGPA is in that tail.
+    @Query("select s from Student s left join fetch s.department d " +
+            "where (:department is null or d.name = :department) " +
+            "and (:minCgpa is null or s.cgpa >= :minCgpa) " +
+            "and (:maxCgpa is null or s.cgpa <= :maxCgpa) " +
+            "and (:namePattern is null or s.name like :namePattern) " +
+            "and (:afterId is null " +
+            "or (:afterCgpa is not null and (s.cgpa < :afterCgpa or (s.cgpa = :afterCgpa and s.id < :afterId) " +
+            "or s.cgpa is null)) " +
+            "or (:afterCgpa is null and s.cgpa is null and s.id < :afterId)) " +
+            "order by s.cgpa desc, s.id desc")
+    List<Student> findPageByCgpa(@Param("department") String department,
+                                 @Param("minCgpa") Double minCgpa,
+                                 @Param("maxCgpa") Double maxCgpa,
+                                 @Param("namePattern") String namePattern,
+                                 @Param("afterCgpa") Double afterCgpa,
+                                 @Param("afterId") Integer afterId,
+                                 Pageable limit);
 }
@@ -1,12 +1,27 @@
 package com.example.Student.repository;
 
 import com.example.Student.model.Subject;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SubjectRepository extends JpaRepository<Subject, Integer> {
+    @EntityGraph(attributePaths = "department")
     List<Subject> findByDepartment_Name(String departmentName);
+
+    @EntityGraph(attributePaths = "department")
+    List<Subject> findByIdIn(Collection<Integer> ids);
+
+    @Override
+    @EntityGraph(attributePaths = "department")
+    List<Subject> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "department")
+    Optional<Subject> findById(Integer id);
 }
@@ -1,12 +1,46 @@
 package com.example.Student.repository;
 
 import com.example.Student.model.Teacher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TeacherRepository extends JpaRepository<Teacher, Integer> {
     Optional<Teacher> findByEmail(String email);
+
+    @Override
+    @EntityGraph(attributePaths = "department")
+    List<Teacher> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "department")
+    Optional<Teacher> findById(Integer id);
+
+    @Query("select t from Teacher t left join fetch t.department d " +
+            "where (:department is null or d.name = :department) " +
+            "and (:namePattern is null or t.name like :namePattern) " +
+            "and (:afterId is null or t.id > :afterId) " +
+            "order by t.id asc")
+    List<Teacher> findPageById(@Param("department") String department,
+                               @Param("namePattern") String namePattern,
+                               @Param("afterId") Integer afterId,
+                               Pageable limit);
+
+    @Query("select t from Teacher t left join fetch t.department d " +
+            "where (:department is null or d.name = :department) " +
+            "and (:namePattern is null or t.name like :namePattern) " +
+            "and (:afterName is null or t.name > :afterName or (t.name = :afterName and t.id > :afterId)) " +
+            "order by t.name asc, t.id asc")
+    List<Teacher> findPageByName(@Param("department") String department,
+                                 @Param("namePattern") String namePattern,
+                                 @Param("afterName") String afterName,
+                                 @Param("afterId") Integer afterId,
+                                 Pageable limit);
 }
@@ -0,0 +1,16 @@
+package com.example.Student.service;
+
+import com.example.Student.dto.AnalyticsOverview;
+import com.example.Student.dto.GroupStats;
+
+import java.util.List;
+
+public interface AnalyticsService {
+    String CACHE = "analytics";
+
+    AnalyticsOverview getOverview();
+    List<GroupStats> getDepartmentCgpaStats();
+    List<GroupStats> getDepartmentResultStats();
+    List<GroupStats> getSubjectResultStats(String department);
+    void invalidate();
+}
@@ -0,0 +1,199 @@
+package com.example.Student.service;
+
+import com.example.Student.config.Workload;
+import com.example.Student.config.WorkloadPool;
+import com.example.Student.repository.AttendanceColdStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves closed terms out of the attendance table into the cold store, so the table only ever holds
+ * the current term plus the most recent {@code attendance.archive.keep-terms} closed ones. Terms
+ * start on the first day of each month listed in {@code attendance.terms.start-months}.
+ */
+@Component
+@WorkloadPool(Workload.BACKGROUND)
+public class AttendanceArchiver {
+    private static final Logger log = LoggerFactory.getLogger(AttendanceArchiver.class);
+    // Rows removed per DELETE, so no single statement holds locks over a whole term
+    private static final int DELETE_CHUNK = 5000;
+
+    private final AttendanceColdStore coldStore;
+    private final AttendanceTermSeal termSeal;
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final JdbcTemplate streamingJdbc;
+    private final int[] startMonths;
+    private final int keepTerms;
+
+    public AttendanceArchiver(AttendanceColdStore coldStore, AttendanceTermSeal termSeal, JdbcTemplate jdbc,
+                              NamedParameterJdbcTemplate namedJdbc, DataSource dataSource,
+                              @Value("${attendance.terms.start-months:1,7}") int[] startMonths,
+                              @Value("${attendance.archive.keep-terms:1}") int keepTerms) {
+        this.coldStore = coldStore;
+        this.termSeal = termSeal;
+        this.jdbc = jdbc;
+        this.namedJdbc = namedJdbc;
+        this.streamingJdbc = new JdbcTemplate(dataSource);
+        this.streamingJdbc.setFetchSize(Integer.MIN_VALUE);
+        this.startMonths = Arrays.stream(startMonths).sorted().distinct().toArray();
+        this.keepTerms = keepTerms;
+        if (this.startMonths.length == 0 || this.startMonths[0] < 1 || this.startMonths[this.startMonths.length - 1] > 12) {
+            throw new IllegalArgumentException("attendance.terms.start-months must list months 1-12");
+        }
+    }
+
+    public LocalDate termStart(LocalDate date) {
+        for (int i = startMonths.length - 1; i >= 0; i--) {
+            if (startMonths[i] <= date.getMonthValue()) {
+                return LocalDate.of(date.getYear(), startMonths[i], 1);
+            }
+        }
+        return LocalDate.of(date.getYear() - 1, startMonths[startMonths.length - 1], 1);
+    }
+
+    public LocalDate nextTermStart(LocalDate termStart) {
+        for (int month : startMonths) {
+            if (month > termStart.getMonthValue()) {
+                return LocalDate.of(termStart.getYear(), month, 1);
+            }
+        }
+        return LocalDate.of(termStart.getYear() + 1, startMonths[0], 1);
+    }
+
+    /**
+     * Archives every closed term older than the ones kept hot, oldest first. Each term is sealed in
+     * the database, which waits out saves already in flight on any node, then written to the cold
+     * store; only the rows that were copied are then deleted, by id. A crash at any point leaves the
+     * rows readable from one tier or the other. When a term's file already exists (a crash between
+     * write and delete), the remaining rows are checked against the file and nothing is deleted if
+     * any differ.
+     */
+    public synchronized List<Map<String, Object>> archiveClosedTerms() {
+        LocalDate cutoff = termStart(LocalDate.now());
+        for (int i = 0; i < keepTerms; i++) {
+            cutoff = termStart(cutoff.minusDays(1));
+        }
+        Date earliest = jdbc.queryForObject("SELECT MIN(date) FROM attendance WHERE date < ?", Date.class,
+                Date.valueOf(cutoff));
+        List<Map<String, Object>> archived = new ArrayList<>();
+        if (earliest == null) {
+            return archived;
+        }
+        for (LocalDate start = termStart(earliest.toLocalDate()); start.isBefore(cutoff); start = nextTermStart(start)) {
+            LocalDate end = nextTermStart(start);
+            termSeal.raise(end);
+            coldStore.seal(end);
+            long started = System.currentTimeMillis();
+            boolean existed = coldStore.contains(start);
+            RowIds copied = existed ? verifyArchived(start, end) : copyToColdStore(start, end);
+            long deleted = delete(copied, start, end);
+            Map<String, Object> term = new LinkedHashMap<>();
+            term.put("termStart", start);
+            term.put("termEnd", end);
+            term.put("archivedRows", existed ? 0 : copied.count);
+            term.put("deletedRows", deleted);
+            archived.add(term);
+            log.info("Archived attendance term {} to {}: {} rows written, {} deleted in {} ms",
+                    start, end, existed ? 0 : copied.count, deleted, System.currentTimeMillis() - started);
+        }
+        return archived;
+    }
+
+    private RowIds copyToColdStore(LocalDate start, LocalDate end) {
+        Integer expected = jdbc.queryForObject("SELECT COUNT(*) FROM attendance WHERE date >= ? AND date < ?",
+                Integer.class, Date.valueOf(start), Date.valueOf(end));
+        int capacity = expected == null ? 0 : expected;
+        RowIds ids = new RowIds(capacity);
+        // Primitive columns: about nine bytes a row, so a term of several million rows stays small
+        int[] students = new int[capacity];
+        int[] days = new int[capacity];
+        byte[] statuses = new byte[capacity];
+        // The term is sealed in the database, so the row count cannot grow between the two reads
+        streamingJdbc.query("SELECT id, student_id, date, status FROM attendance WHERE date >= ? AND date < ? " +
+                "ORDER BY student_id, date", rs -> {
+            int i = ids.count;
+            if (i == capacity) {
+                throw new IllegalStateException("Attendance for term " + start + " changed while it was archived");
+            }
+            ids.add(rs.getInt(1));
+            students[i] = rs.getInt(2);
+            days[i] = (int) rs.getDate(3).toLocalDate().toEpochDay();
+            statuses[i] = AttendanceColdStore.statusCode(rs.getString(4));
+        }, Date.valueOf(start), Date.valueOf(end));
+        try {
+            coldStore.write(start, end, students, days, statuses, ids.count);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write archived attendance for term " + start, ex);
+        }
+        return ids;
+    }
+
+    // Rows still in the table for a term whose file exists; every one must match the file
+    private RowIds verifyArchived(LocalDate start, LocalDate end) {
+        RowIds ids = new RowIds(1024);
+        int[] differing = {0};
+        streamingJdbc.query("SELECT id, student_id, date, status FROM attendance WHERE date >= ? AND date < ?", rs -> {
+            if (coldStore.holds(rs.getInt(2), rs.getDate(3).toLocalDate(), rs.getString(4))) {
+                ids.add(rs.getInt(1));
+            } else {
+                differing[0]++;
+            }
+        }, Date.valueOf(start), Date.valueOf(end));
+        if (differing[0] > 0) {
+            throw new IllegalStateException(differing[0] + " attendance rows for term " + start +
+                    " differ from its archive file; nothing was deleted");
+        }
+        return ids;
+    }
+
+    private long delete(RowIds ids, LocalDate start, LocalDate end) {
+        int[] sorted = Arrays.copyOf(ids.ids, ids.count);
+        Arrays.sort(sorted);
+        long deleted = 0;
+        for (int from = 0; from < sorted.length; from += DELETE_CHUNK) {
+            List<Integer> chunk = new ArrayList<>(Math.min(DELETE_CHUNK, sorted.length - from));
+            for (int i = from; i < Math.min(from + DELETE_CHUNK, sorted.length); i++) {
+                chunk.add(sorted[i]);
+            }
+            deleted += namedJdbc.update("DELETE FROM attendance WHERE id IN (:ids) AND date >= :start AND date < :end",
+                    new MapSqlParameterSource("ids", chunk)
+                            .addValue("start", Date.valueOf(start))
+                            .addValue("end", Date.valueOf(end)));
+        }
+        return deleted;
+    }
+
+    // Ids of the rows an archive run copied or verified, and so may delete
+    private static final class RowIds {
+        int[] ids;
+        int count;
+
+        RowIds(int capacity) {
+            this.ids = new int[Math.max(capacity, 16)];
+        }
+
+        void add(int id) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count++] = id;
+        }
+    }
+}
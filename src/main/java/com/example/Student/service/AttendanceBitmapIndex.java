@@ -0,0 +1,303 @@
+package com.example.Student.service;
+
+import com.example.Student.config.Workload;
+import com.example.Student.config.WorkloadPool;
+import com.example.Student.dto.AttendanceSummary;
+import com.example.Student.model.Attendance;
+import com.example.Student.repository.AttendanceColdStore;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Attendance held as one compressed (Roaring) bitmap of student ids per date and status. Loaded
+ * from the attendance table at startup and updated after every committed save, it answers
+ * percentage, defaulter and "absent on all of these days" questions with bitmap operations
+ * instead of row scans. After a save commits, the saved rows are read back and applied, so hooks
+ * that run out of commit order still leave the committed statuses. Changes applied while a rebuild
+ * loads are replayed onto the loaded days before they replace the live ones.
+ */
+@Component
+public class AttendanceBitmapIndex {
+    private static final Logger log = LoggerFactory.getLogger(AttendanceBitmapIndex.class);
+
+    private static final int REFRESH_CHUNK = 1000;
+
+    private final JdbcTemplate streamingJdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final AttendanceColdStore coldStore;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+    // Serializes read-back and apply, so a later read of the same rows is always applied last
+    private final Object refreshLock = new Object();
+    private NavigableMap<LocalDate, Day> days = new TreeMap<>();
+    // Non-null while rebuild() loads, guarded by the write lock; changes applied meanwhile are replayed
+    private List<Consumer<NavigableMap<LocalDate, Day>>> replay;
+
+    public AttendanceBitmapIndex(DataSource dataSource, AttendanceColdStore coldStore) {
+        this.streamingJdbc = new JdbcTemplate(dataSource);
+        this.streamingJdbc.setFetchSize(Integer.MIN_VALUE);
+        this.namedJdbc = new NamedParameterJdbcTemplate(dataSource);
+        this.coldStore = coldStore;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @WorkloadPool(Workload.BACKGROUND)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                replay = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                load();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    replay = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        NavigableMap<LocalDate, Day> fresh = new TreeMap<>();
+        long[] rows = {0};
+        // Archived files keep rows of students deleted since, so only live students are indexed
+        RoaringBitmap live = new RoaringBitmap();
+        streamingJdbc.query("SELECT id FROM students", rs -> {
+            live.add(rs.getInt(1));
+        });
+        coldStore.forEach((studentId, date, status) -> {
+            if (live.contains(studentId)) {
+                fresh.computeIfAbsent(date, d -> new Day()).set(studentId, status);
+                rows[0]++;
+            }
+        });
+        streamingJdbc.query("SELECT student_id, date, status FROM attendance", rs -> {
+            fresh.computeIfAbsent(rs.getDate(2).toLocalDate(), d -> new Day())
+                    .set(rs.getInt(1), Attendance.normalizeStatus(rs.getString(3)));
+            rows[0]++;
+        });
+        fresh.values().forEach(Day::optimize);
+        lock.writeLock().lock();
+        try {
+            replay.forEach(change -> change.accept(fresh));
+            days = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Attendance bitmap index rebuilt: {} rows over {} days, {} bytes in {} ms",
+                rows[0], fresh.size(), sizeInBytes(), System.currentTimeMillis() - started);
+    }
+
+    // Applied after commit so the index never shows statuses that were rolled back
+    public void record(LocalDate date, Map<Integer, String> statuses) {
+        if (statuses.isEmpty()) {
+            return;
+        }
+        List<Integer> students = new ArrayList<>(statuses.keySet());
+        TransactionHooks.afterCommit(() -> refresh(date, students));
+    }
+
+    public void removeStudent(Integer studentId) {
+        TransactionHooks.afterCommit(() -> change(target -> target.values().forEach(day -> day.set(studentId, null))));
+    }
+
+    // Rows gone since (student deleted, term archived) are left to removeStudent and the archive
+    private void refresh(LocalDate date, List<Integer> students) {
+        synchronized (refreshLock) {
+            Map<Integer, String> committed = new HashMap<>();
+            for (int from = 0; from < students.size(); from += REFRESH_CHUNK) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                        .addValue("date", Date.valueOf(date))
+                        .addValue("ids", students.subList(from, Math.min(from + REFRESH_CHUNK, students.size())));
+                namedJdbc.query("SELECT student_id, status FROM attendance WHERE date = :date AND student_id IN (:ids)",
+                        params, rs -> {
+                            committed.put(rs.getInt(1), Attendance.normalizeStatus(rs.getString(2)));
+                        });
+            }
+            if (!committed.isEmpty()) {
+                change(target -> {
+                    Day day = target.computeIfAbsent(date, d -> new Day());
+                    committed.forEach(day::set);
+                });
+            }
+        }
+    }
+
+    private void change(Consumer<NavigableMap<LocalDate, Day>> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(days);
+            if (replay != null) {
+                replay.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public AttendanceSummary studentSummary(Integer studentId, LocalDate from, LocalDate to) {
+        long present = 0, absent = 0, late = 0;
+        lock.readLock().lock();
+        try {
+            for (Day day : days.subMap(from, true, to, true).values()) {
+                if (day.present.contains(studentId)) {
+                    present++;
+                } else if (day.absent.contains(studentId)) {
+                    absent++;
+                } else if (day.late.contains(studentId)) {
+                    late++;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new AttendanceSummary(studentId, from, to, present, absent, late);
+    }
+
+    /**
+     * Students among {@code cohort} whose attendance over the range is below {@code thresholdPercent}.
+     * Per-day work is two bitmap ANDs plus a walk over the cohort's set bits.
+     */
+    public List<AttendanceSummary> below(Collection<Integer> cohort, LocalDate from, LocalDate to,
+                                         double thresholdPercent) {
+        RoaringBitmap members = new RoaringBitmap();
+        cohort.forEach(members::add);
+        int size = members.getCardinality();
+        int[] present = new int[size];
+        int[] absent = new int[size];
+        int[] late = new int[size];
+
+        lock.readLock().lock();
+        try {
+            for (Day day : days.subMap(from, true, to, true).values()) {
+                count(RoaringBitmap.and(day.present, members), members, present);
+                count(RoaringBitmap.and(day.absent, members), members, absent);
+                count(RoaringBitmap.and(day.late, members), members, late);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<AttendanceSummary> defaulters = new ArrayList<>();
+        IntIterator ids = members.getIntIterator();
+        for (int i = 0; ids.hasNext(); i++) {
+            int id = ids.next();
+            AttendanceSummary summary = new AttendanceSummary(id, from, to, present[i], absent[i], late[i]);
+            if (summary.getPercentage() != null && summary.getPercentage() < thresholdPercent) {
+                defaulters.add(summary);
+            }
+        }
+        return defaulters;
+    }
+
+    // Students marked absent on every one of the given dates
+    public List<Integer> absentOnAll(Collection<LocalDate> dates) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = null;
+            for (LocalDate date : dates) {
+                Day day = days.get(date);
+                if (day == null) {
+                    return List.of();
+                }
+                result = result == null ? day.absent.clone() : RoaringBitmap.and(result, day.absent);
+            }
+            List<Integer> ids = new ArrayList<>();
+            if (result != null) {
+                IntIterator it = result.getIntIterator();
+                while (it.hasNext()) {
+                    ids.add(it.next());
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("days", days.size());
+            stats.put("first", days.isEmpty() ? null : days.firstKey());
+            stats.put("last", days.isEmpty() ? null : days.lastKey());
+            stats.put("bytes", sizeInBytes());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long sizeInBytes() {
+        long bytes = 0;
+        for (Day day : days.values()) {
+            bytes += day.present.getLongSizeInBytes() + day.absent.getLongSizeInBytes() + day.late.getLongSizeInBytes();
+        }
+        return bytes;
+    }
+
+    // members.rank(id) is the 1-based position of id within the cohort, which indexes the counters
+    private static void count(RoaringBitmap marked, RoaringBitmap members, int[] counters) {
+        IntIterator it = marked.getIntIterator();
+        while (it.hasNext()) {
+            counters[(int) members.rank(it.next()) - 1]++;
+        }
+    }
+
+    private static class Day {
+        final RoaringBitmap present = new RoaringBitmap();
+        final RoaringBitmap absent = new RoaringBitmap();
+        final RoaringBitmap late = new RoaringBitmap();
+
+        // A student holds at most one status per day; null clears it
+        void set(int studentId, String status) {
+            present.remove(studentId);
+            absent.remove(studentId);
+            late.remove(studentId);
+            if (Attendance.PRESENT.equals(status)) {
+                present.add(studentId);
+            } else if (Attendance.ABSENT.equals(status)) {
+                absent.add(studentId);
+            } else if (Attendance.LATE.equals(status)) {
+                late.add(studentId);
+            }
+        }
+
+        void optimize() {
+            present.runOptimize();
+            absent.runOptimize();
+            late.runOptimize();
+        }
+    }
+}
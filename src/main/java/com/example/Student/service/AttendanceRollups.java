@@ -0,0 +1,280 @@
+package com.example.Student.service;
+
+import com.example.Student.config.Workload;
+import com.example.Student.config.WorkloadPool;
+import com.example.Student.dto.AttendanceDayCount;
+import com.example.Student.dto.AttendanceSummary;
+import com.example.Student.model.Attendance;
+import com.example.Student.repository.AttendanceColdStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-aggregated attendance counts: per student per month and per department per day. Rows are
+ * adjusted by deltas inside the attendance save transaction, so a range summary reads whole months
+ * from the rollup and only counts raw attendance rows for the partial months at either edge.
+ * Department rows are attributed to the student's department at the time attendance was marked.
+ */
+@Component
+public class AttendanceRollups {
+    private static final Logger log = LoggerFactory.getLogger(AttendanceRollups.class);
+    private static final int UPSERT_CHUNK = 500;
+
+    private final JdbcTemplate jdbc;
+    private final AttendanceColdStore coldStore;
+
+    public AttendanceRollups(JdbcTemplate jdbc, AttendanceColdStore coldStore) {
+        this.jdbc = jdbc;
+        this.coldStore = coldStore;
+    }
+
+    // Existing attendance predates the rollup tables; fill them once if they are still empty. Carries
+    // its own transaction, since rebuild()'s annotations do not apply to a call from inside the bean.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    @WorkloadPool(Workload.BACKGROUND)
+    public void backfillIfEmpty() {
+        Integer months = jdbc.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM attendance_student_month LIMIT 1) m",
+                Integer.class);
+        Integer marked = jdbc.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM attendance LIMIT 1) a",
+                Integer.class);
+        if (months != null && months == 0 && marked != null && marked > 0) {
+            recompute();
+        }
+    }
+
+    // Rollups for archived terms are kept as they are; only the range still in the table is recomputed
+    @Transactional
+    @WorkloadPool(Workload.BACKGROUND)
+    public void rebuild() {
+        recompute();
+    }
+
+    private void recompute() {
+        long started = System.currentTimeMillis();
+        Date horizon = Date.valueOf(coldStore.horizon());
+        jdbc.update("DELETE FROM attendance_student_month WHERE month >= ?", horizon);
+        jdbc.update("DELETE FROM attendance_department_day WHERE date >= ?", horizon);
+        int months = jdbc.update("INSERT INTO attendance_student_month (student_id, month, present, absent, late) " +
+                "SELECT student_id, DATE_SUB(date, INTERVAL DAYOFMONTH(date) - 1 DAY), " + countStatuses("status") +
+                " FROM attendance WHERE date >= ? GROUP BY student_id, DATE_SUB(date, INTERVAL DAYOFMONTH(date) - 1 DAY)",
+                horizon);
+        int days = jdbc.update("INSERT INTO attendance_department_day (department_id, date, present, absent, late) " +
+                "SELECT s.department_id, a.date, " + countStatuses("a.status") +
+                " FROM attendance a JOIN students s ON s.id = a.student_id " +
+                "WHERE a.date >= ? AND s.department_id IS NOT NULL GROUP BY s.department_id, a.date", horizon);
+        log.info("Attendance rollups rebuilt: {} student months, {} department days in {} ms",
+                months, days, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Moves each written student's count from its previous status (if any) to the new one. Must run
+     * in the same transaction as the attendance upsert. {@code departments} maps student id to
+     * department id; students without a department only contribute to their own monthly row.
+     */
+    public void apply(LocalDate date, Map<Integer, String> previous, Map<Integer, String> written,
+                      Map<Integer, Integer> departments) {
+        if (written.isEmpty()) {
+            return;
+        }
+        Map<Integer, long[]> byStudent = new LinkedHashMap<>();
+        Map<Integer, long[]> byDepartment = new LinkedHashMap<>();
+        written.forEach((studentId, status) -> {
+            String before = previous.get(studentId);
+            long[] student = byStudent.computeIfAbsent(studentId, id -> new long[3]);
+            adjust(student, before, status);
+            Integer departmentId = departments.get(studentId);
+            if (departmentId != null) {
+                adjust(byDepartment.computeIfAbsent(departmentId, id -> new long[3]), before, status);
+            }
+        });
+        upsert("attendance_student_month", "student_id", "month", date.withDayOfMonth(1), byStudent);
+        upsert("attendance_department_day", "department_id", "date", date, byDepartment);
+    }
+
+    // Must run before the student's attendance rows are deleted, in the same transaction. Uses the
+    // student's current department, which is the one their rows were counted under unless they moved.
+    // Dates before the horizon are counted from the archive, since rows the archiver has yet to delete
+    // there are copies of archived ones.
+    public void removeStudent(Integer studentId) {
+        Date horizon = Date.valueOf(coldStore.horizon());
+        jdbc.update("UPDATE attendance_department_day r JOIN (" +
+                "SELECT s.department_id, a.date, " +
+                "SUM(CASE WHEN a.status = 'present' THEN 1 ELSE 0 END) AS present, " +
+                "SUM(CASE WHEN a.status = 'absent' THEN 1 ELSE 0 END) AS absent, " +
+                "SUM(CASE WHEN a.status = 'late' THEN 1 ELSE 0 END) AS late " +
+                "FROM attendance a JOIN students s ON s.id = a.student_id " +
+                "WHERE a.student_id = ? AND a.date >= ? AND s.department_id IS NOT NULL GROUP BY s.department_id, a.date" +
+                ") d ON d.department_id = r.department_id AND d.date = r.date " +
+                "SET r.present = r.present - d.present, r.absent = r.absent - d.absent, r.late = r.late - d.late",
+                studentId, horizon);
+        removeArchived(studentId);
+        jdbc.update("DELETE FROM attendance_student_month WHERE student_id = ?", studentId);
+    }
+
+    private void removeArchived(Integer studentId) {
+        LocalDate horizon = coldStore.horizon();
+        if (!horizon.isAfter(AttendanceColdStore.NOTHING_ARCHIVED)) {
+            return;
+        }
+        List<Integer> department = jdbc.queryForList("SELECT department_id FROM students WHERE id = ?",
+                Integer.class, studentId);
+        if (department.isEmpty() || department.get(0) == null) {
+            return;
+        }
+        Map<LocalDate, long[]> byDate = new LinkedHashMap<>();
+        coldStore.forStudent(studentId, AttendanceColdStore.NOTHING_ARCHIVED, horizon.minusDays(1), (id, date, status) -> {
+            int slot = slot(status);
+            if (slot >= 0) {
+                byDate.computeIfAbsent(date, d -> new long[3])[slot]++;
+            }
+        });
+        List<Object[]> rows = new ArrayList<>(byDate.size());
+        byDate.forEach((date, d) -> rows.add(new Object[]{d[0], d[1], d[2], department.get(0), Date.valueOf(date)}));
+        jdbc.batchUpdate("UPDATE attendance_department_day SET present = present - ?, absent = absent - ?, " +
+                "late = late - ? WHERE department_id = ? AND date = ?", rows);
+    }
+
+    /**
+     * One student's counts over [from, to]. Whole months come from the monthly rollup; the partial
+     * months at either edge are counted from attendance rows, at most a month's worth each, so the
+     * cost grows with the number of months rather than days. Terms start on a month boundary, so
+     * an edge lies entirely in the table or entirely in the cold store.
+     */
+    public AttendanceSummary studentSummary(Integer studentId, LocalDate from, LocalDate to) {
+        LocalDate firstFull = from.getDayOfMonth() == 1 ? from : from.withDayOfMonth(1).plusMonths(1);
+        LocalDate lastFullEnd = to.equals(to.withDayOfMonth(to.lengthOfMonth())) ? to : to.withDayOfMonth(1).minusDays(1);
+
+        StringBuilder sql = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        long[] totals = new long[3];
+        if (firstFull.isAfter(lastFullEnd)) {
+            appendRawRange(sql, args, totals, studentId, from, to);
+        } else {
+            sql.append("SELECT SUM(present), SUM(absent), SUM(late) FROM attendance_student_month " +
+                    "WHERE student_id = ? AND month BETWEEN ? AND ?");
+            args.add(studentId);
+            args.add(Date.valueOf(firstFull));
+            args.add(Date.valueOf(lastFullEnd.withDayOfMonth(1)));
+            if (from.isBefore(firstFull)) {
+                appendRawRange(sql, args, totals, studentId, from, firstFull.minusDays(1));
+            }
+            if (to.isAfter(lastFullEnd)) {
+                appendRawRange(sql, args, totals, studentId, lastFullEnd.plusDays(1), to);
+            }
+        }
+
+        if (sql.length() == 0) {
+            return new AttendanceSummary(studentId, from, to, totals[0], totals[1], totals[2]);
+        }
+        jdbc.query(sql.toString(), rs -> {
+            totals[0] += rs.getLong(1);
+            totals[1] += rs.getLong(2);
+            totals[2] += rs.getLong(3);
+        }, args.toArray());
+        return new AttendanceSummary(studentId, from, to, totals[0], totals[1], totals[2]);
+    }
+
+    // Per-day counts for one department, read straight off the (department_id, date) key
+    @WorkloadPool(Workload.REPORTING)
+    public List<AttendanceDayCount> departmentDays(Integer departmentId, LocalDate from, LocalDate to) {
+        return jdbc.query("SELECT date, present, absent, late FROM attendance_department_day " +
+                        "WHERE department_id = ? AND date BETWEEN ? AND ? ORDER BY date",
+                (rs, i) -> new AttendanceDayCount(rs.getDate(1).toLocalDate(),
+                        rs.getLong(2), rs.getLong(3), rs.getLong(4)),
+                departmentId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    // Archived edges are counted straight from the cold store into totals
+    private void appendRawRange(StringBuilder sql, List<Object> args, long[] totals, Integer studentId,
+                                LocalDate from, LocalDate to) {
+        if (coldStore.covers(to)) {
+            coldStore.forStudent(studentId, from, to, (id, date, status) -> {
+                int slot = slot(status);
+                if (slot >= 0) {
+                    totals[slot]++;
+                }
+            });
+            return;
+        }
+        if (sql.length() > 0) {
+            sql.append(" UNION ALL ");
+        }
+        sql.append("SELECT ").append(countStatuses("status"))
+                .append(" FROM attendance WHERE student_id = ? AND date BETWEEN ? AND ?");
+        args.add(studentId);
+        args.add(Date.valueOf(from));
+        args.add(Date.valueOf(to));
+    }
+
+    private static String countStatuses(String column) {
+        return "SUM(CASE WHEN " + column + " = 'present' THEN 1 ELSE 0 END), " +
+                "SUM(CASE WHEN " + column + " = 'absent' THEN 1 ELSE 0 END), " +
+                "SUM(CASE WHEN " + column + " = 'late' THEN 1 ELSE 0 END)";
+    }
+
+    private static void adjust(long[] counts, String before, String after) {
+        int from = slot(before);
+        if (from >= 0) {
+            counts[from]--;
+        }
+        int to = slot(after);
+        if (to >= 0) {
+            counts[to]++;
+        }
+    }
+
+    // Matches countStatuses: stored values such as "Present" count as present, anything unrecognised nowhere
+    private static int slot(String status) {
+        String normalized = Attendance.normalizeStatus(status);
+        if (normalized == null) {
+            return -1;
+        }
+        return switch (normalized) {
+            case Attendance.PRESENT -> 0;
+            case Attendance.ABSENT -> 1;
+            default -> 2;
+        };
+    }
+
+    // Counters are added to the stored values; a missing row starts from the delta itself
+    private void upsert(String table, String keyColumn, String dateColumn, LocalDate date, Map<Integer, long[]> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, d) -> {
+            if (d[0] != 0 || d[1] != 0 || d[2] != 0) {
+                rows.add(new Object[]{key, d[0], d[1], d[2]});
+            }
+        });
+        Date sqlDate = Date.valueOf(date);
+        for (int from = 0; from < rows.size(); from += UPSERT_CHUNK) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + UPSERT_CHUNK, rows.size()));
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (").append(keyColumn)
+                    .append(", ").append(dateColumn).append(", present, absent, late) VALUES ");
+            Object[] args = new Object[chunk.size() * 5];
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+                Object[] row = chunk.get(i);
+                args[i * 5] = row[0];
+                args[i * 5 + 1] = sqlDate;
+                args[i * 5 + 2] = row[1];
+                args[i * 5 + 3] = row[2];
+                args[i * 5 + 4] = row[3];
+            }
+            sql.append(" ON DUPLICATE KEY UPDATE present = present + VALUES(present), " +
+                    "absent = absent + VALUES(absent), late = late + VALUES(late)");
+            jdbc.update(sql.toString(), args);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.Student.service;
+
+import com.example.Student.dto.AttendanceSaveReport;
+import com.example.Student.model.Attendance;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface AttendanceService {
+    List<Attendance> getAttendanceByDate(LocalDate date);
+    List<Attendance> getStudentAttendance(Integer studentId);
+    AttendanceSaveReport saveAttendance(LocalDate date, Map<Integer, String> attendanceMap);
+}
@@ -0,0 +1,50 @@
+package com.example.Student.service;
+
+import com.example.Student.model.AttendanceSeal;
+import com.example.Student.repository.AttendanceColdStore;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Database-wide seal on archived attendance, shared by every node. Saves read the seal row with a
+ * shared lock held until they commit; raising the seal needs the exclusive lock, so it waits for
+ * saves already in flight and every later save sees the new value. Once {@link #raise} returns, no
+ * more rows can be committed for dates before the seal.
+ */
+@Component
+public class AttendanceTermSeal {
+    private final JdbcTemplate jdbc;
+
+    public AttendanceTermSeal(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureRow() {
+        jdbc.update("INSERT IGNORE INTO attendance_seal (id, sealed_before) VALUES (?, ?)",
+                AttendanceSeal.ROW_ID, Date.valueOf(AttendanceColdStore.NOTHING_ARCHIVED));
+    }
+
+    // Must run inside the saving transaction, before its writes, so the shared lock covers them
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean isSealed(LocalDate date) {
+        List<Date> sealedBefore = jdbc.queryForList("SELECT sealed_before FROM attendance_seal WHERE id = ? " +
+                "LOCK IN SHARE MODE", Date.class, AttendanceSeal.ROW_ID);
+        return !sealedBefore.isEmpty() && date.isBefore(sealedBefore.get(0).toLocalDate());
+    }
+
+    // Commits on its own; never lowers the seal
+    public void raise(LocalDate before) {
+        jdbc.update("INSERT INTO attendance_seal (id, sealed_before) VALUES (?, ?) " +
+                        "ON DUPLICATE KEY UPDATE sealed_before = GREATEST(sealed_before, VALUES(sealed_before))",
+                AttendanceSeal.ROW_ID, Date.valueOf(before));
+    }
+}
@@ -0,0 +1,387 @@
+package com.example.Student.service;
+
+import com.example.Student.dto.AttendanceSaveReport;
+import com.example.Student.dto.AttendanceSaveReport.Outcome;
+import com.example.Student.config.Workload;
+import com.example.Student.config.WorkloadRouting;
+import com.example.Student.model.Attendance;
+import com.example.Student.model.Student;
+import com.example.Student.repository.AttendanceColdStore;
+import com.example.Student.repository.StudentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Optional write-behind path for attendance submissions. A submission is appended to a local log
+ * segment and fsynced, then coalesced into an in-memory map keyed by date and student, and the
+ * request returns. A single background thread periodically rotates the segment, writes the
+ * coalesced statuses through {@link AttendanceService#saveAttendance} (batched upserts, rollups and
+ * bitmap index included) and deletes the segments it covered. Segments left behind by a crash are
+ * replayed into the pending map at startup; shutdown flushes whatever is still pending.
+ */
+@Component
+public class AttendanceWriteBehind {
+    private static final Logger log = LoggerFactory.getLogger(AttendanceWriteBehind.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final AttendanceService attendanceService;
+    private final StudentRepository studentRepository;
+    private final AttendanceColdStore coldStore;
+    private final boolean enabled;
+    private final Path directory;
+    private final long flushIntervalMs;
+
+    private final Object lock = new Object();
+    // Both guarded by lock. Statuses being flushed stay visible to reads until their commit.
+    private NavigableMap<LocalDate, Map<Integer, String>> pending = new TreeMap<>();
+    private NavigableMap<LocalDate, Map<Integer, String>> flushing = new TreeMap<>();
+    private FileChannel segment;
+    private long segmentNumber;
+
+    private ScheduledExecutorService flusher;
+
+    public AttendanceWriteBehind(AttendanceService attendanceService, StudentRepository studentRepository,
+                                 AttendanceColdStore coldStore,
+                                 @Value("${attendance.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${attendance.write-behind.log-dir:data/attendance-wal}") String directory,
+                                 @Value("${attendance.write-behind.flush-interval-ms:2000}") long flushIntervalMs) {
+        this.attendanceService = attendanceService;
+        this.studentRepository = studentRepository;
+        this.coldStore = coldStore;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        long replayed = 0;
+        for (Path file : segments()) {
+            replayed += replay(file);
+            segmentNumber = Math.max(segmentNumber, number(file));
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} attendance submissions from the write-behind log", replayed);
+        }
+        openNextSegment();
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "attendance-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        flush();
+        synchronized (lock) {
+            segment.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Durably records a submission and returns once it is in the log. Statuses are validated here;
+     * unknown student ids are only discovered, and skipped, when the batch is flushed.
+     */
+    public AttendanceSaveReport submit(LocalDate date, Map<Integer, String> attendanceMap) {
+        if (coldStore.isSealed(date)) {
+            throw new IllegalArgumentException("Attendance for " + date + " belongs to an archived term");
+        }
+        AttendanceSaveReport report = new AttendanceSaveReport(date);
+        Map<Integer, String> accepted = new LinkedHashMap<>();
+        if (attendanceMap != null) {
+            attendanceMap.forEach((studentId, rawStatus) -> {
+                String status = Attendance.normalizeStatus(rawStatus);
+                if (studentId == null || status == null) {
+                    report.record(studentId, Outcome.INVALID_STATUS);
+                } else {
+                    accepted.put(studentId, status);
+                    report.record(studentId, Outcome.QUEUED);
+                }
+            });
+        }
+        if (accepted.isEmpty()) {
+            return report;
+        }
+        ByteBuffer line = StandardCharsets.UTF_8.encode(encode(date, accepted));
+        synchronized (lock) {
+            try {
+                while (line.hasRemaining()) {
+                    segment.write(line);
+                }
+                segment.force(false);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not append to the attendance write-behind log", ex);
+            }
+            pending.computeIfAbsent(date, d -> new HashMap<>()).putAll(accepted);
+        }
+        return report;
+    }
+
+    // Applies pending statuses for the date on top of what the database returned
+    public List<Attendance> overlayDate(LocalDate date, List<Attendance> stored) {
+        if (!enabled) {
+            return stored;
+        }
+        Map<Integer, String> statuses = new HashMap<>();
+        synchronized (lock) {
+            statuses.putAll(flushing.getOrDefault(date, Map.of()));
+            statuses.putAll(pending.getOrDefault(date, Map.of()));
+        }
+        if (statuses.isEmpty()) {
+            return stored;
+        }
+        List<Attendance> merged = new ArrayList<>(stored.size() + statuses.size());
+        for (Attendance row : stored) {
+            String status = statuses.remove(row.getStudentId());
+            if (status != null) {
+                row.setStatus(status);
+            }
+            merged.add(row);
+        }
+        for (Student student : studentRepository.findAllById(statuses.keySet())) {
+            merged.add(new Attendance(student, date, statuses.get(student.getId())));
+        }
+        return merged;
+    }
+
+    // Applies one student's pending statuses, across all dates, on top of what the database returned
+    public List<Attendance> overlayStudent(Integer studentId, List<Attendance> stored) {
+        if (!enabled) {
+            return stored;
+        }
+        Map<LocalDate, String> statuses = new TreeMap<>();
+        synchronized (lock) {
+            flushing.forEach((date, byStudent) -> {
+                String status = byStudent.get(studentId);
+                if (status != null) {
+                    statuses.put(date, status);
+                }
+            });
+            pending.forEach((date, byStudent) -> {
+                String status = byStudent.get(studentId);
+                if (status != null) {
+                    statuses.put(date, status);
+                }
+            });
+        }
+        if (statuses.isEmpty()) {
+            return stored;
+        }
+        List<Attendance> merged = new ArrayList<>(stored.size() + statuses.size());
+        for (Attendance row : stored) {
+            String status = statuses.remove(row.getDate());
+            if (status != null) {
+                row.setStatus(status);
+            }
+            merged.add(row);
+        }
+        if (!statuses.isEmpty()) {
+            Student student = !stored.isEmpty() ? stored.get(0).getStudent()
+                    : studentRepository.findById(studentId).orElse(null);
+            if (student != null) {
+                statuses.forEach((date, status) -> merged.add(new Attendance(student, date, status)));
+            }
+        }
+        return merged;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        synchronized (lock) {
+            stats.put("pendingDates", pending.size());
+            stats.put("pendingEntries", pending.values().stream().mapToInt(Map::size).sum());
+            stats.put("segment", segmentNumber);
+        }
+        return stats;
+    }
+
+    /**
+     * Writes everything pending. The segment is rotated under the same lock that swaps the map, so
+     * every older segment is fully covered by the snapshot and can be deleted once it commits. On
+     * failure the snapshot is merged back beneath newer edits and its segments are kept.
+     */
+    public synchronized void flush() {
+        NavigableMap<LocalDate, Map<Integer, String>> snapshot;
+        long covered;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            snapshot = pending;
+            flushing = snapshot;
+            pending = new TreeMap<>();
+            covered = segmentNumber;
+            try {
+                segment.close();
+                openNextSegment();
+            } catch (IOException ex) {
+                restore(snapshot);
+                throw new UncheckedIOException("Could not rotate the attendance write-behind log", ex);
+            }
+        }
+        try {
+            long written = 0, rejected = 0;
+            for (Map.Entry<LocalDate, Map<Integer, String>> day : snapshot.entrySet()) {
+                if (coldStore.isSealed(day.getKey())) {
+                    log.warn("Dropping {} queued attendance entries for {}: the term was archived",
+                            day.getValue().size(), day.getKey());
+                    continue;
+                }
+                AttendanceSaveReport report;
+                try {
+                    report = attendanceService.saveAttendance(day.getKey(), day.getValue());
+                } catch (IllegalArgumentException ex) {
+                    // Sealed by an archive run on another node since this node last looked
+                    log.warn("Dropping {} queued attendance entries for {}: {}",
+                            day.getValue().size(), day.getKey(), ex.getMessage());
+                    continue;
+                }
+                written += report.getWritten();
+                rejected += report.getRejected();
+            }
+            log.debug("Flushed attendance for {} dates: {} written, {} rejected", snapshot.size(), written, rejected);
+        } catch (RuntimeException ex) {
+            synchronized (lock) {
+                restore(snapshot);
+            }
+            throw ex;
+        }
+        synchronized (lock) {
+            flushing = new TreeMap<>();
+        }
+        for (Path file : segments()) {
+            if (number(file) <= covered) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ex) {
+                    log.warn("Could not delete flushed attendance log segment {}", file, ex);
+                }
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            WorkloadRouting.run(Workload.BACKGROUND, this::flush);
+        } catch (RuntimeException ex) {
+            log.error("Attendance write-behind flush failed; will retry", ex);
+        }
+    }
+
+    // Caller holds lock
+    private void restore(NavigableMap<LocalDate, Map<Integer, String>> snapshot) {
+        snapshot.forEach((date, statuses) -> {
+            Map<Integer, String> newer = pending.get(date);
+            if (newer != null) {
+                statuses.putAll(newer);
+            }
+            pending.put(date, statuses);
+        });
+        flushing = new TreeMap<>();
+    }
+
+    // Caller holds lock, or is still starting up
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        segment = FileChannel.open(directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && f.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static long number(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // One line per submission: "2024-01-31 12=present,13=late"
+    private static String encode(LocalDate date, Map<Integer, String> statuses) {
+        StringBuilder line = new StringBuilder(date.toString()).append(' ');
+        boolean first = true;
+        for (Map.Entry<Integer, String> e : statuses.entrySet()) {
+            if (!first) {
+                line.append(',');
+            }
+            line.append(e.getKey()).append('=').append(e.getValue());
+            first = false;
+        }
+        return line.append('\n').toString();
+    }
+
+    // A torn last line from a crash mid-append was never acknowledged, so it is skipped
+    private long replay(Path file) throws IOException {
+        long lines = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            int space = line.indexOf(' ');
+            try {
+                LocalDate date = LocalDate.parse(line.substring(0, space));
+                Map<Integer, String> statuses = new HashMap<>();
+                for (String entry : line.substring(space + 1).split(",")) {
+                    int eq = entry.indexOf('=');
+                    String status = Attendance.normalizeStatus(entry.substring(eq + 1));
+                    if (status == null) {
+                        throw new IllegalArgumentException("Bad status in " + entry);
+                    }
+                    statuses.put(Integer.valueOf(entry.substring(0, eq)), status);
+                }
+                pending.computeIfAbsent(date, d -> new HashMap<>()).putAll(statuses);
+                lines++;
+            } catch (DateTimeParseException | IllegalArgumentException | IndexOutOfBoundsException ex) {
+                log.warn("Skipping unreadable line in attendance write-behind log {}: {}", file, line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.Student.service;
+
+import com.example.Student.dto.CgpaRecomputeReport;
+
+import java.util.Collection;
+
+public interface CgpaService {
+    CgpaRecomputeReport recomputeAll();
+    void recomputeStudents(Collection<Integer> studentIds);
+}
@@ -2,9 +2,11 @@ package com.example.Student.service;
 
 import com.example.Student.model.Department;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface DepartmentService {
+    List<Department> listAll();
     Optional<Department> findByName(String name);
     Department getOrCreateByName(String name);
 }
@@ -0,0 +1,16 @@
+package com.example.Student.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+// Streams whole tables out in constant memory; rows are written as they are read from the database
+public interface ExportService {
+    enum Format { CSV, NDJSON }
+
+    void exportFees(OutputStream out, Format format, String status) throws IOException;
+
+    void exportResults(OutputStream out, Format format, String department) throws IOException;
+
+    void exportAttendance(OutputStream out, Format format, LocalDate from, LocalDate to) throws IOException;
+}
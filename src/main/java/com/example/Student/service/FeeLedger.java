@@ -0,0 +1,295 @@
+package com.example.Student.service;
+
+import com.example.Student.config.Workload;
+import com.example.Student.config.WorkloadPool;
+import com.example.Student.dto.FeeBalanceView;
+import com.example.Student.dto.FeeStatement;
+import com.example.Student.dto.FeeSummary;
+import com.example.Student.exception.ResourceNotFoundException;
+import com.example.Student.model.FeeLedgerEntry;
+import com.example.Student.repository.FeeLedgerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Append-only fee ledger (charges, payments and adjustments) with materialized balances per student
+ * and per department. Every posting inserts its ledger rows and adds the same amounts to both
+ * balance tables inside the transaction that changed the fees, so the balances always equal the
+ * ledger's sums. Summaries read only the balance tables; the college view is one row per department.
+ * When a student changes department their outstanding balance moves with them as a pair of TRANSFER
+ * entries, so each department's outstanding total is the sum over its current students; charged,
+ * paid and adjusted totals stay with the department they were posted in.
+ */
+@Component
+public class FeeLedger {
+    private static final Logger log = LoggerFactory.getLogger(FeeLedger.class);
+    private static final int UPSERT_CHUNK = 500;
+    private static final String BACKFILL_LOCK = "fee_ledger_backfill";
+    private static final int BACKFILL_LOCK_WAIT_SECONDS = 600;
+    // Balance columns in the order of the long[] deltas below
+    private static final String SUMS = "SUM(CASE WHEN l.kind = 'CHARGE' THEN l.amount_minor ELSE 0 END), " +
+            "-SUM(CASE WHEN l.kind = 'PAYMENT' THEN l.amount_minor ELSE 0 END), " +
+            "SUM(CASE WHEN l.kind = 'ADJUSTMENT' THEN l.amount_minor ELSE 0 END), SUM(l.amount_minor)";
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final FeeLedgerRepository ledgerRepository;
+    private final TransactionTemplate transactions;
+
+    public FeeLedger(JdbcTemplate jdbc, NamedParameterJdbcTemplate namedJdbc, FeeLedgerRepository ledgerRepository,
+                     PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.namedJdbc = namedJdbc;
+        this.ledgerRepository = ledgerRepository;
+        this.transactions = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Fees created before the ledger existed are posted once: a charge for each, a payment for each
+     * paid one. A named MySQL lock is held on its own connection until the backfill has committed,
+     * so a node starting alongside waits and then finds the ledger already filled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @WorkloadPool(Workload.BACKGROUND)
+    public void backfillIfEmpty() {
+        jdbc.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement lock = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+                lock.setString(1, BACKFILL_LOCK);
+                lock.setInt(2, BACKFILL_LOCK_WAIT_SECONDS);
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (!rs.next() || rs.getInt(1) != 1) {
+                        log.warn("Fee ledger backfill skipped: lock {} not acquired", BACKFILL_LOCK);
+                        return null;
+                    }
+                }
+            }
+            try {
+                transactions.executeWithoutResult(status -> backfill());
+            } finally {
+                try (PreparedStatement release = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    release.setString(1, BACKFILL_LOCK);
+                    release.execute();
+                }
+            }
+            return null;
+        });
+    }
+
+    private void backfill() {
+        Integer entries = jdbc.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM fee_ledger LIMIT 1) l", Integer.class);
+        Integer fees = jdbc.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM fees LIMIT 1) f", Integer.class);
+        if (entries == null || entries > 0 || fees == null || fees == 0) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        int charges = jdbc.update("INSERT INTO fee_ledger (fee_id, student_id, department_id, kind, amount_minor, " +
+                "reference, created_at) SELECT f.id, f.student_id, s.department_id, 'CHARGE', ROUND(f.amount * 100), " +
+                "NULL, ? FROM fees f JOIN students s ON s.id = f.student_id ORDER BY f.id", now);
+        int payments = jdbc.update("INSERT INTO fee_ledger (fee_id, student_id, department_id, kind, amount_minor, " +
+                "reference, created_at) SELECT f.id, f.student_id, s.department_id, 'PAYMENT', -ROUND(f.amount * 100), " +
+                "f.transaction_id, COALESCE(TIMESTAMP(f.payment_date), ?) FROM fees f JOIN students s ON s.id = f.student_id " +
+                "WHERE f.status = 'PAID' ORDER BY f.id", now);
+        rebuildBalances();
+        log.info("Fee ledger backfilled with {} charges and {} payments", charges, payments);
+    }
+
+    // Recomputes both balance tables from the ledger
+    @Transactional
+    @WorkloadPool(Workload.BACKGROUND)
+    public void rebuildBalances() {
+        long started = System.currentTimeMillis();
+        jdbc.update("DELETE FROM fee_balance_student");
+        jdbc.update("DELETE FROM fee_balance_department");
+        int students = jdbc.update("INSERT INTO fee_balance_student (student_id, department_id, charged_minor, " +
+                "paid_minor, adjusted_minor, outstanding_minor) SELECT l.student_id, COALESCE(s.department_id, 0), " +
+                SUMS + " FROM fee_ledger l LEFT JOIN students s ON s.id = l.student_id GROUP BY l.student_id, s.department_id");
+        int departments = jdbc.update("INSERT INTO fee_balance_department (department_id, charged_minor, paid_minor, " +
+                "adjusted_minor, outstanding_minor) SELECT COALESCE(l.department_id, 0), " + SUMS +
+                " FROM fee_ledger l GROUP BY COALESCE(l.department_id, 0)");
+        log.info("Fee balances rebuilt for {} students and {} departments in {} ms",
+                students, departments, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Posts a CHARGE or PAYMENT for each fee at its current amount; payments carry the fee's
+     * transaction id. The caller's transaction must already have made the matching fee change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void post(String kind, Collection<Integer> feeIds) {
+        if (!FeeLedgerEntry.CHARGE.equals(kind) && !FeeLedgerEntry.PAYMENT.equals(kind)) {
+            throw new IllegalArgumentException("Only charges and payments are posted per fee");
+        }
+        if (feeIds.isEmpty()) {
+            return;
+        }
+        boolean payment = FeeLedgerEntry.PAYMENT.equals(kind);
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", feeIds)
+                .addValue("kind", kind)
+                .addValue("sign", payment ? -1 : 1)
+                .addValue("now", Timestamp.from(Instant.now()));
+        namedJdbc.update("INSERT INTO fee_ledger (fee_id, student_id, department_id, kind, amount_minor, reference, " +
+                "created_at) SELECT f.id, f.student_id, s.department_id, :kind, :sign * ROUND(f.amount * 100), " +
+                (payment ? "f.transaction_id" : "NULL") + ", :now FROM fees f JOIN students s ON s.id = f.student_id " +
+                "WHERE f.id IN (:ids) ORDER BY f.id", params);
+
+        Map<Integer, long[]> students = new TreeMap<>();
+        Map<Integer, long[]> departments = new TreeMap<>();
+        Map<Integer, Integer> studentDepartments = new TreeMap<>();
+        namedJdbc.query("SELECT f.student_id, COALESCE(s.department_id, 0), SUM(ROUND(f.amount * 100)) FROM fees f " +
+                "JOIN students s ON s.id = f.student_id WHERE f.id IN (:ids) GROUP BY f.student_id, s.department_id",
+                params, rs -> {
+                    long amount = rs.getLong(3);
+                    long[] delta = payment ? new long[]{0, amount, 0, -amount} : new long[]{amount, 0, 0, amount};
+                    add(students, rs.getInt(1), delta);
+                    add(departments, rs.getInt(2), delta);
+                    studentDepartments.put(rs.getInt(1), rs.getInt(2));
+                });
+        upsert("fee_balance_student", "student_id", students, studentDepartments);
+        upsert("fee_balance_department", "department_id", departments, null);
+    }
+
+    /**
+     * Moves a student's outstanding balance to their new department, in the transaction that changed
+     * it: a TRANSFER out of the old department and one into the new, and the balance rows to match.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transfer(Integer studentId, Integer departmentId) {
+        int to = departmentId == null ? 0 : departmentId;
+        List<long[]> current = jdbc.query("SELECT department_id, outstanding_minor FROM fee_balance_student " +
+                "WHERE student_id = ? FOR UPDATE", (rs, i) -> new long[]{rs.getInt(1), rs.getLong(2)}, studentId);
+        if (current.isEmpty() || current.get(0)[0] == to) {
+            return;
+        }
+        int from = (int) current.get(0)[0];
+        long outstanding = current.get(0)[1];
+        jdbc.update("UPDATE fee_balance_student SET department_id = ? WHERE student_id = ?", to, studentId);
+        if (outstanding == 0) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        String reference = "Department " + from + " to " + to;
+        jdbc.batchUpdate("INSERT INTO fee_ledger (fee_id, student_id, department_id, kind, amount_minor, reference, " +
+                "created_at) VALUES (NULL, ?, ?, ?, ?, ?, ?)", List.of(
+                new Object[]{studentId, from == 0 ? null : from, FeeLedgerEntry.TRANSFER, -outstanding, reference, now},
+                new Object[]{studentId, departmentId, FeeLedgerEntry.TRANSFER, outstanding, reference, now}));
+        Map<Integer, long[]> deltas = new TreeMap<>();
+        deltas.put(from, new long[]{0, 0, 0, -outstanding});
+        deltas.put(to, new long[]{0, 0, 0, outstanding});
+        upsert("fee_balance_department", "department_id", deltas, null);
+    }
+
+    // Positive amounts add to what the student owes, negative ones waive part of it
+    @Transactional
+    public FeeBalanceView adjust(Integer studentId, long amountMinor, String reason) {
+        List<Integer> department = jdbc.query("SELECT department_id FROM students WHERE id = ?",
+                (rs, i) -> (Integer) rs.getObject(1), studentId);
+        if (department.isEmpty()) {
+            throw new ResourceNotFoundException("Student not found");
+        }
+        Integer departmentId = department.get(0);
+        jdbc.update("INSERT INTO fee_ledger (fee_id, student_id, department_id, kind, amount_minor, reference, created_at) " +
+                        "VALUES (NULL, ?, ?, ?, ?, ?, ?)",
+                studentId, departmentId, FeeLedgerEntry.ADJUSTMENT, amountMinor, reason, Timestamp.from(Instant.now()));
+        int balanceDepartment = departmentId == null ? 0 : departmentId;
+        long[] delta = {0, 0, amountMinor, amountMinor};
+        upsert("fee_balance_student", "student_id", Map.of(studentId, delta), Map.of(studentId, balanceDepartment));
+        upsert("fee_balance_department", "department_id", Map.of(balanceDepartment, delta), null);
+        return statementBalance(studentId);
+    }
+
+    public FeeSummary summary() {
+        return new FeeSummary(jdbc.query("SELECT b.department_id, COALESCE(d.name, 'Unassigned'), b.charged_minor, " +
+                "b.paid_minor, b.adjusted_minor, b.outstanding_minor FROM fee_balance_department b " +
+                "LEFT JOIN departments d ON d.id = b.department_id ORDER BY b.outstanding_minor DESC", FeeLedger::view));
+    }
+
+    // Students owing the most in one department, read off idx_fee_balance_student_outstanding
+    public List<FeeBalanceView> topOutstanding(Integer departmentId, int limit) {
+        return jdbc.query("SELECT b.student_id, s.name, b.charged_minor, b.paid_minor, b.adjusted_minor, " +
+                        "b.outstanding_minor FROM fee_balance_student b JOIN students s ON s.id = b.student_id " +
+                        "WHERE b.department_id = ? AND b.outstanding_minor > 0 ORDER BY b.outstanding_minor DESC LIMIT ?",
+                FeeLedger::view, departmentId, limit);
+    }
+
+    public FeeStatement statement(Integer studentId) {
+        return new FeeStatement(statementBalance(studentId), ledgerRepository.findTop500ByStudentIdOrderByIdDesc(studentId));
+    }
+
+    private FeeBalanceView statementBalance(Integer studentId) {
+        List<FeeBalanceView> balance = jdbc.query("SELECT s.id, s.name, COALESCE(b.charged_minor, 0), " +
+                "COALESCE(b.paid_minor, 0), COALESCE(b.adjusted_minor, 0), COALESCE(b.outstanding_minor, 0) " +
+                "FROM students s LEFT JOIN fee_balance_student b ON b.student_id = s.id WHERE s.id = ?",
+                FeeLedger::view, studentId);
+        if (balance.isEmpty()) {
+            throw new ResourceNotFoundException("Student not found");
+        }
+        return balance.get(0);
+    }
+
+    private static FeeBalanceView view(ResultSet rs, int row) throws SQLException {
+        return new FeeBalanceView(rs.getInt(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6));
+    }
+
+    private static void add(Map<Integer, long[]> totals, Integer key, long[] delta) {
+        long[] sums = totals.computeIfAbsent(key, k -> new long[4]);
+        for (int i = 0; i < 4; i++) {
+            sums[i] += delta[i];
+        }
+    }
+
+    /**
+     * Adds deltas to the stored balances; a missing row starts from the delta itself. Keys are
+     * written in ascending order so concurrent postings lock balance rows in the same order.
+     * A new student row takes the student's current department; an existing one keeps its own,
+     * which only {@link #transfer} changes.
+     */
+    private void upsert(String table, String keyColumn, Map<Integer, long[]> deltas, Map<Integer, Integer> departments) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        new TreeMap<>(deltas).forEach((key, d) -> {
+            if (departments == null) {
+                rows.add(new Object[]{key, d[0], d[1], d[2], d[3]});
+            } else {
+                rows.add(new Object[]{key, departments.get(key), d[0], d[1], d[2], d[3]});
+            }
+        });
+        int width = departments == null ? 5 : 6;
+        String placeholders = departments == null ? "(?, ?, ?, ?, ?)" : "(?, ?, ?, ?, ?, ?)";
+        for (int from = 0; from < rows.size(); from += UPSERT_CHUNK) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + UPSERT_CHUNK, rows.size()));
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (").append(keyColumn)
+                    .append(departments == null ? "" : ", department_id")
+                    .append(", charged_minor, paid_minor, adjusted_minor, outstanding_minor) VALUES ");
+            Object[] args = new Object[chunk.size() * width];
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append(placeholders);
+                System.arraycopy(chunk.get(i), 0, args, i * width, width);
+            }
+            sql.append(" ON DUPLICATE KEY UPDATE charged_minor = charged_minor + VALUES(charged_minor), " +
+                    "paid_minor = paid_minor + VALUES(paid_minor), adjusted_minor = adjusted_minor + VALUES(adjusted_minor), " +
+                    "outstanding_minor = outstanding_minor + VALUES(outstanding_minor)");
+            jdbc.update(sql.toString(), args);
+        }
+    }
+}
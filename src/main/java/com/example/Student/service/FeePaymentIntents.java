@@ -0,0 +1,216 @@
+package com.example.Student.service;
+
+import com.example.Student.exception.ResourceNotFoundException;
+import com.example.Student.model.Fee;
+import com.example.Student.model.FeePaymentIntent;
+import com.example.Student.repository.FeePaymentIntentRepository;
+import com.example.Student.repository.FeeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stripe.model.PaymentIntent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One open Stripe PaymentIntent per pending fee, for the fee's own amount. The mapping is kept in
+ * the fee_payment_intents table and cached in memory. Every pay click for the fee reuses the
+ * intent's client secret. Stripe is only asked again when the intent was last confirmed payable more
+ * than {@code stripe.intent.revalidate-minutes} ago, or when the fee amount changed. Concurrent
+ * clicks for one fee share a single in-flight lookup. The idempotency key is derived from the fee,
+ * amount and generation, so even two nodes racing on the same fee get the same intent from Stripe.
+ * An intent replaced by a new one is canceled at Stripe, and a paid fee's row is removed once the
+ * payment commits.
+ */
+@Component
+public class FeePaymentIntents {
+    private static final Logger log = LoggerFactory.getLogger(FeePaymentIntents.class);
+    // Stripe statuses in which the client secret can still be used to pay
+    private static final Set<String> PAYABLE = Set.of(
+            "requires_payment_method", "requires_confirmation", "requires_action");
+
+    private final FeeRepository feeRepository;
+    private final FeePaymentIntentRepository intentRepository;
+    private final PaymentService paymentService;
+    private final TransactionTemplate ownTransaction;
+    private final String currency;
+    private final Duration revalidateAfter;
+    private final Cache<Integer, FeePaymentIntent> cache;
+    private final ConcurrentMap<Integer, CompletableFuture<FeePaymentIntent>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder revalidated = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder canceled = new LongAdder();
+
+    public FeePaymentIntents(FeeRepository feeRepository, FeePaymentIntentRepository intentRepository,
+                             PaymentService paymentService, PlatformTransactionManager transactionManager,
+                             @Value("${stripe.currency:inr}") String currency,
+                             @Value("${stripe.intent.revalidate-minutes:60}") long revalidateMinutes,
+                             @Value("${stripe.intent.cache-size:50000}") long cacheSize) {
+        this.feeRepository = feeRepository;
+        this.intentRepository = intentRepository;
+        this.paymentService = paymentService;
+        // release() runs in after-commit hooks, where joining the finished transaction would never commit
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.currency = currency;
+        this.revalidateAfter = Duration.ofMinutes(revalidateMinutes);
+        this.cache = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    // Completes with the client secret of a payable intent for the fee, creating one only when needed
+    public CompletableFuture<String> clientSecretFor(Integer feeId) {
+        Fee fee = feeRepository.findById(feeId).orElseThrow(() -> new ResourceNotFoundException("Fee not found"));
+        if ("PAID".equals(fee.getStatus())) {
+            throw new IllegalArgumentException("Fee already paid");
+        }
+        long amountMinor = Math.round(fee.getAmount() * 100);
+        FeePaymentIntent known = cache.getIfPresent(feeId);
+        if (known != null && usable(known, amountMinor) && isFresh(known)) {
+            reused.increment();
+            return CompletableFuture.completedFuture(known.getClientSecret());
+        }
+
+        CompletableFuture<FeePaymentIntent> started = new CompletableFuture<>();
+        CompletableFuture<FeePaymentIntent> flight = inFlight.putIfAbsent(feeId, started);
+        if (flight != null) {
+            joined.increment();
+            return flight.thenApply(FeePaymentIntent::getClientSecret);
+        }
+        try {
+            resolve(feeId, amountMinor).whenComplete((intent, ex) -> {
+                inFlight.remove(feeId, started);
+                if (ex != null) {
+                    started.completeExceptionally(ex);
+                } else {
+                    started.complete(intent);
+                }
+            });
+        } catch (RuntimeException ex) {
+            inFlight.remove(feeId, started);
+            started.completeExceptionally(ex);
+        }
+        return started.thenApply(FeePaymentIntent::getClientSecret);
+    }
+
+    // The fee's recorded intent, fetched fresh from Stripe
+    public CompletableFuture<PaymentIntent> recordedIntent(Integer feeId) {
+        FeePaymentIntent recorded = intentRepository.findById(feeId)
+                .orElseThrow(() -> new ResourceNotFoundException("No payment was started for this fee"));
+        return paymentService.retrievePaymentIntent(recorded.getIntentId());
+    }
+
+    public void forget(Integer feeId) {
+        cache.invalidate(feeId);
+    }
+
+    /**
+     * Called once a fee's payment has committed: drops the fee's intent row and cancels the intent at
+     * Stripe unless it is the one that paid ({@code paidBy}, null for payments made outside Stripe).
+     */
+    public void release(Integer feeId, String paidBy) {
+        cache.invalidate(feeId);
+        FeePaymentIntent recorded = ownTransaction.execute(status -> {
+            FeePaymentIntent row = intentRepository.findById(feeId).orElse(null);
+            if (row != null) {
+                intentRepository.delete(row);
+            }
+            return row;
+        });
+        if (recorded != null && !recorded.getIntentId().equals(paidBy)) {
+            cancel(recorded);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "reused", reused.sum(),
+                "created", created.sum(),
+                "revalidated", revalidated.sum(),
+                "joinedInFlight", joined.sum(),
+                "canceled", canceled.sum(),
+                "cached", cache.estimatedSize());
+    }
+
+    private CompletableFuture<FeePaymentIntent> resolve(Integer feeId, long amountMinor) {
+        FeePaymentIntent existing = cache.getIfPresent(feeId);
+        if (existing == null) {
+            existing = intentRepository.findById(feeId).orElse(null);
+        }
+        if (existing == null) {
+            return create(feeId, amountMinor, 1);
+        }
+        if (!usable(existing, amountMinor)) {
+            // The fee's amount changed: the old intent must not stay payable next to the new one
+            cancel(existing);
+            return create(feeId, amountMinor, existing.getGeneration() + 1);
+        }
+        if (isFresh(existing)) {
+            reused.increment();
+            cache.put(feeId, existing);
+            return CompletableFuture.completedFuture(existing);
+        }
+        FeePaymentIntent stale = existing;
+        revalidated.increment();
+        return paymentService.retrievePaymentIntent(stale.getIntentId()).thenCompose(intent -> {
+            if (PAYABLE.contains(intent.getStatus())) {
+                stale.setCheckedAt(Instant.now());
+                cache.put(feeId, intentRepository.save(stale));
+                reused.increment();
+                return CompletableFuture.completedFuture(stale);
+            }
+            if ("processing".equals(intent.getStatus()) || "succeeded".equals(intent.getStatus())) {
+                throw new IllegalStateException("A payment for this fee is already being processed");
+            }
+            // Canceled: start a new intent
+            return create(feeId, amountMinor, stale.getGeneration() + 1);
+        });
+    }
+
+    private CompletableFuture<FeePaymentIntent> create(Integer feeId, long amountMinor, int generation) {
+        String idempotencyKey = "fee-" + feeId + "-" + amountMinor + "-" + generation;
+        return paymentService.createPaymentIntent(amountMinor, currency, idempotencyKey,
+                        Map.of("feeId", String.valueOf(feeId)))
+                .thenApply((PaymentIntent intent) -> {
+                    FeePaymentIntent saved = intentRepository.save(new FeePaymentIntent(feeId, intent.getId(),
+                            intent.getClientSecret(), amountMinor, currency, generation));
+                    cache.put(feeId, saved);
+                    created.increment();
+                    return saved;
+                });
+    }
+
+    // Best effort: Stripe refuses to cancel an intent that is already processing, paid or canceled
+    private void cancel(FeePaymentIntent superseded) {
+        paymentService.cancelPaymentIntent(superseded.getIntentId()).whenComplete((intent, ex) -> {
+            if (ex == null) {
+                canceled.increment();
+            } else {
+                log.warn("Could not cancel PaymentIntent {} of fee {}: {}", superseded.getIntentId(),
+                        superseded.getFeeId(), ex.getMessage());
+            }
+        });
+    }
+
+    private boolean usable(FeePaymentIntent intent, long amountMinor) {
+        return intent.getAmountMinor() == amountMinor && currency.equals(intent.getCurrency());
+    }
+
+    private boolean isFresh(FeePaymentIntent intent) {
+        return intent.getCheckedAt().plus(revalidateAfter).isAfter(Instant.now());
+    }
+}
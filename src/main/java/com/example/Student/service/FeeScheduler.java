@@ -0,0 +1,146 @@
+package com.example.Student.service;
+
+import com.example.Student.config.Workload;
+import com.example.Student.config.WorkloadPool;
+import com.example.Student.dto.FeeScheduleReport;
+import com.example.Student.dto.FeeScheduleRequest;
+import com.example.Student.exception.ResourceNotFoundException;
+import com.example.Student.model.FeeLedgerEntry;
+import com.example.Student.repository.DepartmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Charges a term's fee to every student in a department, or in the college, and moves unpaid fees
+ * past their due date to OVERDUE. Both work in chunks of student or fee ids, each committed on its
+ * own, so row locks are only ever held for one chunk. Generation uses INSERT ... SELECT against the
+ * (student, term, description) unique key, so running a schedule again only charges students added
+ * since the last run; each chunk posts its new fees to the {@link FeeLedger} in the same transaction.
+ */
+@Component
+@WorkloadPool(Workload.BACKGROUND)
+public class FeeScheduler {
+    private static final Logger log = LoggerFactory.getLogger(FeeScheduler.class);
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final DepartmentRepository departmentRepository;
+    private final FeeLedger feeLedger;
+    private final TransactionTemplate transactions;
+    private final int generateChunk;
+    private final int overdueChunk;
+
+    public FeeScheduler(JdbcTemplate jdbc, NamedParameterJdbcTemplate namedJdbc,
+                        DepartmentRepository departmentRepository, FeeLedger feeLedger,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${fees.schedule.chunk-size:5000}") int generateChunk,
+                        @Value("${fees.overdue.chunk-size:5000}") int overdueChunk) {
+        this.jdbc = jdbc;
+        this.namedJdbc = namedJdbc;
+        this.departmentRepository = departmentRepository;
+        this.feeLedger = feeLedger;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.generateChunk = generateChunk;
+        this.overdueChunk = overdueChunk;
+    }
+
+    public FeeScheduleReport generate(FeeScheduleRequest request) {
+        validate(request);
+        long started = System.currentTimeMillis();
+        String scope = request.getDepartmentId() == null ? "" : " AND department_id = :departmentId";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("departmentId", request.getDepartmentId())
+                .addValue("term", request.getTerm().trim())
+                .addValue("description", request.getDescription().trim())
+                .addValue("amount", request.getAmount())
+                .addValue("dueDate", Date.valueOf(request.getDueDate()))
+                .addValue("limit", generateChunk)
+                .addValue("after", 0);
+
+        int students = 0;
+        int created = 0;
+        while (true) {
+            // The next chunk's upper id bound, so the insert below covers exactly these students
+            Map<String, Object> chunk = namedJdbc.queryForMap("SELECT COUNT(*) AS n, MAX(id) AS last FROM " +
+                    "(SELECT id FROM students WHERE id > :after" + scope + " ORDER BY id LIMIT :limit) s", params);
+            int n = ((Number) chunk.get("n")).intValue();
+            if (n == 0) {
+                break;
+            }
+            params.addValue("last", chunk.get("last"));
+            created += transactions.execute(status -> chargeChunk(params, scope));
+            students += n;
+            params.addValue("after", chunk.get("last"));
+            if (n < generateChunk) {
+                break;
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Fee schedule {} / {}: {} students, {} fees created in {} ms",
+                request.getTerm(), request.getDescription(), students, created, elapsed);
+        return new FeeScheduleReport(students, created, elapsed);
+    }
+
+    private int chargeChunk(MapSqlParameterSource params, String scope) {
+        int inserted = namedJdbc.update("INSERT IGNORE INTO fees (student_id, term, description, amount, status, due_date) " +
+                "SELECT id, :term, :description, :amount, 'PENDING', :dueDate FROM students " +
+                "WHERE id > :after AND id <= :last" + scope, params);
+        if (inserted > 0) {
+            // The chunk's fees for this schedule that have no charge yet are exactly the ones just inserted
+            List<Integer> feeIds = namedJdbc.queryForList("SELECT f.id FROM fees f WHERE f.student_id > :after " +
+                    "AND f.student_id <= :last AND f.term = :term AND f.description = :description AND NOT EXISTS " +
+                    "(SELECT 1 FROM fee_ledger l WHERE l.fee_id = f.id AND l.kind = 'CHARGE')", params, Integer.class);
+            feeLedger.post(FeeLedgerEntry.CHARGE, feeIds);
+        }
+        return inserted;
+    }
+
+    // Also catches up after downtime, since every PENDING fee due before today qualifies
+    @Scheduled(cron = "${fees.overdue.cron:0 5 0 * * *}")
+    public int markOverdue() {
+        Date today = Date.valueOf(LocalDate.now());
+        int total = 0;
+        int batch;
+        do {
+            batch = jdbc.update("UPDATE fees SET status = 'OVERDUE' WHERE status = 'PENDING' AND due_date < ? LIMIT "
+                    + overdueChunk, today);
+            total += batch;
+        } while (batch == overdueChunk);
+        if (total > 0) {
+            log.info("Marked {} fees overdue", total);
+        }
+        return total;
+    }
+
+    private void validate(FeeScheduleRequest request) {
+        if (request.getTerm() == null || request.getTerm().isBlank() || request.getTerm().trim().length() > 32) {
+            throw new IllegalArgumentException("term is required (at most 32 characters)");
+        }
+        if (request.getDescription() == null || request.getDescription().isBlank()) {
+            throw new IllegalArgumentException("description is required");
+        }
+        if (request.getAmount() == null || request.getAmount() <= 0) {
+            throw new IllegalArgumentException("amount must be positive");
+        }
+        if (request.getDueDate() == null) {
+            throw new IllegalArgumentException("dueDate is required");
+        }
+        if (request.getDepartmentId() != null && !departmentRepository.existsById(request.getDepartmentId())) {
+            throw new ResourceNotFoundException("Department not found");
+        }
+    }
+}
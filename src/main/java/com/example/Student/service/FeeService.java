@@ -1,50 +1,94 @@
 package com.example.Student.service;
 
+import com.example.Student.exception.ResourceNotFoundException;
 import com.example.Student.model.Fee;
-import com.example.Student.model.Student;
+import com.example.Student.model.FeeLedgerEntry;
 import com.example.Student.repository.FeeRepository;
-import com.example.Student.repository.StudentRepository;
+import com.stripe.model.PaymentIntent;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 
 @Service
 public class FeeService {
+    public static final String MANUAL_PREFIX = "MANUAL-";
+    public static final int MAX_REFERENCE_LENGTH = 64;
+
     private final FeeRepository feeRepository;
-    private final StudentRepository studentRepository;
+    private final FeePaymentIntents feePaymentIntents;
+    private final FeeLedger feeLedger;
 
-    public FeeService(FeeRepository feeRepository, StudentRepository studentRepository) {
+    public FeeService(FeeRepository feeRepository, FeePaymentIntents feePaymentIntents, FeeLedger feeLedger) {
         this.feeRepository = feeRepository;
-        this.studentRepository = studentRepository;
+        this.feePaymentIntents = feePaymentIntents;
+        this.feeLedger = feeLedger;
     }
 
+    // Read-only: fees are created by FeeScheduler, never on the read path
+    @Transactional(readOnly = true)
     public List<Fee> getFeesByStudent(Integer studentId) {
-        // For demo: if no fees exist for this student, create a dummy one
-        List<Fee> fees = feeRepository.findByStudent_Id(studentId);
-        if (fees.isEmpty()) {
-            Student student = studentRepository.findById(studentId).orElseThrow(() -> new RuntimeException("Student not found"));
-            Fee dummyFee = new Fee(student, 50000.0, "Semester 1 Tuition Fee", LocalDate.now().plusDays(30));
-            fees.add(feeRepository.save(dummyFee));
-        }
-        return fees;
+        return feeRepository.findByStudent_Id(studentId);
     }
 
     public List<Fee> getAllFees() {
         return feeRepository.findAll();
     }
 
+    /**
+     * Records a payment an admin took outside Stripe (cash, bank transfer). The reference is kept as
+     * the transaction id, prefixed so it never collides with a PaymentIntent id.
+     */
+    @Transactional
+    public Fee payFee(Integer feeId, String reference) {
+        Fee fee = feeRepository.findByIdForUpdate(feeId).orElseThrow(() -> new ResourceNotFoundException("Fee not found"));
+        if ("PAID".equals(fee.getStatus())) {
+            throw new IllegalStateException("Fee already paid");
+        }
+        fee.setStatus("PAID");
+        fee.setPaymentDate(LocalDate.now());
+        fee.setTransactionId(MANUAL_PREFIX + reference);
+        // Flushed first: the ledger posting reads the paid fee through JDBC in this transaction
+        Fee paid = feeRepository.saveAndFlush(fee);
+        feeLedger.post(FeeLedgerEntry.PAYMENT, List.of(feeId));
+        // Paid outside Stripe: any open intent for the fee is canceled
+        TransactionHooks.afterCommit(() -> feePaymentIntents.release(feeId, null));
+        return paid;
+    }
+
+    public Fee getFee(Integer feeId) {
+        return feeRepository.findById(feeId).orElseThrow(() -> new ResourceNotFoundException("Fee not found"));
+    }
+
+    /**
+     * Settles a fee from a PaymentIntent fetched from Stripe by the server, never from what the
+     * browser reports. The intent must have succeeded, belong to this fee and have received the
+     * fee's amount; the intent id becomes the transaction id, as with webhook settlement.
+     */
     @Transactional
-    public Fee payFee(Integer feeId) {
-        Fee fee = feeRepository.findById(feeId).orElseThrow(() -> new RuntimeException("Fee not found"));
+    public Fee settleFromIntent(Integer feeId, PaymentIntent intent) {
+        Fee fee = feeRepository.findByIdForUpdate(feeId).orElseThrow(() -> new ResourceNotFoundException("Fee not found"));
         if ("PAID".equals(fee.getStatus())) {
-            throw new RuntimeException("Fee already paid");
+            return fee;
+        }
+        Map<String, String> metadata = intent.getMetadata();
+        if (metadata == null || !String.valueOf(feeId).equals(metadata.get("feeId"))) {
+            throw new IllegalArgumentException("Payment does not belong to this fee");
+        }
+        if (!"succeeded".equals(intent.getStatus())) {
+            throw new IllegalStateException("Payment has not succeeded yet (status " + intent.getStatus() + ")");
+        }
+        if (intent.getAmountReceived() == null || intent.getAmountReceived() != Math.round(fee.getAmount() * 100)) {
+            throw new IllegalStateException("Payment amount does not match the fee");
         }
         fee.setStatus("PAID");
         fee.setPaymentDate(LocalDate.now());
-        fee.setTransactionId("TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
-        return feeRepository.save(fee);
+        fee.setTransactionId(intent.getId());
+        Fee paid = feeRepository.saveAndFlush(fee);
+        feeLedger.post(FeeLedgerEntry.PAYMENT, List.of(feeId));
+        TransactionHooks.afterCommit(() -> feePaymentIntents.release(feeId, intent.getId()));
+        return paid;
     }
 }
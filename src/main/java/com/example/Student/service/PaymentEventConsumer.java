@@ -0,0 +1,69 @@
+package com.example.Student.service;
+
+import com.example.Student.config.Workload;
+import com.example.Student.config.WorkloadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Drains the payment event inbox in batches, off the webhook's request path
+@Component
+@WorkloadPool(Workload.BACKGROUND)
+public class PaymentEventConsumer {
+    private static final Logger log = LoggerFactory.getLogger(PaymentEventConsumer.class);
+    private static final int PURGE_CHUNK = 5000;
+
+    private final PaymentEventInbox inbox;
+    private final int batchSize;
+    private final Duration retention;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder events = new LongAdder();
+    private volatile Instant lastDrained;
+
+    public PaymentEventConsumer(PaymentEventInbox inbox,
+                                @Value("${payments.webhook.batch-size:500}") int batchSize,
+                                @Value("${payments.webhook.retention-days:30}") long retentionDays) {
+        this.inbox = inbox;
+        this.batchSize = batchSize;
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    // Each batch commits on its own, so a burst is worked off in bounded transactions
+    @Scheduled(fixedDelayString = "${payments.webhook.poll-ms:1000}")
+    public void drain() {
+        int claimed;
+        do {
+            claimed = inbox.settleBatch(batchSize);
+            if (claimed > 0) {
+                batches.increment();
+                events.add(claimed);
+            }
+        } while (claimed == batchSize);
+        lastDrained = Instant.now();
+    }
+
+    @Scheduled(cron = "${payments.webhook.purge-cron:0 15 3 * * *}")
+    public void purge() {
+        long deleted = inbox.purgeProcessedBefore(Instant.now().minus(retention), PURGE_CHUNK);
+        if (deleted > 0) {
+            log.info("Purged {} processed payment events older than {} days", deleted, retention.toDays());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("batches", batches.sum());
+        stats.put("events", events.sum());
+        stats.put("lastDrained", lastDrained);
+        stats.put("outcomes", inbox.outcomes());
+        return stats;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.Student.service;
+
+import com.example.Student.model.FeeLedgerEntry;
+import com.example.Student.model.PaymentEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.net.Webhook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inbox for payment provider webhooks. {@link #receive} verifies the signature and stores the event
+ * with a single INSERT IGNORE, so a redelivered event id is dropped at the door. {@link #settleBatch}
+ * later settles fees for a batch of stored events with set-based updates.
+ */
+@Component
+public class PaymentEventInbox {
+    private static final Logger log = LoggerFactory.getLogger(PaymentEventInbox.class);
+    static final String SUCCEEDED = "payment_intent.succeeded";
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final ObjectMapper objectMapper;
+    private final FeePaymentIntents feePaymentIntents;
+    private final FeeLedger feeLedger;
+    private final String secret;
+    private final long toleranceSeconds;
+
+    public PaymentEventInbox(JdbcTemplate jdbc, NamedParameterJdbcTemplate namedJdbc, ObjectMapper objectMapper,
+                             FeePaymentIntents feePaymentIntents, FeeLedger feeLedger,
+                             @Value("${payments.webhook.secret:}") String secret,
+                             @Value("${payments.webhook.tolerance-seconds:300}") long toleranceSeconds) {
+        this.jdbc = jdbc;
+        this.namedJdbc = namedJdbc;
+        this.objectMapper = objectMapper;
+        this.feePaymentIntents = feePaymentIntents;
+        this.feeLedger = feeLedger;
+        this.secret = secret;
+        this.toleranceSeconds = toleranceSeconds;
+        if (secret.isBlank()) {
+            log.warn("payments.webhook.secret is not set: the webhook is disabled and fees are settled only " +
+                    "through POST /api/payment/confirm/{feeId}");
+        }
+    }
+
+    public boolean isConfigured() {
+        return !secret.isBlank();
+    }
+
+    // Returns false when the event id was already stored
+    public boolean receive(String payload, String signatureHeader) {
+        if (signatureHeader == null) {
+            throw new IllegalArgumentException("Missing Stripe-Signature header");
+        }
+        JsonNode event;
+        try {
+            Webhook.Signature.verifyHeader(payload, signatureHeader, secret, toleranceSeconds);
+            event = objectMapper.readTree(payload);
+        } catch (SignatureVerificationException ex) {
+            throw new IllegalArgumentException("Invalid webhook signature");
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Webhook body is not valid JSON");
+        }
+        if (!event.hasNonNull("id") || !event.hasNonNull("type")) {
+            throw new IllegalArgumentException("Webhook body is not an event");
+        }
+        JsonNode object = event.path("data").path("object");
+        JsonNode feeId = object.path("metadata").path("feeId");
+        JsonNode amount = object.hasNonNull("amount_received") ? object.get("amount_received") : object.path("amount");
+        return jdbc.update("INSERT IGNORE INTO payment_event_inbox (event_id, type, intent_id, fee_id, amount_minor, " +
+                        "currency, event_created_at, received_at, payload) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                event.get("id").asText(),
+                event.get("type").asText(),
+                object.hasNonNull("id") ? object.get("id").asText() : null,
+                feeId.isTextual() && feeId.asText().matches("\\d{1,9}") ? Integer.valueOf(feeId.asText()) : null,
+                amount.canConvertToLong() ? amount.asLong() : null,
+                object.hasNonNull("currency") ? object.get("currency").asText() : null,
+                Timestamp.from(Instant.ofEpochSecond(event.path("created").asLong(Instant.now().getEpochSecond()))),
+                Timestamp.from(Instant.now()),
+                payload) > 0;
+    }
+
+    /**
+     * Claims up to {@code limit} unprocessed events (skipping any another node holds), marks fees paid
+     * for succeeded intents whose amount matches the fee, posts those payments to the fee ledger and
+     * records each event's outcome. Returns how many events were claimed.
+     */
+    @Transactional
+    public int settleBatch(int limit) {
+        List<Long> ids = jdbc.queryForList("SELECT id FROM payment_event_inbox WHERE processed_at IS NULL " +
+                "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED", Long.class, limit);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids).addValue("succeeded", SUCCEEDED);
+        // Locks the fees to settle, so a concurrent manual payment waits and then sees them paid
+        List<Integer> settled = namedJdbc.queryForList("SELECT DISTINCT f.id FROM fees f " +
+                "JOIN payment_event_inbox e ON e.fee_id = f.id WHERE e.id IN (:ids) AND e.type = :succeeded " +
+                "AND f.status <> 'PAID' AND e.amount_minor = ROUND(f.amount * 100) FOR UPDATE", params, Integer.class);
+        if (!settled.isEmpty()) {
+            params.addValue("settled", settled);
+            namedJdbc.update("UPDATE fees f JOIN payment_event_inbox e ON e.fee_id = f.id " +
+                    "SET f.status = 'PAID', f.payment_date = DATE(e.event_created_at), f.transaction_id = e.intent_id " +
+                    "WHERE e.id IN (:ids) AND f.id IN (:settled) AND e.type = :succeeded " +
+                    "AND e.amount_minor = ROUND(f.amount * 100)", params);
+            feeLedger.post(FeeLedgerEntry.PAYMENT, settled);
+            // The intent that paid is closed at Stripe, so its row goes with the payment; any other is canceled below
+            namedJdbc.update("DELETE p FROM fee_payment_intents p JOIN fees f ON f.id = p.fee_id " +
+                    "WHERE p.fee_id IN (:settled) AND p.intent_id = f.transaction_id", params);
+        }
+        namedJdbc.update("UPDATE payment_event_inbox e LEFT JOIN fees f ON f.id = e.fee_id " +
+                "SET e.processed_at = UTC_TIMESTAMP(), e.outcome = CASE " +
+                "WHEN e.type <> :succeeded THEN '" + PaymentEvent.IGNORED + "' " +
+                "WHEN f.id IS NULL THEN '" + PaymentEvent.UNKNOWN_FEE + "' " +
+                "WHEN f.transaction_id = e.intent_id THEN '" + PaymentEvent.SETTLED + "' " +
+                "ELSE '" + PaymentEvent.MISMATCH + "' END " +
+                "WHERE e.id IN (:ids)", params);
+        List<Integer> fees = namedJdbc.queryForList("SELECT DISTINCT fee_id FROM payment_event_inbox " +
+                "WHERE id IN (:ids) AND fee_id IS NOT NULL", params, Integer.class);
+        List<Integer> paidElsewhere = settled.isEmpty() ? List.of() : namedJdbc.queryForList(
+                "SELECT p.fee_id FROM fee_payment_intents p WHERE p.fee_id IN (:settled)", params, Integer.class);
+        // Settled or canceled intents must not be handed out again
+        TransactionHooks.afterCommit(() -> {
+            fees.forEach(feePaymentIntents::forget);
+            paidElsewhere.forEach(feeId -> feePaymentIntents.release(feeId, null));
+        });
+        return ids.size();
+    }
+
+    // Event counts by outcome, with unprocessed events under "PENDING"
+    public Map<String, Long> outcomes() {
+        Map<String, Long> outcomes = new TreeMap<>();
+        jdbc.query("SELECT COALESCE(outcome, 'PENDING'), COUNT(*) FROM payment_event_inbox GROUP BY outcome", rs -> {
+            outcomes.put(rs.getString(1), rs.getLong(2));
+        });
+        return outcomes;
+    }
+
+    // Processed events are kept this long so redeliveries are still recognised, then removed in chunks
+    public long purgeProcessedBefore(Instant cutoff, int chunk) {
+        long deleted = 0;
+        int batch;
+        do {
+            batch = jdbc.update("DELETE FROM payment_event_inbox WHERE processed_at < ? LIMIT " + chunk,
+                    Timestamp.from(cutoff));
+            deleted += batch;
+        } while (batch > 0);
+        return deleted;
+    }
+}
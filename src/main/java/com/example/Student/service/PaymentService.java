@@ -1,37 +1,276 @@
 package com.example.Student.service;
 
+import com.example.Student.exception.PaymentUnavailableException;
 import com.stripe.Stripe;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.RateLimitException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import jakarta.annotation.PostConstruct;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calls Stripe off the request thread. Calls run on a small dedicated pool with a bounded queue (the
+ * bulkhead), so a slow provider can only ever hold these threads and never Tomcat's. Each call
+ * has connect/read timeouts plus an overall deadline. Provider failures (connection errors, 429,
+ * 5xx, timeouts) feed a circuit breaker and are retried with full-jitter backoff under the same
+ * idempotency key, so Stripe creates at most one PaymentIntent per key. When the breaker is open or
+ * the queue is full, calls fail at once with {@link PaymentUnavailableException}.
+ * {@code stripe.api.base} points the client at a local stub such as stripe-mock.
+ */
 @Service
 public class PaymentService {
+    private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
+    // Latencies kept for the percentile figures in stats()
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private final String stripeApiKey;
+    private final String stripeApiBase;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final long totalTimeoutMs;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final ThreadPoolExecutor bulkhead;
+    private final CircuitBreaker breaker;
 
-    @Value("${stripe.api.key}")
-    private String stripeApiKey;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder declined = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private long latencyCount;
+
+    public PaymentService(@Value("${stripe.api.key}") String stripeApiKey,
+                          @Value("${stripe.api.base:}") String stripeApiBase,
+                          @Value("${stripe.bulkhead.threads:8}") int threads,
+                          @Value("${stripe.bulkhead.queue:16}") int queue,
+                          @Value("${stripe.timeout.connect-ms:2000}") int connectTimeoutMs,
+                          @Value("${stripe.timeout.read-ms:5000}") int readTimeoutMs,
+                          @Value("${stripe.timeout.total-ms:12000}") long totalTimeoutMs,
+                          @Value("${stripe.retry.max-attempts:3}") int maxAttempts,
+                          @Value("${stripe.retry.base-delay-ms:200}") long baseDelayMs,
+                          @Value("${stripe.retry.max-delay-ms:2000}") long maxDelayMs,
+                          @Value("${stripe.breaker.window:20}") int breakerWindow,
+                          @Value("${stripe.breaker.minimum-calls:10}") int breakerMinimumCalls,
+                          @Value("${stripe.breaker.failure-rate:0.5}") double breakerFailureRate,
+                          @Value("${stripe.breaker.open-ms:30000}") long breakerOpenMs) {
+        this.stripeApiKey = stripeApiKey;
+        this.stripeApiBase = stripeApiBase;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.totalTimeoutMs = totalTimeoutMs;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        AtomicInteger counter = new AtomicInteger();
+        this.bulkhead = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue),
+                r -> {
+                    Thread t = new Thread(r, "stripe-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.breaker = new CircuitBreaker(breakerWindow, breakerMinimumCalls, breakerFailureRate, breakerOpenMs);
+    }
 
     @PostConstruct
     public void init() {
         Stripe.apiKey = stripeApiKey;
+        if (!stripeApiBase.isBlank()) {
+            Stripe.overrideApiBase(stripeApiBase);
+            log.info("Stripe API calls go to {}", stripeApiBase);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkhead.shutdownNow();
     }
 
-    public String createPaymentIntent(Double amount, String currency) throws StripeException {
+    /**
+     * Creates a PaymentIntent for {@code amountMinor} (the currency's minor unit). Retries and the
+     * eventual result all use {@code idempotencyKey}, so a repeated key yields the same intent.
+     */
+    public CompletableFuture<PaymentIntent> createPaymentIntent(long amountMinor, String currency, String idempotencyKey,
+                                                                Map<String, String> metadata) {
         PaymentIntentCreateParams params =
             PaymentIntentCreateParams.builder()
-                .setAmount((long)(amount * 100)) // Stripe expects amount in cents
+                .setAmount(amountMinor)
                 .setCurrency(currency)
+                .putAllMetadata(metadata)
                 .setAutomaticPaymentMethods(
                   PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
                     .setEnabled(true)
                     .build()
                 )
                 .build();
+        return call(options -> PaymentIntent.create(params, options), idempotencyKey);
+    }
+
+    public CompletableFuture<PaymentIntent> retrievePaymentIntent(String intentId) {
+        return call(options -> PaymentIntent.retrieve(intentId, options), null);
+    }
+
+    // Cancels an intent that has been superseded, so a checkout page still holding its client secret cannot pay it
+    public CompletableFuture<PaymentIntent> cancelPaymentIntent(String intentId) {
+        return call(options -> PaymentIntent.retrieve(intentId, options).cancel(Map.of(), options), null);
+    }
+
+    // Connection errors, rate limiting, 5xx and timeouts say the provider is unwell; anything else is the request
+    public static boolean isProviderFailure(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof TimeoutException || cause instanceof ApiConnectionException
+                || cause instanceof RateLimitException || cause instanceof ApiException) {
+            return true;
+        }
+        return cause instanceof StripeException stripe && stripe.getStatusCode() != null && stripe.getStatusCode() >= 500;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("calls", calls.sum());
+        stats.put("succeeded", succeeded.sum());
+        stats.put("declined", declined.sum());
+        stats.put("failed", failed.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("shortCircuited", shortCircuited.sum());
+        stats.put("retries", retries.sum());
+        stats.put("activeThreads", bulkhead.getActiveCount());
+        stats.put("maxThreads", bulkhead.getMaximumPoolSize());
+        stats.put("queued", bulkhead.getQueue().size());
+        stats.put("queueCapacity", bulkhead.getQueue().size() + bulkhead.getQueue().remainingCapacity());
+        long[] sample;
+        synchronized (latencies) {
+            sample = Arrays.copyOf(latencies, (int) Math.min(latencyCount, LATENCY_SAMPLES));
+        }
+        Arrays.sort(sample);
+        stats.put("latencyP50Ms", percentile(sample, 0.50));
+        stats.put("latencyP99Ms", percentile(sample, 0.99));
+        stats.put("circuitBreaker", breaker.stats());
+        return stats;
+    }
+
+    @FunctionalInterface
+    private interface StripeCall<T> {
+        T call(RequestOptions options) throws StripeException;
+    }
+
+    private <T> CompletableFuture<T> call(StripeCall<T> stripeCall, String idempotencyKey) {
+        calls.increment();
+        if (!breaker.tryAcquire()) {
+            shortCircuited.increment();
+            return CompletableFuture.failedFuture(new PaymentUnavailableException(
+                    "Payment provider is temporarily unavailable; please try again shortly",
+                    breaker.retryAfterSeconds()));
+        }
+        // Retries are ours, so Stripe's own network retries are off
+        RequestOptions options = RequestOptions.builder()
+                .setIdempotencyKey(idempotencyKey)
+                .setConnectTimeout(connectTimeoutMs)
+                .setReadTimeout(readTimeoutMs)
+                .setMaxNetworkRetries(0)
+                .build();
+
+        long started = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(stripeCall, options, 1, result);
+        return result.orTimeout(totalTimeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((value, ex) -> finish(started, ex));
+    }
+
+    private <T> void attempt(StripeCall<T> stripeCall, RequestOptions options, int attempt,
+                             CompletableFuture<T> result) {
+        try {
+            bulkhead.execute(() -> {
+                if (result.isDone()) {
+                    return; // timed out while queued
+                }
+                try {
+                    result.complete(stripeCall.call(options));
+                } catch (StripeException ex) {
+                    if (attempt < maxAttempts && isProviderFailure(ex) && !result.isDone()) {
+                        retries.increment();
+                        // Waits off the bulkhead, so a backoff never holds a payment thread
+                        CompletableFuture.delayedExecutor(backoff(attempt), TimeUnit.MILLISECONDS)
+                                .execute(() -> attempt(stripeCall, options, attempt + 1, result));
+                    } else {
+                        result.completeExceptionally(ex);
+                    }
+                } catch (RuntimeException ex) {
+                    result.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            result.completeExceptionally(new PaymentUnavailableException(
+                    "Payment provider is busy; please try again shortly", 1));
+        }
+    }
+
+    // Full jitter: a random delay up to the capped exponential backoff
+    private long backoff(int attempt) {
+        long cap = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private void finish(long started, Throwable ex) {
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        synchronized (latencies) {
+            latencies[(int) (latencyCount++ % LATENCY_SAMPLES)] = elapsedMs;
+        }
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause == null) {
+            succeeded.increment();
+            breaker.onSuccess();
+        } else if (cause instanceof PaymentUnavailableException) {
+            breaker.release();
+        } else if (isProviderFailure(cause)) {
+            if (cause instanceof TimeoutException) {
+                timedOut.increment();
+            } else {
+                failed.increment();
+            }
+            breaker.onFailure();
+        } else {
+            // Declined or invalid requests: the provider answered, so it is healthy
+            declined.increment();
+            breaker.onSuccess();
+        }
+    }
 
-        PaymentIntent paymentIntent = PaymentIntent.create(params);
-        return paymentIntent.getClientSecret();
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
     }
 }
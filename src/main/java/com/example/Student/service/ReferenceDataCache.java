@@ -0,0 +1,125 @@
+package com.example.Student.service;
+
+import com.example.Student.model.Department;
+import com.example.Student.model.Subject;
+import com.example.Student.repository.DepartmentRepository;
+import com.example.Student.repository.SubjectRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded caches for departments and subjects, which are read on nearly every request but change
+ * rarely. Entries are detached entities with their department already loaded, so they serialize
+ * and can be assigned to new students, teachers and subjects without another query. Names are
+ * keyed trimmed and lower-cased, matching the case-insensitive collation of the name columns.
+ */
+@Component
+public class ReferenceDataCache {
+    private static final String ALL = "*";
+
+    private final DepartmentRepository departmentRepository;
+    private final SubjectRepository subjectRepository;
+    private final TransactionTemplate ownTransaction;
+
+    private final Cache<String, Department> departmentsByName = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .recordStats()
+            .build();
+    private final Cache<String, List<Department>> departmentLists = Caffeine.newBuilder()
+            .maximumSize(1)
+            .recordStats()
+            .build();
+    private final Cache<String, List<Subject>> subjectLists = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .recordStats()
+            .build();
+
+    public ReferenceDataCache(DepartmentRepository departmentRepository, SubjectRepository subjectRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.departmentRepository = departmentRepository;
+        this.subjectRepository = subjectRepository;
+        // Departments are created in their own transaction, so only committed rows are ever cached and a
+        // lost insert race cannot mark the caller's transaction rollback-only
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public Optional<Department> findDepartment(String name) {
+        String key = key(name);
+        Department cached = departmentsByName.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Department> loaded = departmentRepository.findByName(name.strip());
+        loaded.ifPresent(d -> departmentsByName.put(key, d));
+        return loaded;
+    }
+
+    // Caffeine runs the loader at most once per name at a time, so concurrent callers share one insert
+    public Department getOrCreateDepartment(String name) {
+        String trimmed = name.strip();
+        return departmentsByName.get(key(trimmed), key -> loadOrCreate(trimmed));
+    }
+
+    public List<Department> listDepartments() {
+        return departmentLists.get(ALL, key -> List.copyOf(departmentRepository.findAll()));
+    }
+
+    public List<Subject> listSubjects(String departmentName) {
+        String key = departmentName != null ? key(departmentName) : ALL;
+        return subjectLists.get(key, k -> List.copyOf(departmentName != null
+                ? subjectRepository.findByDepartment_Name(departmentName)
+                : subjectRepository.findAll()));
+    }
+
+    public void invalidateSubjects() {
+        TransactionHooks.afterCommit(subjectLists::invalidateAll);
+    }
+
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("departmentsByName", describe(departmentsByName.stats(), departmentsByName.estimatedSize()));
+        stats.put("departmentLists", describe(departmentLists.stats(), departmentLists.estimatedSize()));
+        stats.put("subjectLists", describe(subjectLists.stats(), subjectLists.estimatedSize()));
+        return stats;
+    }
+
+    private Department loadOrCreate(String name) {
+        try {
+            return ownTransaction.execute(status -> departmentRepository.findByName(name).orElseGet(() -> {
+                Department created = departmentRepository.saveAndFlush(new Department(name));
+                TransactionHooks.afterCommit(departmentLists::invalidateAll);
+                return created;
+            }));
+        } catch (DataIntegrityViolationException ex) {
+            // Another node inserted it first; uk_department_name guarantees there is exactly one row to read
+            return ownTransaction.execute(status -> departmentRepository.findByName(name)).orElseThrow(() -> ex);
+        }
+    }
+
+    private static String key(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, Object> describe(CacheStats stats, long size) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("size", size);
+        view.put("hits", stats.hitCount());
+        view.put("misses", stats.missCount());
+        view.put("hitRate", stats.hitRate());
+        view.put("evictions", stats.evictionCount());
+        return view;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.Student.service;
+
+import com.example.Student.dto.MarksSheetDTO;
+import com.example.Student.dto.MarksSheetReport;
+import com.example.Student.dto.ResultDTO;
+import com.example.Student.model.Result;
+
+import java.util.List;
+
+public interface ResultService {
+    List<Result> getStudentResults(Integer studentId);
+    List<Result> getDepartmentResults(String departmentName);
+    Result saveResult(ResultDTO dto);
+    MarksSheetReport saveMarksSheet(MarksSheetDTO sheet);
+}
@@ -0,0 +1,341 @@
+package com.example.Student.service;
+
+import com.example.Student.config.Workload;
+import com.example.Student.config.WorkloadPool;
+import com.example.Student.dto.ResultStatsView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory per-subject and per-department marks statistics, rebuilt from the results table at
+ * startup and kept current by every result write. Each write retracts the mark it replaces, so
+ * reads never touch the database. After a write commits, the store re-reads the committed marks of
+ * the pairs it touched. The read runs outside the store's lock and is numbered before it starts; only
+ * the fetched rows are applied under the lock, and a pair keeps the value of its highest-numbered
+ * read. That read started after every other one was numbered, so after each one's commit, and hooks
+ * that run out of commit order still leave the last committed value in place. Changes that commit
+ * while {@link #rebuild()} is loading are replayed onto the loaded state before it replaces the live one.
+ */
+@Component
+public class ResultStatisticsStore {
+    private static final Logger log = LoggerFactory.getLogger(ResultStatisticsStore.class);
+    private static final String SELECT_RESULTS = "SELECT r.student_id, r.subject_id, r.marks, sub.name, d.name " +
+            "FROM results r JOIN subjects sub ON sub.id = r.subject_id LEFT JOIN departments d ON d.id = sub.department_id";
+    private static final int REFRESH_CHUNK = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final Object rebuildLock = new Object();
+    // Numbers every read of the results table, taken before the read starts
+    private final AtomicLong reads = new AtomicLong();
+
+    private State state = new State();
+    // Non-null while rebuild() loads; every change applied meanwhile is replayed onto the new state
+    private List<Consumer<State>> replay;
+
+    public ResultStatisticsStore(JdbcTemplate jdbc, NamedParameterJdbcTemplate namedJdbc) {
+        this.jdbc = jdbc;
+        this.namedJdbc = namedJdbc;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @WorkloadPool(Workload.BACKGROUND)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long started = System.currentTimeMillis();
+            synchronized (this) {
+                replay = new ArrayList<>();
+            }
+            State fresh;
+            try {
+                long read = reads.incrementAndGet();
+                fresh = load();
+                fresh.loadedAt = read;
+            } catch (RuntimeException ex) {
+                synchronized (this) {
+                    replay = null;
+                }
+                throw ex;
+            }
+            synchronized (this) {
+                replay.forEach(change -> change.accept(fresh));
+                replay = null;
+                state = fresh;
+            }
+            log.info("Result statistics rebuilt: {} marks across {} subjects in {} ms",
+                    fresh.marks.size(), fresh.subjects.size(), System.currentTimeMillis() - started);
+        }
+    }
+
+    // Store updates must reflect committed data only, so they wait for the surrounding transaction
+    public void record(Integer studentId, Integer subjectId) {
+        recordAll(Set.of(studentId), Set.of(subjectId));
+    }
+
+    // Re-reads every committed (student, subject) pair of the two sets; pairs without a row are retracted
+    public void recordAll(Set<Integer> studentIds, Set<Integer> subjectIds) {
+        if (studentIds.isEmpty() || subjectIds.isEmpty()) {
+            return;
+        }
+        Set<Integer> students = Set.copyOf(studentIds);
+        Set<Integer> subjects = Set.copyOf(subjectIds);
+        TransactionHooks.afterCommit(() -> {
+            long read = reads.incrementAndGet();
+            List<MarkRow> rows = fetch(students, subjects);
+            change(target -> refresh(target, read, students, subjects, rows));
+        });
+    }
+
+    public void removeStudent(Integer studentId) {
+        TransactionHooks.afterCommit(() -> {
+            long read = reads.incrementAndGet();
+            change(target -> {
+                target.removedStudents.put(studentId, read);
+                retractWhere(target, key -> (int) (key >>> 32) == studentId);
+            });
+        });
+    }
+
+    public void removeSubject(Integer subjectId) {
+        TransactionHooks.afterCommit(() -> {
+            long read = reads.incrementAndGet();
+            change(target -> {
+                target.removedSubjects.put(subjectId, read);
+                retractWhere(target, key -> (int) key == subjectId);
+            });
+        });
+    }
+
+    public synchronized List<ResultStatsView> subjectStats(String department) {
+        List<ResultStatsView> views = new ArrayList<>();
+        state.subjects.forEach((id, group) -> {
+            if (department == null || department.equals(group.department)) {
+                views.add(group.stats.view(group.name, group.department, id));
+            }
+        });
+        views.sort(Comparator.comparing(ResultStatsView::getName));
+        return views;
+    }
+
+    public synchronized List<ResultStatsView> departmentStats() {
+        List<ResultStatsView> views = new ArrayList<>();
+        state.departments.forEach((name, stats) -> views.add(stats.view(name, name, null)));
+        views.sort(Comparator.comparing(ResultStatsView::getName));
+        return views;
+    }
+
+    // Recomputes everything from the table and lists the groups whose figures differ from the live store
+    @WorkloadPool(Workload.BACKGROUND)
+    public List<String> reconcile() {
+        State fresh = load();
+        synchronized (this) {
+            return mismatches(fresh);
+        }
+    }
+
+    private List<String> mismatches(State fresh) {
+        List<String> mismatches = new ArrayList<>();
+        for (Integer id : union(state.subjects.keySet(), fresh.subjects.keySet())) {
+            SubjectGroup live = state.subjects.get(id);
+            SubjectGroup recomputed = fresh.subjects.get(id);
+            if (!matches(live != null ? live.stats : null, recomputed != null ? recomputed.stats : null)) {
+                mismatches.add("subject " + id);
+            }
+        }
+        for (String name : union(state.departments.keySet(), fresh.departments.keySet())) {
+            if (!matches(state.departments.get(name), fresh.departments.get(name))) {
+                mismatches.add("department " + name);
+            }
+        }
+        return mismatches;
+    }
+
+    private synchronized void change(Consumer<State> change) {
+        change.accept(state);
+        if (replay != null) {
+            replay.add(change);
+        }
+    }
+
+    // Runs outside the store's lock; the rows are applied by refresh under it
+    private List<MarkRow> fetch(Set<Integer> studentIds, Set<Integer> subjectIds) {
+        List<MarkRow> rows = new ArrayList<>();
+        List<Integer> students = new ArrayList<>(studentIds);
+        for (int from = 0; from < students.size(); from += REFRESH_CHUNK) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("students", students.subList(from, Math.min(from + REFRESH_CHUNK, students.size())))
+                    .addValue("subjects", subjectIds);
+            namedJdbc.query(SELECT_RESULTS + " WHERE r.student_id IN (:students) AND r.subject_id IN (:subjects)",
+                    params, rs -> {
+                        rows.add(new MarkRow(rs.getInt(1), rs.getInt(2), rs.getDouble(3), rs.getString(4),
+                                rs.getString(5)));
+                    });
+        }
+        return rows;
+    }
+
+    // Applies a read's rows and retracts the pairs it found no row for, except where a later read got there first
+    private static void refresh(State target, long read, Set<Integer> studentIds, Set<Integer> subjectIds,
+                                List<MarkRow> rows) {
+        Set<Long> found = new HashSet<>();
+        for (MarkRow row : rows) {
+            long key = key(row.studentId, row.subjectId);
+            found.add(key);
+            if (isLatest(target, read, key)) {
+                target.readAt.put(key, read);
+                apply(target, row.studentId, row.subjectId, row.subjectName, row.department, row.marks);
+            }
+        }
+        // Pairs without a row were deleted; the read is recorded even for pairs not held, so an older read
+        // that still saw the row cannot add it back
+        Set<Long> deleted = new HashSet<>();
+        for (Integer studentId : studentIds) {
+            for (Integer subjectId : subjectIds) {
+                long key = key(studentId, subjectId);
+                if (!found.contains(key) && isLatest(target, read, key)) {
+                    target.readAt.put(key, read);
+                    if (target.marks.containsKey(key)) {
+                        deleted.add(key);
+                    }
+                }
+            }
+        }
+        if (!deleted.isEmpty()) {
+            retractWhere(target, deleted::contains);
+        }
+    }
+
+    private static boolean isLatest(State target, long read, long key) {
+        return read > target.readAt.getOrDefault(key, target.loadedAt)
+                && read > target.removedStudents.getOrDefault((int) (key >>> 32), 0L)
+                && read > target.removedSubjects.getOrDefault((int) key, 0L);
+    }
+
+    private static void apply(State target, int studentId, int subjectId, String subjectName, String department,
+                              double marks) {
+        long key = key(studentId, subjectId);
+        Double previous = target.marks.put(key, marks);
+        SubjectGroup group = target.subjects.computeIfAbsent(subjectId,
+                id -> new SubjectGroup(subjectName, department));
+        RunningStats deptStats = target.departments.computeIfAbsent(deptKey(group.department), d -> new RunningStats());
+        if (previous != null) {
+            group.stats.remove(previous);
+            deptStats.remove(previous);
+        }
+        group.stats.add(marks);
+        deptStats.add(marks);
+    }
+
+    private static void retractWhere(State target, LongPredicate matches) {
+        target.marks.entrySet().removeIf(entry -> {
+            long key = entry.getKey();
+            if (!matches.test(key)) {
+                return false;
+            }
+            SubjectGroup group = target.subjects.get((int) key);
+            if (group != null) {
+                group.stats.remove(entry.getValue());
+                RunningStats deptStats = target.departments.get(deptKey(group.department));
+                if (deptStats != null) {
+                    deptStats.remove(entry.getValue());
+                }
+            }
+            return true;
+        });
+        target.subjects.values().removeIf(group -> group.stats.getCount() == 0);
+        target.departments.values().removeIf(stats -> stats.getCount() == 0);
+    }
+
+    private State load() {
+        State fresh = new State();
+        jdbc.query(SELECT_RESULTS, rs -> {
+            int subjectId = rs.getInt(2);
+            double marks = rs.getDouble(3);
+            String subjectName = rs.getString(4);
+            String department = rs.getString(5);
+            fresh.marks.put(key(rs.getInt(1), subjectId), marks);
+            SubjectGroup group = fresh.subjects.computeIfAbsent(subjectId,
+                    id -> new SubjectGroup(subjectName, department));
+            group.stats.add(marks);
+            fresh.departments.computeIfAbsent(deptKey(group.department), d -> new RunningStats()).add(marks);
+        });
+        return fresh;
+    }
+
+    private static boolean matches(RunningStats a, RunningStats b) {
+        if (a == null || b == null) {
+            return (a == null || a.getCount() == 0) && (b == null || b.getCount() == 0);
+        }
+        return a.sameAs(b);
+    }
+
+    private static <T> Set<T> union(Set<T> a, Set<T> b) {
+        Set<T> all = new HashSet<>(a);
+        all.addAll(b);
+        return all;
+    }
+
+    private static long key(int studentId, int subjectId) {
+        return ((long) studentId << 32) | (subjectId & 0xffffffffL);
+    }
+
+    private static String deptKey(String department) {
+        return department != null ? department : "Unassigned";
+    }
+
+    private static class SubjectGroup {
+        final String name;
+        final String department;
+        final RunningStats stats = new RunningStats();
+
+        SubjectGroup(String name, String department) {
+            this.name = name;
+            this.department = department;
+        }
+    }
+
+    private static class MarkRow {
+        final int studentId;
+        final int subjectId;
+        final double marks;
+        final String subjectName;
+        final String department;
+
+        MarkRow(int studentId, int subjectId, double marks, String subjectName, String department) {
+            this.studentId = studentId;
+            this.subjectId = subjectId;
+            this.marks = marks;
+            this.subjectName = subjectName;
+            this.department = department;
+        }
+    }
+
+    private static class State {
+        final Map<Long, Double> marks = new HashMap<>();
+        // Number of the read that last set or retracted each pair, and of the removal of each student and subject
+        final Map<Long, Long> readAt = new HashMap<>();
+        final Map<Integer, Long> removedStudents = new HashMap<>();
+        final Map<Integer, Long> removedSubjects = new HashMap<>();
+        // Number of the load this state was built from; pairs with no readAt entry are as of that read
+        long loadedAt;
+        final Map<Integer, SubjectGroup> subjects = new HashMap<>();
+        final Map<String, RunningStats> departments = new HashMap<>();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.Student.service;
+
+import com.example.Student.dto.ResultStatsView;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running marks statistics that support both adding and retracting a value.
+ * <p>
+ * Sums are kept as exact decimals so the figures match a fresh recomputation no matter the
+ * order of updates. Instead of an approximate sketch, quantiles come from a count per distinct
+ * mark: marks are bounded to 0-100, so the map stays small, merges by adding counts, and its
+ * median/p90 are exact.
+ */
+public class RunningStats {
+    private long count;
+    private BigDecimal sum = BigDecimal.ZERO;
+    private BigDecimal sumOfSquares = BigDecimal.ZERO;
+    private final TreeMap<Double, Long> distribution = new TreeMap<>();
+    private ResultStatsView snapshot;
+
+    public void add(double value) {
+        BigDecimal v = new BigDecimal(value);
+        count++;
+        sum = sum.add(v);
+        sumOfSquares = sumOfSquares.add(v.multiply(v));
+        distribution.merge(value, 1L, Long::sum);
+        snapshot = null;
+    }
+
+    public void remove(double value) {
+        Long n = distribution.get(value);
+        if (n == null) {
+            return;
+        }
+        if (n == 1) {
+            distribution.remove(value);
+        } else {
+            distribution.put(value, n - 1);
+        }
+        BigDecimal v = new BigDecimal(value);
+        count--;
+        sum = sum.subtract(v);
+        sumOfSquares = sumOfSquares.subtract(v.multiply(v));
+        snapshot = null;
+    }
+
+    public void merge(RunningStats other) {
+        count += other.count;
+        sum = sum.add(other.sum);
+        sumOfSquares = sumOfSquares.add(other.sumOfSquares);
+        other.distribution.forEach((value, n) -> distribution.merge(value, n, Long::sum));
+        snapshot = null;
+    }
+
+    public long getCount() { return count; }
+
+    public boolean sameAs(RunningStats other) {
+        return count == other.count
+                && sum.compareTo(other.sum) == 0
+                && sumOfSquares.compareTo(other.sumOfSquares) == 0
+                && distribution.equals(other.distribution);
+    }
+
+    // Rendered views are memoized until the next change, so repeated reads cost nothing
+    public ResultStatsView view(String name, String department, Integer subjectId) {
+        ResultStatsView current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        if (count == 0) {
+            current = new ResultStatsView(name, department, subjectId, 0, null, null, null, null, null, null);
+        } else {
+            BigDecimal n = BigDecimal.valueOf(count);
+            double mean = sum.divide(n, MathContext.DECIMAL64).doubleValue();
+            double variance = sumOfSquares.divide(n, MathContext.DECIMAL64)
+                    .subtract(sum.divide(n, MathContext.DECIMAL64).pow(2))
+                    .doubleValue();
+            current = new ResultStatsView(name, department, subjectId, count,
+                    round(mean), round(Math.sqrt(Math.max(variance, 0))),
+                    distribution.firstKey(), distribution.lastKey(),
+                    quantile(0.5), quantile(0.9));
+        }
+        snapshot = current;
+        return current;
+    }
+
+    // Nearest-rank quantile over the exact distribution
+    private Double quantile(double q) {
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (Map.Entry<Double, Long> entry : distribution.entrySet()) {
+            seen += entry.getValue();
+            if (seen >= rank) {
+                return entry.getKey();
+            }
+        }
+        return distribution.lastKey();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
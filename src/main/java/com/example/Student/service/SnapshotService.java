@@ -0,0 +1,506 @@
+package com.example.Student.service;
+
+import com.example.Student.config.Workload;
+import com.example.Student.config.WorkloadPool;
+import com.example.Student.model.Attendance;
+import com.example.Student.model.Grade;
+import com.example.Student.repository.AttendanceColdStore;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Nightly columnar snapshots of results, fees and attendance as Arrow IPC files, which analysts can
+ * memory-map. Department, subject, grade and status columns are dictionary-encoded. Each run only
+ * writes rows past the previous run's watermark: the highest id for results and fees, the latest
+ * closed day for attendance. Edits to rows already snapshotted are only picked up by a full run,
+ * which rewrites each table into one file and removes its older files. A table's watermark is saved
+ * as soon as its file is in place, so a run that fails on a later table never writes it again.
+ */
+@Component
+@WorkloadPool(Workload.BACKGROUND)
+public class SnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotService.class);
+    private static final int BATCH_ROWS = 65_536;
+    private static final String SUFFIX = ".arrow";
+    private static final String MANIFEST = "manifest.properties";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final long DEPARTMENT_DICTIONARY = 1;
+    private static final long SUBJECT_DICTIONARY = 2;
+    private static final long STATUS_DICTIONARY = 3;
+    private static final long GRADE_DICTIONARY = 4;
+
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate streamingJdbc;
+    private final AttendanceColdStore coldStore;
+    private final Path directory;
+
+    public SnapshotService(JdbcTemplate jdbc, DataSource dataSource, AttendanceColdStore coldStore,
+                           @Value("${snapshot.dir:data/snapshots}") String directory) {
+        this.jdbc = jdbc;
+        this.streamingJdbc = new JdbcTemplate(dataSource);
+        this.streamingJdbc.setFetchSize(Integer.MIN_VALUE);
+        this.coldStore = coldStore;
+        this.directory = Path.of(directory);
+    }
+
+    @Scheduled(cron = "${snapshot.cron:0 30 2 * * *}")
+    public void scheduledSnapshot() {
+        try {
+            snapshot(false);
+        } catch (RuntimeException ex) {
+            log.error("Scheduled snapshot failed", ex);
+        }
+    }
+
+    // Returns the files written by this run
+    public synchronized List<Map<String, Object>> snapshot(boolean full) {
+        try {
+            Files.createDirectories(directory);
+            Properties manifest = loadManifest();
+            String stamp = LocalDateTime.now().format(STAMP) + (full ? "-full" : "");
+            List<Map<String, Object>> written = new ArrayList<>();
+            snapshotResults(manifest, stamp, full, written);
+            snapshotFees(manifest, stamp, full, written);
+            snapshotAttendance(manifest, stamp, full, written);
+            return written;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Snapshot failed", ex);
+        }
+    }
+
+    public List<Map<String, Object>> list() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Map<String, Object>> listed = new ArrayList<>();
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).sorted().toList()) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("name", file.getFileName().toString());
+                entry.put("bytes", Files.size(file));
+                entry.put("modified", Files.getLastModifiedTime(file).toInstant());
+                listed.add(entry);
+            }
+            return listed;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Resolves a listed snapshot by name; anything that is not a plain snapshot file name is refused
+    public Path resolve(String name) {
+        if (!name.endsWith(SUFFIX) || name.contains("/") || name.contains("\\") || name.startsWith(".")) {
+            return null;
+        }
+        Path file = directory.resolve(name);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    private void snapshotResults(Properties manifest, String stamp, boolean full, List<Map<String, Object>> written)
+            throws IOException {
+        long after = full ? 0 : Long.parseLong(manifest.getProperty("results.maxId", "0"));
+        Map<Integer, Integer> departments = new HashMap<>();
+        List<String> departmentNames = dictionary("SELECT id, name FROM departments ORDER BY id", departments);
+        Map<Integer, Integer> subjects = new HashMap<>();
+        List<String> subjectNames = dictionary("SELECT id, name FROM subjects ORDER BY id", subjects);
+        List<String> grades = new ArrayList<>();
+        for (Grade grade : Grade.values()) {
+            grades.add(grade.name());
+        }
+
+        Path file = directory.resolve("results-" + stamp + SUFFIX);
+        long[] maxId = {after};
+        long rows;
+        try (ArrowFile out = new ArrowFile(file)) {
+            out.dictionary(DEPARTMENT_DICTIONARY, "department", departmentNames);
+            out.dictionary(SUBJECT_DICTIONARY, "subject", subjectNames);
+            out.dictionary(GRADE_DICTIONARY, "grade", grades);
+            out.start(List.of(
+                    ArrowFile.intField("id"),
+                    ArrowFile.intField("student_id"),
+                    ArrowFile.encodedField("department", DEPARTMENT_DICTIONARY),
+                    ArrowFile.encodedField("subject", SUBJECT_DICTIONARY),
+                    ArrowFile.doubleField("marks"),
+                    ArrowFile.encodedField("grade", GRADE_DICTIONARY)));
+            streamingJdbc.query("SELECT r.id, r.student_id, s.department_id, r.subject_id, r.marks FROM results r " +
+                    "JOIN students s ON s.id = r.student_id WHERE r.id > ? ORDER BY r.id", rs -> {
+                int row = out.nextRow();
+                out.setInt(0, row, rs.getInt(1));
+                out.setInt(1, row, rs.getInt(2));
+                out.setInt(2, row, departments.get(integer(rs, 3)));
+                out.setInt(3, row, subjects.get(integer(rs, 4)));
+                double marks = rs.getDouble(5);
+                out.setDouble(4, row, rs.wasNull() ? null : marks);
+                out.setInt(5, row, rs.wasNull() ? null : Grade.fromMarks(marks).ordinal());
+                maxId[0] = rs.getInt(1);
+            }, after);
+            rows = out.finish();
+        }
+        finishTable("results", file, rows, full, stamp, written);
+        manifest.setProperty("results.maxId", Long.toString(maxId[0]));
+        saveManifest(manifest);
+    }
+
+    private void snapshotFees(Properties manifest, String stamp, boolean full, List<Map<String, Object>> written)
+            throws IOException {
+        long after = full ? 0 : Long.parseLong(manifest.getProperty("fees.maxId", "0"));
+        Map<Integer, Integer> departments = new HashMap<>();
+        List<String> departmentNames = dictionary("SELECT id, name FROM departments ORDER BY id", departments);
+        List<String> statuses = jdbc.queryForList("SELECT DISTINCT status FROM fees WHERE status IS NOT NULL ORDER BY status",
+                String.class);
+        Map<String, Integer> statusIndex = new HashMap<>();
+        for (int i = 0; i < statuses.size(); i++) {
+            statusIndex.put(statuses.get(i), i);
+        }
+
+        Path file = directory.resolve("fees-" + stamp + SUFFIX);
+        long[] maxId = {after};
+        long rows;
+        try (ArrowFile out = new ArrowFile(file)) {
+            out.dictionary(DEPARTMENT_DICTIONARY, "department", departmentNames);
+            out.dictionary(STATUS_DICTIONARY, "status", statuses);
+            out.start(List.of(
+                    ArrowFile.intField("id"),
+                    ArrowFile.intField("student_id"),
+                    ArrowFile.encodedField("department", DEPARTMENT_DICTIONARY),
+                    ArrowFile.doubleField("amount"),
+                    ArrowFile.encodedField("status", STATUS_DICTIONARY),
+                    ArrowFile.dateField("due_date"),
+                    ArrowFile.dateField("payment_date")));
+            // Only statuses that existed when the dictionary was read are snapshotted this run
+            streamingJdbc.query("SELECT f.id, f.student_id, s.department_id, f.amount, f.status, f.due_date, " +
+                    "f.payment_date FROM fees f JOIN students s ON s.id = f.student_id WHERE f.id > ? ORDER BY f.id", rs -> {
+                int row = out.nextRow();
+                out.setInt(0, row, rs.getInt(1));
+                out.setInt(1, row, rs.getInt(2));
+                out.setInt(2, row, departments.get(integer(rs, 3)));
+                double amount = rs.getDouble(4);
+                out.setDouble(3, row, rs.wasNull() ? null : amount);
+                out.setInt(4, row, statusIndex.get(rs.getString(5)));
+                out.setDate(5, row, date(rs, 6));
+                out.setDate(6, row, date(rs, 7));
+                maxId[0] = rs.getInt(1);
+            }, after);
+            rows = out.finish();
+        }
+        finishTable("fees", file, rows, full, stamp, written);
+        manifest.setProperty("fees.maxId", Long.toString(maxId[0]));
+        saveManifest(manifest);
+    }
+
+    // Attendance is taken up to yesterday, since today's marks may still change
+    private void snapshotAttendance(Properties manifest, String stamp, boolean full, List<Map<String, Object>> written)
+            throws IOException {
+        LocalDate after = full ? AttendanceColdStore.NOTHING_ARCHIVED.minusDays(1)
+                : LocalDate.parse(manifest.getProperty("attendance.maxDate",
+                AttendanceColdStore.NOTHING_ARCHIVED.minusDays(1).toString()));
+        LocalDate until = LocalDate.now().minusDays(1);
+        if (!until.isAfter(after)) {
+            return;
+        }
+        Map<Integer, Integer> departments = new HashMap<>();
+        List<String> departmentNames = dictionary("SELECT id, name FROM departments ORDER BY id", departments);
+        List<String> statuses = List.of(Attendance.PRESENT, Attendance.ABSENT, Attendance.LATE);
+        // A NULL or unrecognised status is written as a null index rather than failing the run
+        Map<String, Integer> statusIndex = new HashMap<>();
+        for (int i = 0; i < statuses.size(); i++) {
+            statusIndex.put(statuses.get(i), i);
+        }
+
+        Path file = directory.resolve("attendance-" + stamp + SUFFIX);
+        long rows;
+        try (ArrowFile out = new ArrowFile(file)) {
+            out.dictionary(DEPARTMENT_DICTIONARY, "department", departmentNames);
+            out.dictionary(STATUS_DICTIONARY, "status", statuses);
+            out.start(List.of(
+                    ArrowFile.intField("student_id"),
+                    ArrowFile.encodedField("department", DEPARTMENT_DICTIONARY),
+                    ArrowFile.dateField("date"),
+                    ArrowFile.encodedField("status", STATUS_DICTIONARY)));
+            LocalDate from = after.plusDays(1);
+            if (coldStore.covers(from)) {
+                // Archived rows carry no department, so it is taken from the student's current one
+                Map<Integer, Integer> studentDepartments = new HashMap<>();
+                streamingJdbc.query("SELECT id, department_id FROM students", rs -> {
+                    studentDepartments.put(rs.getInt(1), integer(rs, 2));
+                });
+                coldStore.forEach((studentId, date, status) -> {
+                    if (studentDepartments.containsKey(studentId) && !date.isBefore(from) && !date.isAfter(until)) {
+                        int row = out.nextRow();
+                        out.setInt(0, row, studentId);
+                        out.setInt(1, row, departments.get(studentDepartments.get(studentId)));
+                        out.setDate(2, row, date);
+                        out.setInt(3, row, statusIndex.get(status));
+                    }
+                });
+            }
+            if (!coldStore.covers(until)) {
+                LocalDate hotFrom = coldStore.covers(from) ? coldStore.horizon() : from;
+                streamingJdbc.query("SELECT a.student_id, s.department_id, a.date, a.status FROM attendance a " +
+                        "JOIN students s ON s.id = a.student_id WHERE a.date BETWEEN ? AND ? ORDER BY a.date", rs -> {
+                    int row = out.nextRow();
+                    out.setInt(0, row, rs.getInt(1));
+                    out.setInt(1, row, departments.get(integer(rs, 2)));
+                    out.setDate(2, row, date(rs, 3));
+                    out.setInt(3, row, statusIndex.get(Attendance.normalizeStatus(rs.getString(4))));
+                }, Date.valueOf(hotFrom), Date.valueOf(until));
+            }
+            rows = out.finish();
+        }
+        finishTable("attendance", file, rows, full, stamp, written);
+        manifest.setProperty("attendance.maxDate", until.toString());
+        saveManifest(manifest);
+    }
+
+    // Empty incremental files are dropped; a full run replaces every older file of the table
+    private void finishTable(String table, Path file, long rows, boolean full, String stamp,
+                             List<Map<String, Object>> written) throws IOException {
+        if (rows == 0 && !full) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        if (full) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path old : files.filter(f -> f.getFileName().toString().startsWith(table + "-")
+                        && f.getFileName().toString().endsWith(SUFFIX) && !f.equals(file)).toList()) {
+                    Files.deleteIfExists(old);
+                }
+            }
+        }
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("table", table);
+        entry.put("name", file.getFileName().toString());
+        entry.put("rows", rows);
+        entry.put("bytes", Files.size(file));
+        written.add(entry);
+        log.info("Snapshot {} written: {} rows, {} bytes", file.getFileName(), rows, Files.size(file));
+    }
+
+    // Dictionary values in id order; index maps each id to its position in the dictionary
+    private List<String> dictionary(String sql, Map<Integer, Integer> index) {
+        List<String> values = new ArrayList<>();
+        jdbc.query(sql, rs -> {
+            index.put(rs.getInt(1), values.size());
+            values.add(rs.getString(2));
+        });
+        return values;
+    }
+
+    private Properties loadManifest() throws IOException {
+        Properties manifest = new Properties();
+        Path file = directory.resolve(MANIFEST);
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                manifest.load(in);
+            }
+        }
+        return manifest;
+    }
+
+    private void saveManifest(Properties manifest) throws IOException {
+        Path temp = directory.resolve(MANIFEST + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            manifest.store(out, "Snapshot watermarks");
+        }
+        Files.move(temp, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Integer integer(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static LocalDate date(ResultSet rs, int column) throws SQLException {
+        Date value = rs.getDate(column);
+        return value == null ? null : value.toLocalDate();
+    }
+
+    /**
+     * One Arrow IPC file written in record batches of {@link #BATCH_ROWS}. Dictionaries are registered
+     * before {@link #start}, since the file format writes them once ahead of the first batch.
+     * Written beside its final name and moved into place on {@link #finish}.
+     */
+    private static final class ArrowFile implements AutoCloseable {
+        private final Path target;
+        private final Path temp;
+        private final BufferAllocator allocator = new RootAllocator();
+        private final DictionaryProvider.MapDictionaryProvider dictionaries = new DictionaryProvider.MapDictionaryProvider();
+        private final List<VarCharVector> dictionaryVectors = new ArrayList<>();
+        private FileOutputStream stream;
+        private VectorSchemaRoot root;
+        private ArrowFileWriter writer;
+        private List<FieldVector> vectors;
+        private int batchRows;
+        private long totalRows;
+
+        ArrowFile(Path target) {
+            this.target = target;
+            this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        }
+
+        static Field intField(String name) {
+            return Field.nullable(name, new ArrowType.Int(32, true));
+        }
+
+        static Field doubleField(String name) {
+            return Field.nullable(name, new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE));
+        }
+
+        static Field dateField(String name) {
+            return Field.nullable(name, new ArrowType.Date(DateUnit.DAY));
+        }
+
+        // The column holds int32 indexes into the dictionary registered under the id
+        static Field encodedField(String name, long dictionaryId) {
+            DictionaryEncoding encoding = new DictionaryEncoding(dictionaryId, false, new ArrowType.Int(32, true));
+            return new Field(name, new FieldType(true, new ArrowType.Int(32, true), encoding), null);
+        }
+
+        void dictionary(long id, String name, List<String> values) {
+            VarCharVector vector = new VarCharVector(name + "_dictionary", allocator);
+            vector.allocateNew();
+            for (int i = 0; i < values.size(); i++) {
+                vector.setSafe(i, values.get(i).getBytes(StandardCharsets.UTF_8));
+            }
+            vector.setValueCount(values.size());
+            dictionaryVectors.add(vector);
+            dictionaries.put(new Dictionary(vector, new DictionaryEncoding(id, false, new ArrowType.Int(32, true))));
+        }
+
+        void start(List<Field> fields) throws IOException {
+            stream = new FileOutputStream(temp.toFile());
+            root = VectorSchemaRoot.create(new Schema(fields), allocator);
+            root.allocateNew();
+            vectors = root.getFieldVectors();
+            writer = new ArrowFileWriter(root, dictionaries, stream.getChannel());
+            writer.start();
+        }
+
+        // Index of the next row in the current batch; writes out the batch first once it is full
+        int nextRow() {
+            if (batchRows == BATCH_ROWS) {
+                flushBatch();
+            }
+            totalRows++;
+            return batchRows++;
+        }
+
+        void setInt(int column, int row, Integer value) {
+            IntVector vector = (IntVector) vectors.get(column);
+            if (value == null) {
+                vector.setNull(row);
+            } else {
+                vector.setSafe(row, value);
+            }
+        }
+
+        void setDouble(int column, int row, Double value) {
+            Float8Vector vector = (Float8Vector) vectors.get(column);
+            if (value == null) {
+                vector.setNull(row);
+            } else {
+                vector.setSafe(row, value);
+            }
+        }
+
+        void setDate(int column, int row, LocalDate value) {
+            DateDayVector vector = (DateDayVector) vectors.get(column);
+            if (value == null) {
+                vector.setNull(row);
+            } else {
+                vector.setSafe(row, (int) value.toEpochDay());
+            }
+        }
+
+        long finish() throws IOException {
+            if (batchRows > 0) {
+                flushBatch();
+            }
+            writer.end();
+            stream.getFD().sync();
+            // Closing the writer closes the file's channel and with it the stream
+            writer.close();
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return totalRows;
+        }
+
+        private void flushBatch() {
+            try {
+                for (FieldVector vector : vectors) {
+                    vector.setValueCount(batchRows);
+                }
+                root.setRowCount(batchRows);
+                writer.writeBatch();
+                for (FieldVector vector : vectors) {
+                    vector.reset();
+                }
+                batchRows = 0;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+            if (stream != null) {
+                stream.close();
+            }
+            if (root != null) {
+                root.close();
+            }
+            dictionaryVectors.forEach(VarCharVector::close);
+            allocator.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.Student.service;
+
+import com.example.Student.dto.ImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface StudentImportService {
+    enum Format { CSV, NDJSON }
+
+    ImportReport importStudents(InputStream body, Format format) throws IOException;
+}
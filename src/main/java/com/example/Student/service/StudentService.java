@@ -1,13 +1,13 @@
 package com.example.Student.service;
 
+import com.example.Student.dto.CursorPage;
 import com.example.Student.model.Student;
-import java.util.List;
 import java.util.Optional;
 
 public interface StudentService {
     Student createStudent(Student student);
-    List<Student> getAllStudents();
-    List<Student> getStudentsByDepartment(String department);
+    CursorPage<Student> findStudents(String department, Double minCgpa, Double maxCgpa, String namePrefix,
+                                     String sort, String cursor, int limit);
     Optional<Student> getStudentById(Integer id);
     Student updateStudent(Integer id, Student student);
     void deleteStudent(Integer id);
@@ -0,0 +1,100 @@
+package com.example.Student.service;
+
+import com.example.Student.dto.TokenClaims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies stateless access tokens of the form {@code payload.signature}, where the
+ * payload is {@code v1|role|userId|expiryEpochSeconds} and the signature is its HMAC-SHA256 under
+ * the shared secret. Any node configured with the same secret can verify a token without touching
+ * the database or BCrypt.
+ */
+@Service
+public class TokenService {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String VERSION = "v1";
+    // HMAC-SHA256 keys shorter than the hash output weaken the signature
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    // Mac instances are not thread-safe; one per thread avoids both locking and re-initialisation
+    private final ThreadLocal<Mac> macs;
+
+    public TokenService(@Value("${auth.token.secret}") String secret,
+                        @Value("${auth.token.ttl-minutes:480}") long ttlMinutes) {
+        byte[] secretBytes = secret == null ? new byte[0] : secret.strip().getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("auth.token.secret (AUTH_TOKEN_SECRET) must be set to at least "
+                    + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String issue(Integer userId, String role, Instant expiresAt) {
+        String payload = VERSION + "|" + role + "|" + userId + "|" + expiresAt.getEpochSecond();
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return encode(payloadBytes) + "." + encode(sign(payloadBytes));
+    }
+
+    public Instant nextExpiry() {
+        return Instant.now().plus(ttl);
+    }
+
+    public Optional<TokenClaims> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return Optional.empty();
+        }
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payloadBytes = decoder.decode(token.substring(0, dot));
+            byte[] signature = decoder.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(payloadBytes))) {
+                return Optional.empty();
+            }
+            String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                return Optional.empty();
+            }
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(parts[3]));
+            if (expiresAt.isBefore(Instant.now())) {
+                return Optional.empty();
+            }
+            return Optional.of(new TokenClaims(Integer.valueOf(parts[2]), parts[1], expiresAt));
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", ex);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.Student.service.impl;
+
+import com.example.Student.config.Workload;
+import com.example.Student.config.WorkloadPool;
+import com.example.Student.dto.AnalyticsOverview;
+import com.example.Student.dto.GroupStats;
+import com.example.Student.model.Grade;
+import com.example.Student.service.AnalyticsService;
+import com.example.Student.service.TransactionHooks;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+@Service
+@WorkloadPool(Workload.REPORTING)
+public class AnalyticsServiceImpl implements AnalyticsService {
+    // Same buckets the CGPA distribution chart has always used
+    private static final String[] CGPA_BUCKETS = {"0-2", "2-4", "4-6", "6-8", "8-10"};
+    private static final String DEPARTMENT_CGPA = "departments:cgpa";
+
+    private final JdbcTemplate jdbc;
+    private final Cache cache;
+
+    public AnalyticsServiceImpl(JdbcTemplate jdbc, CacheManager cacheManager) {
+        this.jdbc = jdbc;
+        this.cache = cacheManager.getCache(CACHE);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CACHE, key = "'overview'")
+    public AnalyticsOverview getOverview() {
+        Long students = jdbc.queryForObject("SELECT COUNT(*) FROM students", Long.class);
+        GroupStats cgpa = jdbc.queryForObject(
+                "SELECT 'All', COUNT(s.cgpa), AVG(s.cgpa), MIN(s.cgpa), MAX(s.cgpa)" + cgpaHistogram("s.cgpa") +
+                        " FROM students s",
+                (rs, i) -> mapStats(rs, 2, CGPA_BUCKETS));
+        // A call on this would bypass the caching proxy, so share the department entry through the cache itself
+        List<GroupStats> departments = cache.get(DEPARTMENT_CGPA, this::queryDepartmentCgpaStats);
+        return new AnalyticsOverview(students != null ? students : 0, cgpa, departments);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CACHE, key = "'" + DEPARTMENT_CGPA + "'")
+    public List<GroupStats> getDepartmentCgpaStats() {
+        return queryDepartmentCgpaStats();
+    }
+
+    private List<GroupStats> queryDepartmentCgpaStats() {
+        return jdbc.query(
+                "SELECT COALESCE(d.name, 'Unassigned') AS dept, COUNT(s.cgpa), AVG(s.cgpa), MIN(s.cgpa), MAX(s.cgpa)" +
+                        cgpaHistogram("s.cgpa") +
+                        " FROM students s LEFT JOIN departments d ON d.id = s.department_id" +
+                        " GROUP BY dept ORDER BY dept",
+                (rs, i) -> mapStats(rs, 2, CGPA_BUCKETS));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CACHE, key = "'departments:results'")
+    public List<GroupStats> getDepartmentResultStats() {
+        return jdbc.query(
+                "SELECT COALESCE(d.name, 'Unassigned') AS dept, COUNT(r.id), AVG(r.marks), MIN(r.marks), MAX(r.marks)" +
+                        gradeHistogram("r.marks") +
+                        " FROM results r JOIN subjects sub ON sub.id = r.subject_id" +
+                        " LEFT JOIN departments d ON d.id = sub.department_id" +
+                        " GROUP BY dept ORDER BY dept",
+                (rs, i) -> mapStats(rs, 2, gradeLabels()));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CACHE, key = "'subjects:' + #department")
+    public List<GroupStats> getSubjectResultStats(String department) {
+        String sql = "SELECT sub.name, d.name, sub.id, COUNT(r.id), AVG(r.marks), MIN(r.marks), MAX(r.marks)" +
+                gradeHistogram("r.marks") +
+                " FROM subjects sub LEFT JOIN departments d ON d.id = sub.department_id" +
+                " LEFT JOIN results r ON r.subject_id = sub.id" +
+                (department != null ? " WHERE d.name = ?" : "") +
+                " GROUP BY sub.id, sub.name, d.name ORDER BY d.name, sub.name";
+        Object[] args = department != null ? new Object[]{department} : new Object[0];
+        return jdbc.query(sql, (rs, i) -> {
+            GroupStats stats = mapStats(rs, 4, gradeLabels());
+            stats.setDepartment(rs.getString(2));
+            stats.setSubjectId(rs.getInt(3));
+            return stats;
+        }, args);
+    }
+
+    // Deferred to commit, so a concurrent reader cannot re-cache figures computed from data about to change
+    @Override
+    public void invalidate() {
+        TransactionHooks.afterCommit(cache::clear);
+    }
+
+    // Expects name in column 1 and count, mean, min, max followed by histogram columns from countColumn on
+    private static GroupStats mapStats(ResultSet rs, int countColumn, String[] labels) throws SQLException {
+        GroupStats stats = new GroupStats();
+        stats.setName(rs.getString(1));
+        stats.setCount(rs.getLong(countColumn));
+        stats.setMean(round(nullableDouble(rs, countColumn + 1)));
+        stats.setMin(nullableDouble(rs, countColumn + 2));
+        stats.setMax(nullableDouble(rs, countColumn + 3));
+        for (int i = 0; i < labels.length; i++) {
+            stats.getHistogram().put(labels[i], rs.getLong(countColumn + 4 + i));
+        }
+        return stats;
+    }
+
+    private static Double nullableDouble(ResultSet rs, int column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Double round(Double value) {
+        return value != null ? Math.round(value * 100.0) / 100.0 : null;
+    }
+
+    private static String cgpaHistogram(String column) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < CGPA_BUCKETS.length; i++) {
+            sql.append(", SUM(CASE WHEN ").append(column).append(" >= ").append(i * 2);
+            if (i < CGPA_BUCKETS.length - 1) {
+                sql.append(" AND ").append(column).append(" < ").append(i * 2 + 2);
+            }
+            sql.append(" THEN 1 ELSE 0 END)");
+        }
+        return sql.toString();
+    }
+
+    private static String gradeHistogram(String column) {
+        StringBuilder sql = new StringBuilder();
+        Grade[] grades = Grade.values();
+        for (int i = 0; i < grades.length; i++) {
+            sql.append(", SUM(CASE WHEN ").append(column).append(" >= ").append(grades[i].getMinMarks());
+            if (i > 0) {
+                sql.append(" AND ").append(column).append(" < ").append(grades[i - 1].getMinMarks());
+            }
+            sql.append(" THEN 1 ELSE 0 END)");
+        }
+        return sql.toString();
+    }
+
+    private static String[] gradeLabels() {
+        Grade[] grades = Grade.values();
+        String[] labels = new String[grades.length];
+        for (int i = 0; i < grades.length; i++) {
+            labels[i] = grades[i].name();
+        }
+        return labels;
+    }
+}
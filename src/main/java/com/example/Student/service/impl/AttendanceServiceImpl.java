@@ -0,0 +1,146 @@
+package com.example.Student.service.impl;
+
+import com.example.Student.dto.AttendanceSaveReport;
+import com.example.Student.dto.AttendanceSaveReport.Outcome;
+import com.example.Student.model.Attendance;
+import com.example.Student.repository.AttendanceColdStore;
+import com.example.Student.repository.AttendanceRepository;
+import com.example.Student.service.AttendanceBitmapIndex;
+import com.example.Student.service.AttendanceRollups;
+import com.example.Student.service.AttendanceService;
+import com.example.Student.service.AttendanceTermSeal;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class AttendanceServiceImpl implements AttendanceService {
+    // Rows per multi-row INSERT; keeps each statement well under max_allowed_packet
+    private static final int UPSERT_CHUNK = 500;
+
+    private final AttendanceRepository repo;
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final AttendanceBitmapIndex bitmapIndex;
+    private final AttendanceRollups rollups;
+    private final AttendanceColdStore coldStore;
+    private final AttendanceTermSeal termSeal;
+
+    public AttendanceServiceImpl(AttendanceRepository repo, JdbcTemplate jdbc, NamedParameterJdbcTemplate namedJdbc,
+                                 AttendanceBitmapIndex bitmapIndex, AttendanceRollups rollups,
+                                 AttendanceColdStore coldStore, AttendanceTermSeal termSeal) {
+        this.repo = repo;
+        this.jdbc = jdbc;
+        this.namedJdbc = namedJdbc;
+        this.bitmapIndex = bitmapIndex;
+        this.rollups = rollups;
+        this.coldStore = coldStore;
+        this.termSeal = termSeal;
+    }
+
+    @Override
+    public List<Attendance> getAttendanceByDate(LocalDate date) {
+        return repo.findByDate(date);
+    }
+
+    @Override
+    public List<Attendance> getStudentAttendance(Integer studentId) {
+        return repo.findByStudent_Id(studentId);
+    }
+
+    @Override
+    @Transactional
+    public AttendanceSaveReport saveAttendance(LocalDate date, Map<Integer, String> attendanceMap) {
+        // The local seal answers cheaply; the database seal also covers terms another node is archiving
+        if (coldStore.isSealed(date) || termSeal.isSealed(date)) {
+            throw new IllegalArgumentException("Attendance for " + date + " belongs to an archived term");
+        }
+        AttendanceSaveReport report = new AttendanceSaveReport(date);
+        if (attendanceMap == null || attendanceMap.isEmpty()) {
+            return report;
+        }
+
+        // Student id to department id; the key set doubles as the existence check
+        Map<Integer, Integer> departments = loadDepartments(attendanceMap.keySet());
+        Set<Integer> knownIds = departments.keySet();
+        Map<Integer, String> current = loadStatuses(date, knownIds);
+
+        Map<Integer, String> written = new LinkedHashMap<>();
+        attendanceMap.forEach((studentId, rawStatus) -> {
+            String status = Attendance.normalizeStatus(rawStatus);
+            if (!knownIds.contains(studentId)) {
+                report.record(studentId, Outcome.UNKNOWN_STUDENT);
+            } else if (status == null) {
+                report.record(studentId, Outcome.INVALID_STATUS);
+            } else if (status.equals(current.get(studentId))) {
+                report.record(studentId, Outcome.UNCHANGED);
+            } else {
+                report.record(studentId, current.containsKey(studentId) ? Outcome.UPDATED : Outcome.INSERTED);
+                written.put(studentId, status);
+            }
+        });
+
+        List<Object[]> rows = new ArrayList<>(written.size());
+        written.forEach((studentId, status) -> rows.add(new Object[]{studentId, status}));
+
+        for (int from = 0; from < rows.size(); from += UPSERT_CHUNK) {
+            upsert(date, rows.subList(from, Math.min(from + UPSERT_CHUNK, rows.size())));
+        }
+        rollups.apply(date, current, written, departments);
+        bitmapIndex.record(date, written);
+        return report;
+    }
+
+    private Map<Integer, Integer> loadDepartments(Set<Integer> studentIds) {
+        Map<Integer, Integer> departments = new HashMap<>();
+        namedJdbc.query("SELECT id, department_id FROM students WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", studentIds), rs -> {
+                    departments.put(rs.getInt(1), rs.getObject(2, Integer.class));
+                });
+        return departments;
+    }
+
+    private Map<Integer, String> loadStatuses(LocalDate date, Set<Integer> studentIds) {
+        Map<Integer, String> statuses = new HashMap<>();
+        if (studentIds.isEmpty()) {
+            return statuses;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("date", Date.valueOf(date))
+                .addValue("ids", studentIds);
+        // Locked, so a concurrent save of the same rows waits and then computes its rollup deltas from
+        // this one's result; racing first inserts of a row deadlock and one rolls back, leaving no drift
+        namedJdbc.query("SELECT student_id, status FROM attendance WHERE date = :date AND student_id IN (:ids) " +
+                        "FOR UPDATE",
+                params, rs -> {
+                    statuses.put(rs.getInt(1), rs.getString(2));
+                });
+        return statuses;
+    }
+
+    // One multi-row upsert per chunk, keyed on the (student_id, date) unique constraint
+    private void upsert(LocalDate date, List<Object[]> rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO attendance (student_id, date, status) VALUES ");
+        Object[] args = new Object[rows.size() * 3];
+        Date sqlDate = Date.valueOf(date);
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+            args[i * 3] = rows.get(i)[0];
+            args[i * 3 + 1] = sqlDate;
+            args[i * 3 + 2] = rows.get(i)[1];
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE status = VALUES(status)");
+        jdbc.update(sql.toString(), args);
+    }
+}
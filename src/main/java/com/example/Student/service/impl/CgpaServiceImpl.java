@@ -0,0 +1,165 @@
+package com.example.Student.service.impl;
+
+import com.example.Student.config.Workload;
+import com.example.Student.config.WorkloadPool;
+import com.example.Student.dto.CgpaRecomputeReport;
+import com.example.Student.model.Grade;
+import com.example.Student.service.AnalyticsService;
+import com.example.Student.service.CgpaService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Derives CGPA as the mean grade point of a student's results (see {@link Grade}), rounded to two places.
+ */
+@Service
+public class CgpaServiceImpl implements CgpaService {
+    private static final Logger log = LoggerFactory.getLogger(CgpaServiceImpl.class);
+
+    private static final int UPDATE_BATCH = 1000;
+    private static final int FORK_THRESHOLD = 4096;
+    private static final String UPDATE_SQL =
+            "UPDATE students SET cgpa = ? WHERE id = ? AND (cgpa IS NULL OR cgpa <> ?)";
+
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate streamingJdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final AnalyticsService analyticsService;
+
+    public CgpaServiceImpl(DataSource dataSource, JdbcTemplate jdbc, NamedParameterJdbcTemplate namedJdbc,
+                           AnalyticsService analyticsService) {
+        this.jdbc = jdbc;
+        this.namedJdbc = namedJdbc;
+        this.analyticsService = analyticsService;
+        // Integer.MIN_VALUE makes Connector/J stream rows one at a time instead of buffering the result set
+        this.streamingJdbc = new JdbcTemplate(dataSource);
+        this.streamingJdbc.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Override
+    @WorkloadPool(Workload.BACKGROUND)
+    public CgpaRecomputeReport recomputeAll() {
+        long started = System.currentTimeMillis();
+        PointsTable table = new PointsTable();
+        streamingJdbc.query("SELECT student_id, marks FROM results ORDER BY student_id",
+                rs -> {
+                    table.add(rs.getInt(1), rs.getDouble(2));
+                });
+
+        double[] cgpa = new double[table.students];
+        ForkJoinPool.commonPool().invoke(new CgpaTask(table, cgpa, 0, table.students));
+
+        int updated = writeBack(table.studentIds, cgpa, table.students);
+        analyticsService.invalidate();
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("CGPA recomputed for {} students from {} results in {} ms ({} changed)",
+                table.students, table.results, elapsed, updated);
+        return new CgpaRecomputeReport(table.students, table.results, updated, elapsed);
+    }
+
+    @Override
+    public void recomputeStudents(Collection<Integer> studentIds) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        PointsTable table = new PointsTable();
+        namedJdbc.query("SELECT student_id, marks FROM results WHERE student_id IN (:ids) ORDER BY student_id",
+                new MapSqlParameterSource("ids", studentIds), rs -> {
+                    table.add(rs.getInt(1), rs.getDouble(2));
+                });
+        double[] cgpa = new double[table.students];
+        ForkJoinPool.commonPool().invoke(new CgpaTask(table, cgpa, 0, table.students));
+        writeBack(table.studentIds, cgpa, table.students);
+        analyticsService.invalidate();
+    }
+
+    private int writeBack(int[] studentIds, double[] cgpa, int count) {
+        int updated = 0;
+        for (int from = 0; from < count; from += UPDATE_BATCH) {
+            int to = Math.min(from + UPDATE_BATCH, count);
+            List<Object[]> batch = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                batch.add(new Object[]{cgpa[i], studentIds[i], cgpa[i]});
+            }
+            for (int rows : jdbc.batchUpdate(UPDATE_SQL, batch)) {
+                // Rewritten batches report SUCCESS_NO_INFO (-2) per row; only count definite updates
+                if (rows > 0) {
+                    updated += rows;
+                }
+            }
+        }
+        return updated;
+    }
+
+    static double cgpa(double[] marks, int from, int to) {
+        int points = 0;
+        for (int i = from; i < to; i++) {
+            points += Grade.fromMarks(marks[i]).getPoints();
+        }
+        return Math.round(points * 100.0 / (to - from)) / 100.0;
+    }
+
+    // Results laid out flat and grouped by student: student i owns marks[offsets[i] .. offsets[i + 1])
+    private static class PointsTable {
+        int[] studentIds = new int[1024];
+        int[] offsets = new int[1025];
+        double[] marks = new double[8192];
+        int students;
+        long results;
+
+        void add(int studentId, double mark) {
+            if (students == 0 || studentIds[students - 1] != studentId) {
+                if (students == studentIds.length) {
+                    studentIds = Arrays.copyOf(studentIds, students * 2);
+                    offsets = Arrays.copyOf(offsets, students * 2 + 1);
+                }
+                studentIds[students] = studentId;
+                offsets[students] = (int) results;
+                students++;
+            }
+            if (results == marks.length) {
+                marks = Arrays.copyOf(marks, marks.length * 2);
+            }
+            marks[(int) results++] = mark;
+            offsets[students] = (int) results;
+        }
+    }
+
+    private static class CgpaTask extends RecursiveAction {
+        private final PointsTable table;
+        private final double[] out;
+        private final int from;
+        private final int to;
+
+        CgpaTask(PointsTable table, double[] out, int from, int to) {
+            this.table = table;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= FORK_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    out[i] = cgpa(table.marks, table.offsets[i], table.offsets[i + 1]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new CgpaTask(table, out, from, mid), new CgpaTask(table, out, mid, to));
+        }
+    }
+}
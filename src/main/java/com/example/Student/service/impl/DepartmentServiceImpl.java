@@ -1,27 +1,33 @@
 package com.example.Student.service.impl;
 
 import com.example.Student.model.Department;
-import com.example.Student.repository.DepartmentRepository;
 import com.example.Student.service.DepartmentService;
+import com.example.Student.service.ReferenceDataCache;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
 public class DepartmentServiceImpl implements DepartmentService {
-    private final DepartmentRepository repo;
+    private final ReferenceDataCache cache;
 
-    public DepartmentServiceImpl(DepartmentRepository repo) {
-        this.repo = repo;
+    public DepartmentServiceImpl(ReferenceDataCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public List<Department> listAll() {
+        return cache.listDepartments();
     }
 
     @Override
     public Optional<Department> findByName(String name) {
-        return repo.findByName(name);
+        return cache.findDepartment(name);
     }
 
     @Override
     public Department getOrCreateByName(String name) {
-        return repo.findByName(name).orElseGet(() -> repo.save(new Department(name)));
+        return cache.getOrCreateDepartment(name);
     }
 }
@@ -0,0 +1,188 @@
+package com.example.Student.service.impl;
+
+import com.example.Student.config.Workload;
+import com.example.Student.config.WorkloadPool;
+import com.example.Student.model.Grade;
+import com.example.Student.repository.AttendanceColdStore;
+import com.example.Student.service.ExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+@WorkloadPool(Workload.REPORTING)
+public class ExportServiceImpl implements ExportService {
+    // Latest date MySQL's DATE type holds
+    private static final LocalDate END_OF_TIME = LocalDate.of(9999, 12, 31);
+
+    private final JdbcTemplate streamingJdbc;
+    private final AttendanceColdStore coldStore;
+    private final ObjectMapper objectMapper;
+
+    public ExportServiceImpl(DataSource dataSource, AttendanceColdStore coldStore, ObjectMapper objectMapper) {
+        // Integer.MIN_VALUE makes Connector/J stream rows one at a time instead of buffering the result set
+        this.streamingJdbc = new JdbcTemplate(dataSource);
+        this.streamingJdbc.setFetchSize(Integer.MIN_VALUE);
+        this.coldStore = coldStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void exportFees(OutputStream out, Format format, String status) throws IOException {
+        String[] columns = {"id", "studentId", "studentName", "description", "amount", "status",
+                "dueDate", "paymentDate", "transactionId"};
+        try (RowWriter writer = new RowWriter(out, format, columns)) {
+            streamingJdbc.query("SELECT f.id, f.student_id, s.name, f.description, f.amount, f.status, " +
+                    "f.due_date, f.payment_date, f.transaction_id FROM fees f JOIN students s ON s.id = f.student_id " +
+                    "WHERE (? IS NULL OR f.status = ?) ORDER BY f.id", rs -> {
+                writer.row(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getString(4), number(rs, 5),
+                        rs.getString(6), date(rs, 7), date(rs, 8), rs.getString(9));
+            }, status, status);
+        }
+    }
+
+    @Override
+    public void exportResults(OutputStream out, Format format, String department) throws IOException {
+        String[] columns = {"id", "studentId", "studentName", "department", "subjectId", "subject", "marks", "grade"};
+        try (RowWriter writer = new RowWriter(out, format, columns)) {
+            streamingJdbc.query("SELECT r.id, s.id, s.name, d.name, sub.id, sub.name, r.marks FROM results r " +
+                    "JOIN students s ON s.id = r.student_id JOIN subjects sub ON sub.id = r.subject_id " +
+                    "LEFT JOIN departments d ON d.id = s.department_id " +
+                    "WHERE (? IS NULL OR d.name = ?) ORDER BY r.id", rs -> {
+                Double marks = number(rs, 7);
+                writer.row(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getString(4), rs.getInt(5),
+                        rs.getString(6), marks, marks == null ? null : Grade.fromMarks(marks).name());
+            }, department, department);
+        }
+    }
+
+    /**
+     * Archived terms come first, one decoded term at a time, then the table. Student names for
+     * archived rows come from a single id-to-name map, which grows with students, not rows.
+     */
+    @Override
+    public void exportAttendance(OutputStream out, Format format, LocalDate from, LocalDate to) throws IOException {
+        LocalDate start = from != null ? from : AttendanceColdStore.NOTHING_ARCHIVED;
+        LocalDate end = to != null ? to : END_OF_TIME;
+        String[] columns = {"studentId", "studentName", "date", "status"};
+        try (RowWriter writer = new RowWriter(out, format, columns)) {
+            if (coldStore.covers(start)) {
+                Map<Integer, String> names = new HashMap<>();
+                streamingJdbc.query("SELECT id, name FROM students", rs -> {
+                    names.put(rs.getInt(1), rs.getString(2));
+                });
+                coldStore.forEach((studentId, date, status) -> {
+                    String name = names.get(studentId);
+                    if (name != null && !date.isBefore(start) && !date.isAfter(end)) {
+                        writer.row(studentId, name, date, status);
+                    }
+                });
+            }
+            if (!coldStore.covers(end)) {
+                LocalDate hotStart = coldStore.covers(start) ? coldStore.horizon() : start;
+                streamingJdbc.query("SELECT a.student_id, s.name, a.date, a.status FROM attendance a " +
+                        "JOIN students s ON s.id = a.student_id WHERE a.date BETWEEN ? AND ? ORDER BY a.date", rs -> {
+                    writer.row(rs.getInt(1), rs.getString(2), date(rs, 3), rs.getString(4));
+                }, Date.valueOf(hotStart), Date.valueOf(end));
+            }
+        }
+    }
+
+    private static Double number(ResultSet rs, int column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static LocalDate date(ResultSet rs, int column) throws SQLException {
+        Date value = rs.getDate(column);
+        return value == null ? null : value.toLocalDate();
+    }
+
+    // Writes one row at a time as a CSV line (after a header) or an NDJSON object
+    private final class RowWriter implements AutoCloseable {
+        private final Format format;
+        private final String[] columns;
+        private final Writer writer;
+        private final JsonGenerator json;
+
+        RowWriter(OutputStream out, Format format, String[] columns) throws IOException {
+            this.format = format;
+            this.columns = columns;
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            if (format == Format.NDJSON) {
+                this.json = objectMapper.getFactory().createGenerator(writer);
+                this.json.setRootValueSeparator(null);
+            } else {
+                this.json = null;
+                writeCsv(columns);
+            }
+        }
+
+        void row(Object... values) {
+            try {
+                if (format == Format.NDJSON) {
+                    json.writeStartObject();
+                    for (int i = 0; i < columns.length; i++) {
+                        json.writeFieldName(columns[i]);
+                        if (values[i] == null) {
+                            json.writeNull();
+                        } else if (values[i] instanceof Number n) {
+                            json.writeNumber(n.toString());
+                        } else {
+                            json.writeString(values[i].toString());
+                        }
+                    }
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                } else {
+                    writeCsv(values);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private void writeCsv(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writer.write(csv(values[i].toString()));
+                }
+            }
+            writer.write('\n');
+        }
+
+        private String csv(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (json != null) {
+                json.flush();
+            }
+            writer.flush();
+        }
+    }
+}
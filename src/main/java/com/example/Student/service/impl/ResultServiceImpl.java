@@ -0,0 +1,178 @@
+package com.example.Student.service.impl;
+
+import com.example.Student.config.Workload;
+import com.example.Student.config.WorkloadPool;
+import com.example.Student.dto.MarksSheetDTO;
+import com.example.Student.dto.MarksSheetReport;
+import com.example.Student.dto.MarksSheetReport.Outcome;
+import com.example.Student.dto.ResultDTO;
+import com.example.Student.exception.ResourceNotFoundException;
+import com.example.Student.model.Result;
+import com.example.Student.model.Student;
+import com.example.Student.model.Subject;
+import com.example.Student.repository.ResultRepository;
+import com.example.Student.repository.StudentRepository;
+import com.example.Student.repository.SubjectRepository;
+import com.example.Student.service.AnalyticsService;
+import com.example.Student.service.CgpaService;
+import com.example.Student.service.ResultService;
+import com.example.Student.service.ResultStatisticsStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+public class ResultServiceImpl implements ResultService {
+    private static final int UPSERT_CHUNK = 500;
+
+    private final ResultRepository repo;
+    private final StudentRepository studentRepository;
+    private final SubjectRepository subjectRepository;
+    private final AnalyticsService analyticsService;
+    private final ResultStatisticsStore statisticsStore;
+    private final CgpaService cgpaService;
+    private final JdbcTemplate jdbc;
+
+    public ResultServiceImpl(ResultRepository repo, StudentRepository studentRepository,
+                             SubjectRepository subjectRepository, AnalyticsService analyticsService,
+                             ResultStatisticsStore statisticsStore, CgpaService cgpaService,
+                             JdbcTemplate jdbc) {
+        this.repo = repo;
+        this.studentRepository = studentRepository;
+        this.subjectRepository = subjectRepository;
+        this.analyticsService = analyticsService;
+        this.statisticsStore = statisticsStore;
+        this.cgpaService = cgpaService;
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Result> getStudentResults(Integer studentId) {
+        return repo.findByStudent_Id(studentId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @WorkloadPool(Workload.REPORTING)
+    public List<Result> getDepartmentResults(String departmentName) {
+        return repo.findBySubject_Department_Name(departmentName);
+    }
+
+    @Override
+    @Transactional
+    public Result saveResult(ResultDTO dto) {
+        Optional<Student> studentOpt = studentRepository.findById(dto.getStudentId());
+        Optional<Subject> subjectOpt = subjectRepository.findById(dto.getSubjectId());
+
+        if (studentOpt.isEmpty() || subjectOpt.isEmpty()) {
+            throw new ResourceNotFoundException("Invalid Student or Subject ID");
+        }
+
+        Student student = studentOpt.get();
+        Subject subject = subjectOpt.get();
+
+        // The marks sheet's upsert: two first saves of a pair cannot both insert, on any node
+        upsert(List.of(dto));
+        Result result = repo.findByStudent_IdAndSubject_Id(student.getId(), subject.getId())
+                .orElseThrow(() -> new IllegalStateException("Result not found after save"));
+        statisticsStore.record(student.getId(), subject.getId());
+        cgpaService.recomputeStudents(List.of(student.getId()));
+        analyticsService.invalidate();
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public MarksSheetReport saveMarksSheet(MarksSheetDTO sheet) {
+        MarksSheetReport report = new MarksSheetReport();
+        List<ResultDTO> entries = sheet.getEntries() != null ? sheet.getEntries() : List.of();
+
+        Set<Integer> studentIds = new HashSet<>();
+        Set<Integer> subjectIds = new HashSet<>();
+        for (ResultDTO entry : entries) {
+            if (entry.getSubjectId() == null) {
+                entry.setSubjectId(sheet.getSubjectId());
+            }
+            if (entry.getStudentId() != null) {
+                studentIds.add(entry.getStudentId());
+            }
+            if (entry.getSubjectId() != null) {
+                subjectIds.add(entry.getSubjectId());
+            }
+        }
+
+        // Two set-based lookups validate every id on the sheet
+        Set<Integer> knownStudents = studentIds.isEmpty() ? Set.of() : studentRepository.findExistingIds(studentIds);
+        Map<Integer, Subject> knownSubjects = new HashMap<>();
+        if (!subjectIds.isEmpty()) {
+            subjectRepository.findByIdIn(subjectIds).forEach(s -> knownSubjects.put(s.getId(), s));
+        }
+
+        Set<Long> seen = new HashSet<>();
+        List<ResultDTO> valid = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            ResultDTO entry = entries.get(i);
+            Outcome outcome;
+            if (entry.getMarks() == null || entry.getMarks() < 0 || entry.getMarks() > 100) {
+                outcome = Outcome.INVALID_MARKS;
+            } else if (entry.getStudentId() == null || !knownStudents.contains(entry.getStudentId())) {
+                // Checked for null first: the immutable empty set rejects contains(null)
+                outcome = Outcome.UNKNOWN_STUDENT;
+            } else if (entry.getSubjectId() == null || !knownSubjects.containsKey(entry.getSubjectId())) {
+                outcome = Outcome.UNKNOWN_SUBJECT;
+            } else if (!seen.add(((long) entry.getStudentId() << 32) | entry.getSubjectId())) {
+                outcome = Outcome.DUPLICATE;
+            } else {
+                outcome = Outcome.SAVED;
+                valid.add(entry);
+            }
+            report.add(i, entry.getStudentId(), entry.getSubjectId(), outcome);
+        }
+
+        if (sheet.isAtomic() && report.getRejected() > 0) {
+            report.getRows().stream()
+                    .filter(row -> row.getOutcome() == Outcome.SAVED)
+                    .forEach(row -> row.setOutcome(Outcome.NOT_SAVED));
+            return report;
+        }
+
+        for (int from = 0; from < valid.size(); from += UPSERT_CHUNK) {
+            upsert(valid.subList(from, Math.min(from + UPSERT_CHUNK, valid.size())));
+        }
+        Set<Integer> affected = new HashSet<>();
+        Set<Integer> affectedSubjects = new HashSet<>();
+        valid.forEach(entry -> {
+            affected.add(entry.getStudentId());
+            affectedSubjects.add(entry.getSubjectId());
+        });
+        statisticsStore.recordAll(affected, affectedSubjects);
+        cgpaService.recomputeStudents(affected);
+        analyticsService.invalidate();
+        report.setCommitted(true);
+        return report;
+    }
+
+    // Multi-row upsert keyed on the (student_id, subject_id) unique constraint
+    private void upsert(List<ResultDTO> rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO results (student_id, subject_id, marks) VALUES ");
+        Object[] args = new Object[rows.size() * 3];
+        for (int i = 0; i < rows.size(); i++) {
+            ResultDTO row = rows.get(i);
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+            args[i * 3] = row.getStudentId();
+            args[i * 3 + 1] = row.getSubjectId();
+            args[i * 3 + 2] = row.getMarks();
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE marks = VALUES(marks)");
+        jdbc.update(sql.toString(), args);
+    }
+}
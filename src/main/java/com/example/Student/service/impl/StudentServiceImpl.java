@@ -1,14 +1,26 @@
 package com.example.Student.service.impl;
 
+import com.example.Student.dto.CursorPage;
+import com.example.Student.dto.PageCursor;
+import com.example.Student.model.Department;
 import com.example.Student.model.Student;
 import com.example.Student.repository.AttendanceRepository;
+import com.example.Student.repository.FeeLedgerRepository;
+import com.example.Student.repository.FeeRepository;
 import com.example.Student.repository.ResultRepository;
 import com.example.Student.repository.StudentRepository;
+import com.example.Student.service.AnalyticsService;
+import com.example.Student.service.AttendanceBitmapIndex;
+import com.example.Student.service.AttendanceRollups;
+import com.example.Student.service.FeeLedger;
+import com.example.Student.service.ResultStatisticsStore;
 import com.example.Student.service.StudentService;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -17,36 +29,100 @@ public class StudentServiceImpl implements StudentService {
     private final StudentRepository repo;
     private final ResultRepository resultRepository;
     private final AttendanceRepository attendanceRepository;
+    private final AnalyticsService analyticsService;
+    private final ResultStatisticsStore statisticsStore;
+    private final AttendanceBitmapIndex attendanceIndex;
+    private final AttendanceRollups attendanceRollups;
+    private final FeeLedger feeLedger;
+    private final FeeRepository feeRepository;
+    private final FeeLedgerRepository feeLedgerRepository;
 
-    public StudentServiceImpl(StudentRepository repo, ResultRepository resultRepository, AttendanceRepository attendanceRepository) {
+    public StudentServiceImpl(StudentRepository repo, ResultRepository resultRepository,
+                              AttendanceRepository attendanceRepository, AnalyticsService analyticsService,
+                              ResultStatisticsStore statisticsStore, AttendanceBitmapIndex attendanceIndex,
+                              AttendanceRollups attendanceRollups, FeeLedger feeLedger, FeeRepository feeRepository,
+                              FeeLedgerRepository feeLedgerRepository) {
         this.repo = repo;
         this.resultRepository = resultRepository;
         this.attendanceRepository = attendanceRepository;
+        this.analyticsService = analyticsService;
+        this.statisticsStore = statisticsStore;
+        this.attendanceIndex = attendanceIndex;
+        this.attendanceRollups = attendanceRollups;
+        this.feeLedger = feeLedger;
+        this.feeRepository = feeRepository;
+        this.feeLedgerRepository = feeLedgerRepository;
     }
 
     @Override
     public Student createStudent(Student student) {
-        return repo.save(student);
+        Student created = repo.save(student);
+        analyticsService.invalidate();
+        return created;
     }
 
     @Override
-    public List<Student> getAllStudents() {
-        return repo.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<Student> findStudents(String department, Double minCgpa, Double maxCgpa, String namePrefix,
+                                            String sort, String cursor, int limit) {
+        String sortKey = sort == null || sort.isBlank() ? "id" : sort;
+        PageCursor after = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor) : null;
+        if (after != null && !sortKey.equals(after.getSort())) {
+            throw new IllegalArgumentException("Cursor was issued for sort '" + after.getSort() + "'");
+        }
+        String dept = department != null && !department.isBlank() ? department : null;
+        String namePattern = PageCursor.likePrefix(namePrefix);
+        Integer afterId = after != null ? after.getId() : null;
+        // Fetch one extra row to learn whether another page exists
+        PageRequest window = PageRequest.of(0, limit + 1);
+
+        List<Student> rows;
+        switch (sortKey) {
+            case "id" -> rows = repo.findPageById(dept, minCgpa, maxCgpa, namePattern, afterId, window);
+            case "name" -> rows = repo.findPageByName(dept, minCgpa, maxCgpa, namePattern,
+                    after != null ? after.getKey() : null, afterId, window);
+            case "cgpa" -> rows = repo.findPageByCgpa(dept, minCgpa, maxCgpa, namePattern,
+                    after != null ? cgpaKey(after.getKey()) : null, afterId, window);
+            default -> throw new IllegalArgumentException("Unsupported sort '" + sortKey + "'");
+        }
+
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Student> page = rows.subList(0, limit);
+        Student last = page.get(limit - 1);
+        String key = switch (sortKey) {
+            case "name" -> last.getName();
+            case "cgpa" -> last.getCgpa() != null ? String.valueOf(last.getCgpa()) : null;
+            default -> null;
+        };
+        return new CursorPage<>(page, new PageCursor(sortKey, key, last.getId()).encode());
     }
 
-    @Override
-    public List<Student> getStudentsByDepartment(String department) {
-        return repo.findByDepartment_Name(department);
+    // An empty key marks a cursor inside the students without a CGPA
+    private static Double cgpaKey(String key) {
+        if (key == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(key);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Student> getStudentById(Integer id) {
         return repo.findById(id);
     }
 
     @Override
+    @Transactional
     public Student updateStudent(Integer id, Student student) {
         return repo.findById(id).map(existing -> {
+            Integer from = departmentId(existing.getDepartment());
+            Integer to = departmentId(student.getDepartment());
             existing.setName(student.getName());
             existing.setDepartment(student.getDepartment());
             existing.setEmail(student.getEmail());
@@ -56,22 +132,41 @@ public class StudentServiceImpl implements StudentService {
             if (student.getCgpa() != null) {
                 existing.setCgpa(student.getCgpa());
             }
-            return repo.save(existing);
+            analyticsService.invalidate();
+            Student saved = repo.saveAndFlush(existing);
+            if (!Objects.equals(from, to)) {
+                feeLedger.transfer(id, to);
+            }
+            return saved;
         }).orElseThrow(() -> new RuntimeException("Student not found with id " + id));
     }
 
+    private static Integer departmentId(Department department) {
+        return department != null ? department.getId() : null;
+    }
+
     @Override
     @Transactional
     public void deleteStudent(Integer id) {
+        // Fees and ledger entries are the college's financial record and are never deleted with the student
+        if (feeRepository.existsByStudent_Id(id) || feeLedgerRepository.existsByStudentId(id)) {
+            throw new IllegalStateException("Student " + id + " has fee records and cannot be deleted");
+        }
         resultRepository.deleteByStudent_Id(id);
+        statisticsStore.removeStudent(id);
+        attendanceRollups.removeStudent(id);
         attendanceRepository.deleteByStudent_Id(id);
+        attendanceIndex.removeStudent(id);
         repo.deleteById(id);
+        analyticsService.invalidate();
     }
 
     @Override
+    @Transactional
     public Student updateCgpa(Integer id, Double cgpa) {
         return repo.findById(id).map(existing -> {
             existing.setCgpa(cgpa);
+            analyticsService.invalidate();
             return repo.save(existing);
         }).orElseThrow(() -> new RuntimeException("Student not found with id " + id));
     }
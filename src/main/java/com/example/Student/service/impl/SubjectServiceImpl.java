@@ -4,7 +4,10 @@ import com.example.Student.model.Department;
 import com.example.Student.model.Subject;
 import com.example.Student.repository.ResultRepository;
 import com.example.Student.repository.SubjectRepository;
+import com.example.Student.service.AnalyticsService;
+import com.example.Student.service.ResultStatisticsStore;
 import com.example.Student.service.DepartmentService;
+import com.example.Student.service.ReferenceDataCache;
 import com.example.Student.service.SubjectService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,21 +19,29 @@ public class SubjectServiceImpl implements SubjectService {
     private final SubjectRepository repo;
     private final DepartmentService departmentService;
     private final ResultRepository resultRepository;
+    private final AnalyticsService analyticsService;
+    private final ResultStatisticsStore statisticsStore;
+    private final ReferenceDataCache referenceDataCache;
 
-    public SubjectServiceImpl(SubjectRepository repo, DepartmentService departmentService, ResultRepository resultRepository) {
+    public SubjectServiceImpl(SubjectRepository repo, DepartmentService departmentService,
+                              ResultRepository resultRepository, AnalyticsService analyticsService,
+                              ResultStatisticsStore statisticsStore, ReferenceDataCache referenceDataCache) {
         this.repo = repo;
         this.departmentService = departmentService;
         this.resultRepository = resultRepository;
+        this.analyticsService = analyticsService;
+        this.statisticsStore = statisticsStore;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Override
     public List<Subject> listAll() {
-        return repo.findAll();
+        return referenceDataCache.listSubjects(null);
     }
 
     @Override
     public List<Subject> listByDepartmentName(String departmentName) {
-        return repo.findByDepartment_Name(departmentName);
+        return referenceDataCache.listSubjects(departmentName);
     }
 
     @Override
@@ -39,13 +50,19 @@ public class SubjectServiceImpl implements SubjectService {
                 ? departmentService.getOrCreateByName(departmentName)
                 : null;
         Subject s = new Subject(subjectName, dept);
-        return repo.save(s);
+        Subject created = repo.save(s);
+        referenceDataCache.invalidateSubjects();
+        analyticsService.invalidate();
+        return created;
     }
 
     @Override
     @Transactional
     public void delete(Integer id) {
         resultRepository.deleteBySubject_Id(id);
+        statisticsStore.removeSubject(id);
         repo.deleteById(id);
+        referenceDataCache.invalidateSubjects();
+        analyticsService.invalidate();
     }
 }
@@ -1,9 +1,13 @@
 package com.example.Student.service.impl;
 
+import com.example.Student.dto.CursorPage;
+import com.example.Student.dto.PageCursor;
 import com.example.Student.model.Teacher;
 import com.example.Student.repository.TeacherRepository;
 import com.example.Student.service.TeacherService;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,16 +27,43 @@ public class TeacherServiceImpl implements TeacherService {
     }
 
     @Override
-    public List<Teacher> getAllTeachers() {
-        return repo.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<Teacher> findTeachers(String department, String namePrefix, String sort, String cursor, int limit) {
+        String sortKey = sort == null || sort.isBlank() ? "id" : sort;
+        PageCursor after = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor) : null;
+        if (after != null && !sortKey.equals(after.getSort())) {
+            throw new IllegalArgumentException("Cursor was issued for sort '" + after.getSort() + "'");
+        }
+        String dept = department != null && !department.isBlank() ? department : null;
+        String namePattern = PageCursor.likePrefix(namePrefix);
+        Integer afterId = after != null ? after.getId() : null;
+        PageRequest window = PageRequest.of(0, limit + 1);
+
+        List<Teacher> rows;
+        switch (sortKey) {
+            case "id" -> rows = repo.findPageById(dept, namePattern, afterId, window);
+            case "name" -> rows = repo.findPageByName(dept, namePattern,
+                    after != null ? after.getKey() : null, afterId, window);
+            default -> throw new IllegalArgumentException("Unsupported sort '" + sortKey + "'");
+        }
+
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Teacher> page = rows.subList(0, limit);
+        Teacher last = page.get(limit - 1);
+        String key = "name".equals(sortKey) ? last.getName() : null;
+        return new CursorPage<>(page, new PageCursor(sortKey, key, last.getId()).encode());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Teacher> getTeacherById(Integer id) {
         return repo.findById(id);
     }
 
     @Override
+    @Transactional
     public Teacher updateTeacher(Integer id, Teacher teacher) {
         return repo.findById(id).map(existing -> {
             existing.setName(teacher.getName());
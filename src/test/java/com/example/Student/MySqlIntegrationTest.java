@@ -0,0 +1,66 @@
+package com.example.Student;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Base for tests of the MySQL-specific SQL (multi-row upserts, multi-table updates, SKIP LOCKED).
+ * One container is started for the whole run and shared through Spring's cached context; without
+ * Docker these tests are skipped. Each test names its own departments and students, so tests never
+ * depend on each other's rows.
+ */
+@SpringBootTest(properties = {
+        "auth.token.secret=integration-test-secret-of-at-least-32-bytes",
+        // Tests settle the inbox themselves
+        "payments.webhook.poll-ms=3600000",
+        "attendance.terms.start-months=1,7",
+        "attendance.archive.keep-terms=1",
+        "spring.jpa.show-sql=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class MySqlIntegrationTest {
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    protected JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        MYSQL.start();
+        registry.add("MYSQLHOST", MYSQL::getHost);
+        registry.add("MYSQLPORT", () -> MYSQL.getMappedPort(MySQLContainer.MYSQL_PORT));
+        registry.add("MYSQLDATABASE", MYSQL::getDatabaseName);
+        registry.add("MYSQLUSER", MYSQL::getUsername);
+        registry.add("MYSQLPASSWORD", MYSQL::getPassword);
+        Path data = Files.createTempDirectory("student-it");
+        registry.add("attendance.archive.dir", () -> data.resolve("attendance-archive").toString());
+        registry.add("attendance.write-behind.log-dir", () -> data.resolve("attendance-wal").toString());
+        registry.add("snapshot.dir", () -> data.resolve("snapshots").toString());
+    }
+
+    protected static String unique(String prefix) {
+        return prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    protected int department(String name) {
+        jdbc.update("INSERT INTO departments (name) VALUES (?)", name);
+        return jdbc.queryForObject("SELECT id FROM departments WHERE name = ?", Integer.class, name);
+    }
+
+    protected int student(String name, Integer departmentId) {
+        String email = unique(name) + "@example.com";
+        jdbc.update("INSERT INTO students (name, email, password, cgpa, department_id) VALUES (?, ?, 'x', NULL, ?)",
+                name, email, departmentId);
+        return jdbc.queryForObject("SELECT id FROM students WHERE email = ?", Integer.class, email);
+    }
+}
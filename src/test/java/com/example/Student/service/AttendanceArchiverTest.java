@@ -0,0 +1,81 @@
+package com.example.Student.service;
+
+import com.example.Student.MySqlIntegrationTest;
+import com.example.Student.model.Attendance;
+import com.example.Student.repository.AttendanceColdStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AttendanceArchiverTest extends MySqlIntegrationTest {
+    @Autowired
+    private AttendanceArchiver archiver;
+
+    @Autowired
+    private AttendanceColdStore coldStore;
+
+    // One test, since every run archives all closed terms and later phases depend on the file it wrote
+    @Test
+    void copiesClosedTermsDeletesOnlyCopiedRowsAndRefusesRowsThatDifferFromTheFile() {
+        LocalDate term = archiver.termStart(LocalDate.now()).minusYears(3);
+        LocalDate today = LocalDate.now();
+        int first = student("archive-a", null);
+        int second = student("archive-b", null);
+        attend(first, term, Attendance.PRESENT);
+        attend(first, term.plusDays(1), Attendance.LATE);
+        attend(second, term, Attendance.ABSENT);
+        attend(first, today, Attendance.PRESENT);
+
+        Map<String, Object> archived = termReport(archiver.archiveClosedTerms(), term);
+        assertEquals(3, ((Number) archived.get("archivedRows")).intValue());
+        assertEquals(3L, ((Number) archived.get("deletedRows")).longValue());
+        assertEquals(0, rowsBefore(first, second, archiver.nextTermStart(term)));
+        assertEquals(1, rowsOn(first, today));
+        assertTrue(coldStore.holds(first, term, Attendance.PRESENT));
+        assertTrue(coldStore.holds(first, term.plusDays(1), Attendance.LATE));
+        assertTrue(coldStore.holds(second, term, Attendance.ABSENT));
+
+        // A crash between writing the file and deleting leaves copied rows behind; they match and go
+        attend(second, term, Attendance.ABSENT);
+        Map<String, Object> resumed = termReport(archiver.archiveClosedTerms(), term);
+        assertEquals(0, ((Number) resumed.get("archivedRows")).intValue());
+        assertEquals(1L, ((Number) resumed.get("deletedRows")).longValue());
+        assertEquals(0, rowsOn(second, term));
+
+        // A row the file does not hold is never deleted
+        attend(second, term, Attendance.PRESENT);
+        assertThrows(IllegalStateException.class, archiver::archiveClosedTerms);
+        assertEquals(1, rowsOn(second, term));
+        jdbc.update("DELETE FROM attendance WHERE student_id = ?", second);
+    }
+
+    private void attend(int studentId, LocalDate date, String status) {
+        jdbc.update("INSERT INTO attendance (student_id, date, status) VALUES (?, ?, ?)",
+                studentId, Date.valueOf(date), status);
+    }
+
+    private int rowsOn(int studentId, LocalDate date) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM attendance WHERE student_id = ? AND date = ?",
+                Integer.class, studentId, Date.valueOf(date));
+    }
+
+    private int rowsBefore(int first, int second, LocalDate end) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM attendance WHERE student_id IN (?, ?) AND date < ?",
+                Integer.class, first, second, Date.valueOf(end));
+    }
+
+    private static Map<String, Object> termReport(List<Map<String, Object>> report, LocalDate termStart) {
+        return report.stream()
+                .filter(term -> termStart.equals(term.get("termStart")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Term " + termStart + " was not archived"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.Student.service;
+
+import com.example.Student.MySqlIntegrationTest;
+import com.example.Student.dto.AttendanceSummary;
+import com.example.Student.model.Attendance;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AttendanceRollupsTest extends MySqlIntegrationTest {
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private AttendanceRollups rollups;
+
+    @Test
+    void savesMoveCountsBetweenStatusesAndAgreeWithARebuild() {
+        LocalDate day = LocalDate.now();
+        // Another day in the same month, so both land in one monthly row
+        LocalDate other = day.getDayOfMonth() == 1 ? day.plusDays(1) : day.minusDays(1);
+        int department = department(unique("rollups"));
+        int a = student("rollups-a", department);
+        int b = student("rollups-b", department);
+        int c = student("rollups-c", null);
+
+        attendanceService.saveAttendance(day, Map.of(a, Attendance.PRESENT, b, Attendance.ABSENT, c, Attendance.LATE));
+        assertArrayEquals(new long[]{1, 1, 0}, departmentDay(department, day));
+        assertArrayEquals(new long[]{1, 0, 0}, studentMonth(a, day));
+        assertArrayEquals(new long[]{0, 0, 1}, studentMonth(c, day));
+
+        // a moves from present to absent, b is unchanged and c's unknown status is rejected
+        attendanceService.saveAttendance(day, Map.of(a, Attendance.ABSENT, b, Attendance.ABSENT, c, "holiday"));
+        assertArrayEquals(new long[]{0, 2, 0}, departmentDay(department, day));
+        assertArrayEquals(new long[]{0, 1, 0}, studentMonth(a, day));
+        assertArrayEquals(new long[]{0, 1, 0}, studentMonth(b, day));
+        assertArrayEquals(new long[]{0, 0, 1}, studentMonth(c, day));
+
+        attendanceService.saveAttendance(other, Map.of(a, Attendance.LATE));
+        assertArrayEquals(new long[]{0, 0, 1}, departmentDay(department, other));
+        assertArrayEquals(new long[]{0, 1, 1}, studentMonth(a, day));
+
+        rollups.rebuild();
+        assertArrayEquals(new long[]{0, 2, 0}, departmentDay(department, day));
+        assertArrayEquals(new long[]{0, 0, 1}, departmentDay(department, other));
+        assertArrayEquals(new long[]{0, 1, 1}, studentMonth(a, day));
+        assertArrayEquals(new long[]{0, 1, 0}, studentMonth(b, day));
+        assertArrayEquals(new long[]{0, 0, 1}, studentMonth(c, day));
+
+        AttendanceSummary month = rollups.studentSummary(a, day.withDayOfMonth(1), day.withDayOfMonth(day.lengthOfMonth()));
+        assertEquals(0, month.getPresent());
+        assertEquals(1, month.getAbsent());
+        assertEquals(1, month.getLate());
+    }
+
+    private long[] departmentDay(int departmentId, LocalDate date) {
+        return counts("SELECT present, absent, late FROM attendance_department_day WHERE department_id = ? AND date = ?",
+                departmentId, Date.valueOf(date));
+    }
+
+    private long[] studentMonth(int studentId, LocalDate date) {
+        return counts("SELECT present, absent, late FROM attendance_student_month WHERE student_id = ? AND month = ?",
+                studentId, Date.valueOf(date.withDayOfMonth(1)));
+    }
+
+    // A missing row reads as all zeros
+    private long[] counts(String sql, Object... args) {
+        List<long[]> rows = jdbc.query(sql, (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)}, args);
+        return rows.isEmpty() ? new long[3] : rows.get(0);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.Student.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    @Test
+    void staysClosedUntilMinimumCallsThenOpensAtTheFailureRate() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, 60_000);
+        fail(breaker);
+        fail(breaker);
+        succeed(breaker);
+        assertEquals(CircuitBreaker.State.CLOSED, state(breaker));
+
+        fail(breaker);
+        assertEquals(CircuitBreaker.State.OPEN, state(breaker));
+        assertFalse(breaker.tryAcquire());
+        assertTrue(breaker.retryAfterSeconds() > 1);
+    }
+
+    @Test
+    void oldOutcomesSlideOutOfTheWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 3, 1.0, 60_000);
+        fail(breaker);
+        fail(breaker);
+        succeed(breaker);
+        fail(breaker);
+        fail(breaker);
+        // The success is still one of the last three calls
+        assertEquals(CircuitBreaker.State.CLOSED, state(breaker));
+
+        fail(breaker);
+        assertEquals(CircuitBreaker.State.OPEN, state(breaker));
+    }
+
+    @Test
+    void halfOpenAdmitsOneTrialAndClosesOnSuccess() {
+        CircuitBreaker breaker = opened();
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, state(breaker));
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, state(breaker));
+        assertEquals(Integer.valueOf(0), breaker.stats().get("windowCalls"));
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void failedTrialReopens() {
+        CircuitBreaker breaker = opened();
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, state(breaker));
+        assertEquals(2L, breaker.stats().get("timesOpened"));
+    }
+
+    @Test
+    void releasedTrialLetsTheNextCallTry() {
+        CircuitBreaker breaker = opened();
+        assertTrue(breaker.tryAcquire());
+        breaker.release();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, state(breaker));
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void rejectsMinimumCallsLargerThanTheWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(5, 6, 0.5, 1000));
+    }
+
+    // Open with no wait, so the next tryAcquire moves straight to half-open
+    private static CircuitBreaker opened() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, 0);
+        fail(breaker);
+        fail(breaker);
+        assertEquals(CircuitBreaker.State.OPEN, state(breaker));
+        return breaker;
+    }
+
+    private static void fail(CircuitBreaker breaker) {
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+    }
+
+    private static void succeed(CircuitBreaker breaker) {
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+    }
+
+    private static Object state(CircuitBreaker breaker) {
+        return breaker.stats().get("state");
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.Student.service;
+
+import com.example.Student.MySqlIntegrationTest;
+import com.example.Student.dto.FeeBalanceView;
+import com.example.Student.dto.FeeScheduleRequest;
+import com.example.Student.model.FeeLedgerEntry;
+import com.example.Student.model.Student;
+import com.example.Student.repository.DepartmentRepository;
+import com.example.Student.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.IllegalTransactionStateException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FeeLedgerTest extends MySqlIntegrationTest {
+    private static final long AMOUNT_MINOR = 100_000;
+
+    @Autowired
+    private FeeLedger feeLedger;
+
+    @Autowired
+    private FeeScheduler feeScheduler;
+
+    @Autowired
+    private FeeService feeService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Test
+    void postingsKeepBothBalanceTablesEqualToTheLedger() {
+        int from = department(unique("ledger-from"));
+        int to = department(unique("ledger-to"));
+        int payer = student("ledger-payer", from);
+        int mover = student("ledger-mover", from);
+        String term = unique("T");
+
+        FeeScheduleRequest request = new FeeScheduleRequest();
+        request.setDepartmentId(from);
+        request.setTerm(term);
+        request.setDescription("Tuition");
+        request.setAmount(AMOUNT_MINOR / 100.0);
+        request.setDueDate(LocalDate.now().plusDays(30));
+        assertEquals(2, feeScheduler.generate(request).getCreated());
+        // Running the schedule again charges nobody twice
+        assertEquals(0, feeScheduler.generate(request).getCreated());
+        assertEquals(2, ledgerRows(FeeLedgerEntry.CHARGE, payer, mover));
+        assertArrayEquals(new long[]{AMOUNT_MINOR, 0, 0, AMOUNT_MINOR}, studentBalance(payer));
+        assertArrayEquals(new long[]{2 * AMOUNT_MINOR, 0, 0, 2 * AMOUNT_MINOR}, departmentBalance(from));
+
+        feeService.payFee(jdbc.queryForObject("SELECT id FROM fees WHERE student_id = ? AND term = ?",
+                Integer.class, payer, term), "receipt-1");
+        assertEquals(1, ledgerRows(FeeLedgerEntry.PAYMENT, payer, mover));
+        assertArrayEquals(new long[]{AMOUNT_MINOR, AMOUNT_MINOR, 0, 0}, studentBalance(payer));
+        assertArrayEquals(new long[]{2 * AMOUNT_MINOR, AMOUNT_MINOR, 0, AMOUNT_MINOR}, departmentBalance(from));
+
+        FeeBalanceView waived = feeLedger.adjust(mover, -2_500, "Waiver");
+        assertEquals((AMOUNT_MINOR - 2_500) / 100.0, waived.getOutstanding());
+        assertArrayEquals(new long[]{AMOUNT_MINOR, 0, -2_500, AMOUNT_MINOR - 2_500}, studentBalance(mover));
+
+        // The outstanding balance follows the student; what was charged and paid stays where it was posted
+        Student moved = studentRepository.findById(mover).orElseThrow();
+        moved.setDepartment(departmentRepository.findById(to).orElseThrow());
+        studentService.updateStudent(mover, moved);
+        assertEquals(2, ledgerRows(FeeLedgerEntry.TRANSFER, payer, mover));
+        assertEquals(Integer.valueOf(to), jdbc.queryForObject("SELECT department_id FROM fee_balance_student " +
+                "WHERE student_id = ?", Integer.class, mover));
+        assertArrayEquals(new long[]{AMOUNT_MINOR, 0, -2_500, AMOUNT_MINOR - 2_500}, studentBalance(mover));
+        assertArrayEquals(new long[]{2 * AMOUNT_MINOR, AMOUNT_MINOR, -2_500, 0}, departmentBalance(from));
+        assertArrayEquals(new long[]{0, 0, 0, AMOUNT_MINOR - 2_500}, departmentBalance(to));
+        assertEquals(departmentBalance(from)[3], outstandingOfStudentsIn(from));
+        assertEquals(departmentBalance(to)[3], outstandingOfStudentsIn(to));
+
+        // Rebuilding from the ledger gives the balances the postings maintained
+        long[] payerBefore = studentBalance(payer);
+        long[] moverBefore = studentBalance(mover);
+        long[] fromBefore = departmentBalance(from);
+        long[] toBefore = departmentBalance(to);
+        feeLedger.rebuildBalances();
+        assertArrayEquals(payerBefore, studentBalance(payer));
+        assertArrayEquals(moverBefore, studentBalance(mover));
+        assertArrayEquals(fromBefore, departmentBalance(from));
+        assertArrayEquals(toBefore, departmentBalance(to));
+    }
+
+    @Test
+    void studentsWithFeesAreNotDeleted() {
+        int department = department(unique("ledger-delete"));
+        int charged = student("ledger-charged", department);
+        FeeScheduleRequest request = new FeeScheduleRequest();
+        request.setDepartmentId(department);
+        request.setTerm(unique("T"));
+        request.setDescription("Tuition");
+        request.setAmount(AMOUNT_MINOR / 100.0);
+        request.setDueDate(LocalDate.now().plusDays(30));
+        feeScheduler.generate(request);
+
+        assertThrows(IllegalStateException.class, () -> studentService.deleteStudent(charged));
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM students WHERE id = ?", Integer.class, charged));
+    }
+
+    @Test
+    void postingNeedsTheTransactionThatChangedTheFees() {
+        assertThrows(IllegalTransactionStateException.class, () -> feeLedger.post(FeeLedgerEntry.CHARGE, List.of(1)));
+    }
+
+    private int ledgerRows(String kind, int first, int second) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM fee_ledger WHERE kind = ? AND student_id IN (?, ?)",
+                Integer.class, kind, first, second);
+    }
+
+    private long[] studentBalance(int studentId) {
+        return jdbc.queryForObject("SELECT charged_minor, paid_minor, adjusted_minor, outstanding_minor " +
+                "FROM fee_balance_student WHERE student_id = ?", (rs, i) -> balance(rs), studentId);
+    }
+
+    private long[] departmentBalance(int departmentId) {
+        return jdbc.queryForObject("SELECT charged_minor, paid_minor, adjusted_minor, outstanding_minor " +
+                "FROM fee_balance_department WHERE department_id = ?", (rs, i) -> balance(rs), departmentId);
+    }
+
+    private long outstandingOfStudentsIn(int departmentId) {
+        return jdbc.queryForObject("SELECT COALESCE(SUM(outstanding_minor), 0) FROM fee_balance_student " +
+                "WHERE department_id = ?", Long.class, departmentId);
+    }
+
+    private static long[] balance(java.sql.ResultSet rs) throws java.sql.SQLException {
+        return new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)};
+    }
+}
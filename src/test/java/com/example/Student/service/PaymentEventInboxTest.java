@@ -0,0 +1,114 @@
+package com.example.Student.service;
+
+import com.example.Student.MySqlIntegrationTest;
+import com.example.Student.dto.FeeScheduleRequest;
+import com.example.Student.model.PaymentEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentEventInboxTest extends MySqlIntegrationTest {
+    private static final long AMOUNT_MINOR = 125_050;
+
+    @Autowired
+    private PaymentEventInbox inbox;
+
+    @Autowired
+    private FeeScheduler feeScheduler;
+
+    @Test
+    void settlesMatchingEventsOnceAndRecordsEveryOutcome() {
+        int department = department(unique("inbox"));
+        int paidStudent = student("inbox-paid", department);
+        int twiceStudent = student("inbox-twice", department);
+        int underpaidStudent = student("inbox-underpaid", department);
+        String term = unique("T");
+        feeScheduler.generate(schedule(department, term));
+        int paid = feeOf(paidStudent, term);
+        int twice = feeOf(twiceStudent, term);
+        int underpaid = feeOf(underpaidStudent, term);
+
+        long settles = event(PaymentEventInbox.SUCCEEDED, "pi_paid", paid, AMOUNT_MINOR);
+        long first = event(PaymentEventInbox.SUCCEEDED, "pi_twice_1", twice, AMOUNT_MINOR);
+        long second = event(PaymentEventInbox.SUCCEEDED, "pi_twice_2", twice, AMOUNT_MINOR);
+        long shortPaid = event(PaymentEventInbox.SUCCEEDED, "pi_short", underpaid, AMOUNT_MINOR - 100);
+        long failed = event("payment_intent.payment_failed", "pi_failed", underpaid, AMOUNT_MINOR);
+        long unknown = event(PaymentEventInbox.SUCCEEDED, "pi_unknown", Integer.MAX_VALUE - 1, AMOUNT_MINOR);
+
+        assertEquals(6, inbox.settleBatch(100));
+        assertEquals(0, inbox.settleBatch(100));
+
+        assertEquals("PAID", status(paid));
+        assertEquals("pi_paid", transactionId(paid));
+        assertEquals(PaymentEvent.SETTLED, outcome(settles));
+
+        // Two intents paid the same fee: one settles it, the other is flagged for a refund
+        assertEquals("PAID", status(twice));
+        List<String> outcomes = List.of(outcome(first), outcome(second));
+        assertTrue(outcomes.contains(PaymentEvent.SETTLED) && outcomes.contains(PaymentEvent.MISMATCH),
+                outcomes::toString);
+
+        assertEquals("PENDING", status(underpaid));
+        assertNull(transactionId(underpaid));
+        assertEquals(PaymentEvent.MISMATCH, outcome(shortPaid));
+        assertEquals(PaymentEvent.IGNORED, outcome(failed));
+        assertEquals(PaymentEvent.UNKNOWN_FEE, outcome(unknown));
+
+        // Exactly one payment posted per settled fee, and the balances follow
+        assertEquals(1, payments(paid));
+        assertEquals(1, payments(twice));
+        assertEquals(0, payments(underpaid));
+        assertEquals(AMOUNT_MINOR, jdbc.queryForObject("SELECT paid_minor FROM fee_balance_student WHERE student_id = ?",
+                Long.class, twiceStudent));
+        assertEquals(2 * AMOUNT_MINOR, jdbc.queryForObject("SELECT paid_minor FROM fee_balance_department " +
+                "WHERE department_id = ?", Long.class, department));
+    }
+
+    private static FeeScheduleRequest schedule(int department, String term) {
+        FeeScheduleRequest request = new FeeScheduleRequest();
+        request.setDepartmentId(department);
+        request.setTerm(term);
+        request.setDescription("Tuition");
+        request.setAmount(AMOUNT_MINOR / 100.0);
+        request.setDueDate(LocalDate.now().plusDays(30));
+        return request;
+    }
+
+    private int feeOf(int studentId, String term) {
+        return jdbc.queryForObject("SELECT id FROM fees WHERE student_id = ? AND term = ?", Integer.class, studentId, term);
+    }
+
+    private long event(String type, String intentId, int feeId, long amountMinor) {
+        String eventId = unique("evt");
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbc.update("INSERT INTO payment_event_inbox (event_id, type, intent_id, fee_id, amount_minor, currency, " +
+                "event_created_at, received_at, payload) VALUES (?, ?, ?, ?, ?, 'inr', ?, ?, '{}')",
+                eventId, type, intentId, feeId, amountMinor, now, now);
+        return jdbc.queryForObject("SELECT id FROM payment_event_inbox WHERE event_id = ?", Long.class, eventId);
+    }
+
+    private String status(int feeId) {
+        return jdbc.queryForObject("SELECT status FROM fees WHERE id = ?", String.class, feeId);
+    }
+
+    private String transactionId(int feeId) {
+        return jdbc.queryForObject("SELECT transaction_id FROM fees WHERE id = ?", String.class, feeId);
+    }
+
+    private String outcome(long eventId) {
+        return jdbc.queryForObject("SELECT outcome FROM payment_event_inbox WHERE id = ?", String.class, eventId);
+    }
+
+    private int payments(int feeId) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM fee_ledger WHERE fee_id = ? AND kind = 'PAYMENT'",
+                Integer.class, feeId);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.Student.service.impl;
+
+import com.example.Student.MySqlIntegrationTest;
+import com.example.Student.dto.AttendanceSaveReport;
+import com.example.Student.dto.AttendanceSaveReport.Outcome;
+import com.example.Student.model.Attendance;
+import com.example.Student.service.AttendanceService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AttendanceServiceImplTest extends MySqlIntegrationTest {
+    // More than two upsert chunks, so the last one is partial
+    private static final int STUDENTS = 1_201;
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Test
+    void reportsAnOutcomePerStudentAcrossUpsertChunks() {
+        LocalDate day = LocalDate.now();
+        int department = department(unique("save"));
+        List<Integer> students = students(unique("save"), department);
+        int invalid = student("save-invalid", department);
+        int unknown = Integer.MAX_VALUE - 1;
+
+        Map<Integer, String> marks = new HashMap<>();
+        students.forEach(id -> marks.put(id, Attendance.PRESENT));
+        marks.put(invalid, "holiday");
+        marks.put(unknown, Attendance.PRESENT);
+        AttendanceSaveReport inserted = attendanceService.saveAttendance(day, marks);
+        assertEquals(STUDENTS, inserted.getWritten());
+        assertEquals(2, inserted.getRejected());
+        assertEquals(Outcome.INVALID_STATUS, inserted.getOutcomes().get(invalid));
+        assertEquals(Outcome.UNKNOWN_STUDENT, inserted.getOutcomes().get(unknown));
+        students.forEach(id -> assertEquals(Outcome.INSERTED, inserted.getOutcomes().get(id)));
+        // Nothing was written for the rejected status
+        assertEquals(STUDENTS, rows(day, department, null));
+        assertEquals(STUDENTS, rows(day, department, Attendance.PRESENT));
+
+        // The first chunk and part of the second change; the rest are untouched
+        int changed = 600;
+        Map<Integer, String> again = new HashMap<>();
+        for (int i = 0; i < students.size(); i++) {
+            again.put(students.get(i), i < changed ? Attendance.ABSENT : Attendance.PRESENT);
+        }
+        AttendanceSaveReport updated = attendanceService.saveAttendance(day, again);
+        assertEquals(changed, updated.getWritten());
+        assertEquals(0, updated.getRejected());
+        for (int i = 0; i < students.size(); i++) {
+            assertEquals(i < changed ? Outcome.UPDATED : Outcome.UNCHANGED, updated.getOutcomes().get(students.get(i)));
+        }
+        assertEquals(changed, rows(day, department, Attendance.ABSENT));
+        assertEquals(STUDENTS - changed, rows(day, department, Attendance.PRESENT));
+    }
+
+    private List<Integer> students(String prefix, int departmentId) {
+        List<Object[]> rows = new ArrayList<>(STUDENTS);
+        for (int i = 0; i < STUDENTS; i++) {
+            rows.add(new Object[]{prefix, prefix + "-" + i + "@example.com", departmentId});
+        }
+        jdbc.batchUpdate("INSERT INTO students (name, email, password, cgpa, department_id) VALUES (?, ?, 'x', NULL, ?)",
+                rows);
+        return jdbc.queryForList("SELECT id FROM students WHERE name = ? ORDER BY id", Integer.class, prefix);
+    }
+
+    // Rows for the department's students on the day, with the given status or any status when null
+    private int rows(LocalDate day, int departmentId, String status) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM attendance a JOIN students s ON s.id = a.student_id " +
+                "WHERE a.date = ? AND s.department_id = ? AND (? IS NULL OR a.status = ?)",
+                Integer.class, Date.valueOf(day), departmentId, status, status);
+    }
+}